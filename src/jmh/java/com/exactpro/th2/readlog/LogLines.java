@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.util.Random;
+
+/**
+ * Generates the lines similar to {@code examples/demo_log.txt} and {@code examples/security_status.txt}
+ */
+public final class LogLines {
+    public static final String TIMESTAMP_REGEXP = "^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\\.\\d{3}";
+    public static final String TIMESTAMP_FORMAT = "yyyy-MM-dd HH:mm:ss.SSS";
+    /**
+     * Extracts the FIX message from the line
+     */
+    public static final String MESSAGE_REGEXP = "8=FIXT\\.1\\.1\\u00019=\\d+\\u000135=(\\w+)\\u0001.*?10=\\d{3}";
+    public static final String INCOMING = "received message";
+    public static final String OUTGOING = "send message";
+
+    private static final char SOH = '\u0001';
+    private static final String[] NOISE = {
+            "Trying to get message id for message = NewOrderSingle",
+            "Found message id = 1 for message = NewOrderSingle",
+            "Trying to get message with id = 1",
+    };
+
+    private LogLines() {
+    }
+
+    /**
+     * @param length the approximate length of the lines with messages
+     * @param matchRatio the part of the lines with messages
+     */
+    public static String[] generate(int count, int length, double matchRatio) {
+        Random random = new Random(42);
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            lines[i] = random.nextDouble() < matchRatio
+                    ? message(i, length, random.nextBoolean())
+                    : timestamp(i) + ' ' + NOISE[i % NOISE.length];
+        }
+        return lines;
+    }
+
+    private static String message(int index, int length, boolean incoming) {
+        StringBuilder body = new StringBuilder(length);
+        if (index % 2 == 0) {
+            body.append("35=D").append(SOH).append("34=").append(646 + index).append(SOH)
+                    .append("49=DEMO-CONN2").append(SOH).append("52=20201124-12:17:03.767").append(SOH)
+                    .append("56=FGW").append(SOH).append("11=").append(2711808 + index).append(SOH)
+                    .append("22=8").append(SOH).append("38=100").append(SOH).append("40=2").append(SOH)
+                    .append("44=34").append(SOH).append("48=INSTR2").append(SOH).append("54=2").append(SOH);
+        } else {
+            body.append("35=f").append(SOH).append("34=").append(2852 + index).append(SOH)
+                    .append("49=FGW").append(SOH).append("52=20201124-11:17:26.968").append(SOH)
+                    .append("56=DEMO-CONN1").append(SOH).append("15=RUB").append(SOH)
+                    .append("48=INSTR1").append(SOH).append("58=The simulated SecurityStatus has been sent").append(SOH);
+        }
+        String prefix = timestamp(index) + ' ' + (incoming ? INCOMING : OUTGOING) + " [8=FIXT.1.1" + SOH + "9=";
+        for (int tag = 5000; prefix.length() + body.length() + 16 < length; tag++) {
+            body.append(tag).append("=VALUE").append(tag % 10).append(SOH);
+        }
+        return prefix + body.length() + SOH + body + "10=" + String.format("%03d", index % 1000) + SOH + ']';
+    }
+
+    private static String timestamp(int index) {
+        return String.format("2020-11-24 12:%02d:%02d.%03d", index / 60 % 60, index % 60, index % 1000);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import com.exactpro.th2.common.grpc.Direction;
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link RegexLogParser} for each part of the extraction: direction matching, groups extraction,
+ * joining groups to CSV and extracting the timestamp
+ */
+@State(Scope.Thread)
+public class RegexLogParserBenchmark {
+    private static final StreamId STREAM_ID = new StreamId("benchmark");
+    private static final int LINES = 1024;
+
+    @Param({"128", "512", "2048"})
+    public int lineLength;
+
+    @Param({"0.1", "0.5", "1.0"})
+    public double matchRatio;
+
+    private String[] lines;
+    private int index;
+    private final ParseResult result = new ParseResult();
+
+    private RegexLogParser directionParser;
+    private RegexLogParser groupsParser;
+    private RegexLogParser joiningParser;
+    private RegexLogParser timestampParser;
+
+    @Setup
+    public void setup() {
+        lines = LogLines.generate(LINES, lineLength, matchRatio);
+
+        directionParser = parser(".*", null, null);
+
+        AliasConfiguration groups = configuration(LogLines.MESSAGE_REGEXP, null, null);
+        groups.setGroups(List.of(0));
+        groupsParser = parser(groups);
+
+        AliasConfiguration joining = configuration(LogLines.MESSAGE_REGEXP, null, null);
+        joining.setJoinGroups(true);
+        joining.setHeadersFormat(Map.of("MsgType", "${1}", "Message", "${0}"));
+        joiningParser = parser(joining);
+
+        AliasConfiguration timestamp = configuration(LogLines.MESSAGE_REGEXP, LogLines.TIMESTAMP_REGEXP, LogLines.TIMESTAMP_FORMAT);
+        timestamp.setGroups(List.of(0));
+        timestampParser = parser(timestamp);
+    }
+
+    @Benchmark
+    public boolean direction() {
+        return directionParser.parse(STREAM_ID, nextLine(), result);
+    }
+
+    @Benchmark
+    public boolean groups() {
+        return groupsParser.parse(STREAM_ID, nextLine(), result);
+    }
+
+    /**
+     * The same as {@link #groups()} but creates {@link LogData} for each line
+     */
+    @Benchmark
+    public LogData groupsLogData() {
+        return groupsParser.parse(STREAM_ID, nextLine());
+    }
+
+    @Benchmark
+    public boolean joinGroups() {
+        return joiningParser.parse(STREAM_ID, nextLine(), result);
+    }
+
+    @Benchmark
+    public boolean timestamp() {
+        return timestampParser.parse(STREAM_ID, nextLine(), result);
+    }
+
+    private String nextLine() {
+        String line = lines[index];
+        index = (index + 1) % lines.length;
+        return line;
+    }
+
+    private static RegexLogParser parser(String regexp, String timestampRegexp, String timestampFormat) {
+        return parser(configuration(regexp, timestampRegexp, timestampFormat));
+    }
+
+    private static RegexLogParser parser(AliasConfiguration configuration) {
+        return new RegexLogParser(Map.of(STREAM_ID.getSessionAlias(), configuration));
+    }
+
+    private static AliasConfiguration configuration(String regexp, String timestampRegexp, String timestampFormat) {
+        AliasConfiguration configuration = new AliasConfiguration(
+                regexp,
+                ".*",
+                Map.of(Direction.FIRST, LogLines.INCOMING, Direction.SECOND, LogLines.OUTGOING),
+                timestampRegexp,
+                timestampFormat
+        );
+        configuration.setTimestampZone(ZoneOffset.UTC);
+        return configuration;
+    }
+}
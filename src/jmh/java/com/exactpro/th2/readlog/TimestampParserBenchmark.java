@@ -0,0 +1,54 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares {@link TimestampParser} with parsing by {@link DateTimeFormatter}
+ */
+@State(Scope.Thread)
+public class TimestampParserBenchmark {
+    private static final String TIMESTAMP = "2020-11-24 12:17:03.767";
+
+    private DateTimeFormatter formatter;
+    private TimestampParser parser;
+
+    @Setup
+    public void setup() {
+        formatter = DateTimeFormatter.ofPattern(LogLines.TIMESTAMP_FORMAT);
+        parser = TimestampParser.create(LogLines.TIMESTAMP_FORMAT, formatter, ZoneOffset.UTC);
+    }
+
+    @Benchmark
+    public Instant timestampParser() {
+        return parser.parse(TIMESTAMP);
+    }
+
+    @Benchmark
+    public Instant formatter() {
+        return LocalDateTime.parse(TIMESTAMP, formatter).toInstant(ZoneOffset.UTC);
+    }
+}
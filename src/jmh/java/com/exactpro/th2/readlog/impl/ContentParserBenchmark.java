@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import com.exactpro.th2.common.grpc.Direction;
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.readlog.LogLines;
+import com.exactpro.th2.readlog.RegexLogParser;
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures converting a line to the messages by {@link ProtoRegexpContentParser} and {@link TransportRegexpContentParser}
+ */
+@State(Scope.Thread)
+public class ContentParserBenchmark {
+    private static final StreamId STREAM_ID = new StreamId("benchmark");
+    private static final int LINES = 1024;
+
+    @Param({"128", "512", "2048"})
+    public int lineLength;
+
+    @Param({"0.1", "0.5", "1.0"})
+    public double matchRatio;
+
+    private String[] lines;
+    private int index;
+
+    private ProtoRegexpContentParser protoParser;
+    private TransportRegexpContentParser transportParser;
+
+    @Setup
+    public void setup() {
+        lines = LogLines.generate(LINES, lineLength, matchRatio);
+        AliasConfiguration configuration = new AliasConfiguration(
+                LogLines.MESSAGE_REGEXP,
+                ".*",
+                Map.of(Direction.FIRST, LogLines.INCOMING, Direction.SECOND, LogLines.OUTGOING),
+                LogLines.TIMESTAMP_REGEXP,
+                LogLines.TIMESTAMP_FORMAT
+        );
+        configuration.setTimestampZone(ZoneOffset.UTC);
+        configuration.setGroups(List.of(0));
+        RegexLogParser parser = new RegexLogParser(Map.of(STREAM_ID.getSessionAlias(), configuration));
+        protoParser = new ProtoRegexpContentParser(parser);
+        transportParser = new TransportRegexpContentParser(parser);
+    }
+
+    @Benchmark
+    public List<?> proto() {
+        return protoParser.lineToMessages(STREAM_ID, nextLine());
+    }
+
+    @Benchmark
+    public List<?> transport() {
+        return transportParser.lineToMessages(STREAM_ID, nextLine());
+    }
+
+    private String nextLine() {
+        String line = lines[index];
+        index = (index + 1) % lines.length;
+        return line;
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.exactpro.th2.read.file.common.StreamId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the batches on the sender threads so the reader does not wait for the broker.
+ * <p>
+ * The batches of a session alias are always sent by the same thread in the order they were published.
+ * Each thread has a bounded queue. When the queue is full {@link #publish(StreamId, Task)} blocks the reader until
+ * there is free space in it.
+ * <p>
+ * If there are no sender threads the batches are sent by the calling thread.
+ */
+final class AsyncPublisher implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncPublisher.class);
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final Sender[] senders;
+    private volatile boolean closed;
+
+    /**
+     * @param threads the number of sender threads. {@code 0} means the batches are sent by the calling thread
+     * @param queueSize the number of batches that can wait for sending on each thread
+     */
+    AsyncPublisher(int threads, int queueSize) {
+        if (threads < 0) {
+            throw new IllegalArgumentException("threads must not be negative but was " + threads);
+        }
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("queue size must be positive but was " + queueSize);
+        }
+        senders = new Sender[threads];
+        for (int i = 0; i < threads; i++) {
+            senders[i] = new Sender("publisher-" + (i + 1), queueSize);
+        }
+    }
+
+    void publish(StreamId streamId, Task task) {
+        Objects.requireNonNull(streamId, "'Stream id' parameter");
+        Objects.requireNonNull(task, "'Task' parameter");
+        if (senders.length == 0 || closed) {
+            send(streamId, task);
+            return;
+        }
+        Sender sender = senders[Math.floorMod(streamId.getSessionAlias().hashCode(), senders.length)];
+        try {
+            sender.queue.put(new Item(streamId, task));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while waiting for free space in the publishing queue. The batch for {} is sent immediately", streamId);
+            send(streamId, task);
+        }
+    }
+
+    /**
+     * Sends the queued batches and stops the sender threads
+     */
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        for (Sender sender : senders) {
+            sender.queue.put(Item.STOP);
+        }
+        for (Sender sender : senders) {
+            sender.thread.join(TimeUnit.SECONDS.toMillis(CLOSE_TIMEOUT_SECONDS));
+            if (sender.thread.isAlive()) {
+                LOGGER.warn("{} has not sent all batches in {} seconds", sender.thread.getName(), CLOSE_TIMEOUT_SECONDS);
+                sender.thread.interrupt();
+            }
+        }
+    }
+
+    private static void send(StreamId streamId, Task task) {
+        try {
+            task.send();
+        } catch (Exception e) {
+            LOGGER.error("Cannot publish batch for {}", streamId, e);
+        }
+    }
+
+    interface Task {
+        void send() throws Exception;
+    }
+
+    private static final class Sender {
+        private final BlockingQueue<Item> queue;
+        private final Thread thread;
+
+        private Sender(String name, int queueSize) {
+            queue = new ArrayBlockingQueue<>(queueSize);
+            thread = new Thread(this::run, name);
+            thread.start();
+        }
+
+        private void run() {
+            try {
+                while (true) {
+                    Item item = queue.take();
+                    if (item == Item.STOP) {
+                        return;
+                    }
+                    send(item.streamId, item.task);
+                }
+            } catch (InterruptedException e) {
+                LOGGER.warn("{} is interrupted. {} batch(es) are not sent", thread.getName(), queue.size());
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static final class Item {
+        private static final Item STOP = new Item(null, null);
+
+        private final StreamId streamId;
+        private final Task task;
+
+        private Item(StreamId streamId, Task task) {
+            this.streamId = streamId;
+            this.task = task;
+        }
+    }
+}
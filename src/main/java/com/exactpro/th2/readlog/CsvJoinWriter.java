@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.util.Objects;
+
+import com.exactpro.th2.readlog.regex.LineMatcher;
+
+/**
+ * Streaming CSV encoder for the {@code joinGroups} mode.
+ * <p>
+ * Produces exactly the same output as opencsv {@code CSVWriter} with default quote, escape and line end characters
+ * (all values are quoted and the quote character is doubled) without the trailing line end.
+ * The content is written to a thread-local buffer that is reused between the lines.
+ */
+final class CsvJoinWriter {
+    private static final char QUOTE = '"';
+    private static final char LINE_END = '\n';
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_CAPACITY));
+
+    private final char delimiter;
+    private final String header;
+
+    CsvJoinWriter(String[] headers, char delimiter) {
+        Objects.requireNonNull(headers, "'Headers' parameter");
+        this.delimiter = delimiter;
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < headers.length; i++) {
+            if (i > 0) {
+                builder.append(delimiter);
+            }
+            appendQuoted(builder, headers[i]);
+        }
+        header = builder.toString();
+    }
+
+    /**
+     * @return the buffer with the header row. The buffer must not be used after the next call of this method in the same thread
+     */
+    StringBuilder begin() {
+        StringBuilder buffer = BUFFER.get();
+        if (buffer.capacity() > MAX_RETAINED_CAPACITY) {
+            buffer = new StringBuilder(INITIAL_CAPACITY);
+            BUFFER.set(buffer);
+        }
+        buffer.setLength(0);
+        return buffer.append(header);
+    }
+
+    /**
+     * Appends the row built from {@code templates} for the current match of the {@code matcher}
+     */
+    void appendRow(StringBuilder out, LineMatcher matcher, CharSequence input, HeaderTemplate[] templates) {
+        out.append(LINE_END);
+        for (int i = 0; i < templates.length; i++) {
+            if (i > 0) {
+                out.append(delimiter);
+            }
+            out.append(QUOTE);
+            int valueStart = out.length();
+            templates[i].appendTo(matcher, input, out);
+            escapeQuotes(out, valueStart);
+            out.append(QUOTE);
+        }
+    }
+
+    private static void appendQuoted(StringBuilder out, String value) {
+        out.append(QUOTE);
+        int valueStart = out.length();
+        out.append(value);
+        escapeQuotes(out, valueStart);
+        out.append(QUOTE);
+    }
+
+    /**
+     * Doubles the quote characters in the {@code out} starting from the {@code from} index.
+     * The characters are shifted in place from the end, so nothing is copied out of the buffer
+     */
+    private static void escapeQuotes(StringBuilder out, int from) {
+        int length = out.length();
+        int quotes = 0;
+        for (int i = from; i < length; i++) {
+            if (out.charAt(i) == QUOTE) {
+                quotes++;
+            }
+        }
+        if (quotes == 0) {
+            return;
+        }
+        out.setLength(length + quotes);
+        int write = length + quotes - 1;
+        // the characters before the first quote stay in place
+        for (int read = length - 1; write > read; read--) {
+            char current = out.charAt(read);
+            out.setCharAt(write--, current);
+            if (current == QUOTE) {
+                out.setCharAt(write--, QUOTE);
+            }
+        }
+    }
+}
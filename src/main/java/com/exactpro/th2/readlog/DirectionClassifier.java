@@ -0,0 +1,318 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.IntStream;
+
+import com.exactpro.th2.common.grpc.Direction;
+import com.exactpro.th2.readlog.regex.RequiredLiterals;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Determines the direction of the line using the {@code directionRegexps}.
+ * <p>
+ * The result is the same as checking the patterns one by one in the configuration order and taking the first one that
+ * {@link Matcher#find() finds} a match in the line.
+ * But the patterns are merged into a single alternation, so a line is classified in a single scan.
+ * Patterns that match any line (e.g. {@code .*}) are not executed at all.
+ * If the pattern has a {@link RequiredLiterals required literal} that is missing in the line the pattern is not executed.
+ */
+abstract class DirectionClassifier {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectionClassifier.class);
+
+    private static final Set<String> ACCEPT_ANY_PATTERNS = Set.of(
+            "", ".*", ".*?", "^", "^.*", "^.*?"
+    );
+
+    /**
+     * @return the direction for the line or {@code null} if the line does not match any direction regexp
+     */
+    abstract Direction classify(CharSequence line);
+
+    /**
+     * @param directions the directions in the order of priority
+     * @param patterns the pattern for each direction
+     * @param literals the literal required by the pattern for each direction. The value is {@code null} if there is no such literal
+     */
+    static DirectionClassifier create(Direction[] directions, Pattern[] patterns, String[] literals) {
+        Objects.requireNonNull(directions, "'Directions' parameter");
+        Objects.requireNonNull(patterns, "'Patterns' parameter");
+        Objects.requireNonNull(literals, "'Literals' parameter");
+        if (directions.length != patterns.length || directions.length != literals.length) {
+            throw new IllegalArgumentException("the number of directions, patterns and literals must be the same");
+        }
+        // patterns after the one that accepts any line never take effect
+        int count = 0;
+        Direction acceptAll = null;
+        while (count < patterns.length) {
+            if (isAcceptAny(patterns[count])) {
+                acceptAll = directions[count];
+                break;
+            }
+            count++;
+        }
+        Direction[] checkedDirections = Arrays.copyOf(directions, count);
+        Pattern[] checkedPatterns = Arrays.copyOf(patterns, count);
+        String[] checkedLiterals = Arrays.copyOf(literals, count);
+        if (count == 0) {
+            return new Constant(acceptAll);
+        }
+        if (count == 1) {
+            return new Single(checkedDirections[0], checkedPatterns[0], checkedLiterals[0], acceptAll);
+        }
+        if (canBeCombined(checkedPatterns)) {
+            try {
+                return new Combined(checkedDirections, checkedPatterns, checkedLiterals, acceptAll);
+            } catch (PatternSyntaxException e) {
+                LOGGER.warn("Cannot combine direction patterns {}. They will be checked one by one",
+                        Arrays.toString(checkedPatterns), e);
+            }
+        }
+        return new Sequential(checkedDirections, checkedPatterns, checkedLiterals, acceptAll);
+    }
+
+    static boolean isAcceptAny(Pattern pattern) {
+        return pattern.flags() == 0 && ACCEPT_ANY_PATTERNS.contains(pattern.pattern());
+    }
+
+    /**
+     * The patterns cannot be wrapped into an alternation if they refer to the groups or to the previous match
+     */
+    private static boolean canBeCombined(Pattern[] patterns) {
+        for (Pattern pattern : patterns) {
+            if (pattern.flags() != 0 || refersToGroupsOrPreviousMatch(pattern.pattern())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean refersToGroupsOrPreviousMatch(String regexp) {
+        boolean quoted = false;
+        for (int i = 0; i < regexp.length() - 1; i++) {
+            if (regexp.charAt(i) != '\\') {
+                continue;
+            }
+            char next = regexp.charAt(++i);
+            if (quoted) {
+                quoted = next != 'E';
+                continue;
+            }
+            if (next == 'Q') {
+                quoted = true;
+            } else if ((next >= '1' && next <= '9') || next == 'k' || next == 'G') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Constant extends DirectionClassifier {
+        private final Direction direction;
+
+        private Constant(Direction direction) {
+            this.direction = direction;
+        }
+
+        @Override
+        Direction classify(CharSequence line) {
+            return direction;
+        }
+    }
+
+    private static final class Single extends DirectionClassifier {
+        private final Direction direction;
+        private final Pattern pattern;
+        private final String literal;
+        private final Direction otherwise;
+
+        private Single(Direction direction, Pattern pattern, String literal, Direction otherwise) {
+            this.direction = direction;
+            this.pattern = pattern;
+            this.literal = literal;
+            this.otherwise = otherwise;
+        }
+
+        @Override
+        Direction classify(CharSequence line) {
+            return RequiredLiterals.contains(line, literal) && pattern.matcher(line).find() ? direction : otherwise;
+        }
+    }
+
+    /**
+     * Uses the alternation {@code (p0)|(p1)|...|(pN)}. At each position the alternation tries the patterns in the
+     * configuration order. If the found match belongs to the pattern {@code pK} the search continues from the next
+     * position with the alternation of the patterns before {@code pK} only. So each position is checked once.
+     */
+    private static final class Combined extends DirectionClassifier {
+        private final Direction[] directions;
+        private final Direction otherwise;
+        /**
+         * The literals required by the patterns if each pattern has one. Otherwise, {@code null}
+         */
+        private final String[] literals;
+        /**
+         * The alternation of the first {@code i} patterns for index {@code i}. The last one contains all patterns
+         */
+        private final Pattern[] alternations;
+        /**
+         * The group that wraps the pattern in the alternation
+         */
+        private final int[] wrappingGroups;
+
+        private Combined(Direction[] directions, Pattern[] patterns, String[] literals, Direction otherwise) {
+            this.directions = directions;
+            this.otherwise = otherwise;
+            this.literals = Arrays.stream(literals).allMatch(Objects::nonNull) ? literals : null;
+            alternations = new Pattern[patterns.length + 1];
+            wrappingGroups = new int[patterns.length];
+            StringBuilder alternation = new StringBuilder();
+            int group = 1;
+            for (int i = 0; i < patterns.length; i++) {
+                if (i > 0) {
+                    alternation.append('|');
+                }
+                alternation.append('(').append(patterns[i].pattern()).append(')');
+                wrappingGroups[i] = group;
+                group += patterns[i].matcher("").groupCount() + 1;
+                alternations[i + 1] = Pattern.compile(alternation.toString());
+            }
+        }
+
+        @Override
+        Direction classify(CharSequence line) {
+            if (literals != null && noneOf(literals, line)) {
+                return otherwise;
+            }
+            Matcher matcher = alternations[alternations.length - 1].matcher(line);
+            int found = -1;
+            int from = 0;
+            while (from <= line.length() && matcher.find(from)) {
+                found = matchedPattern(matcher, found < 0 ? wrappingGroups.length : found);
+                if (found == 0) {
+                    break;
+                }
+                from = matcher.start() + 1;
+                matcher.usePattern(alternations[found]);
+            }
+            return found < 0 ? otherwise : directions[found];
+        }
+
+        private static boolean noneOf(String[] literals, CharSequence line) {
+            for (String literal : literals) {
+                if (RequiredLiterals.contains(line, literal)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int matchedPattern(Matcher matcher, int limit) {
+            for (int i = 0; i < limit; i++) {
+                if (matcher.start(wrappingGroups[i]) >= 0) {
+                    return i;
+                }
+            }
+            throw new IllegalStateException("Match does not belong to any direction pattern");
+        }
+    }
+
+    /**
+     * Checks the patterns one by one. The most frequently matched patterns are checked first,
+     * but the result is still the same as if they were checked in the configuration order.
+     * <p>
+     * The lines can be classified by several parsing threads at once, so the statistic is collected by {@link LongAdder}s
+     * and the order is rebuilt under the lock from the collected values.
+     */
+    private static final class Sequential extends DirectionClassifier {
+        private static final int REORDER_INTERVAL = 1024;
+
+        private final Direction[] directions;
+        private final Pattern[] patterns;
+        private final String[] literals;
+        private final Direction otherwise;
+        private final LongAdder[] hits;
+        /**
+         * The decayed number of hits of each pattern. Is guarded by {@code this}
+         */
+        private final long[] weights;
+        private final AtomicInteger checks = new AtomicInteger();
+        private volatile int[] order;
+
+        private Sequential(Direction[] directions, Pattern[] patterns, String[] literals, Direction otherwise) {
+            this.directions = directions;
+            this.patterns = patterns;
+            this.literals = literals;
+            this.otherwise = otherwise;
+            hits = new LongAdder[patterns.length];
+            Arrays.setAll(hits, index -> new LongAdder());
+            weights = new long[patterns.length];
+            order = IntStream.range(0, patterns.length).toArray();
+        }
+
+        @Override
+        Direction classify(CharSequence line) {
+            int found = -1;
+            for (int index : order) {
+                if (found >= 0 && index > found) {
+                    // a pattern with higher priority has already matched
+                    continue;
+                }
+                if (RequiredLiterals.contains(line, literals[index]) && patterns[index].matcher(line).find()) {
+                    found = index;
+                    if (index == 0) {
+                        break;
+                    }
+                }
+            }
+            updateStatistic(found);
+            return found < 0 ? otherwise : directions[found];
+        }
+
+        private void updateStatistic(int found) {
+            if (found >= 0) {
+                hits[found].increment();
+            }
+            if (checks.incrementAndGet() % REORDER_INTERVAL == 0) {
+                reorder();
+            }
+        }
+
+        /**
+         * The weights do not change while they are sorted, so the comparator stays consistent
+         */
+        private synchronized void reorder() {
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = weights[i] / 2 + hits[i].sumThenReset();
+            }
+            order = IntStream.range(0, patterns.length).boxed()
+                    .sorted(Comparator.comparingLong((Integer index) -> weights[index]).reversed())
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+        }
+    }
+}
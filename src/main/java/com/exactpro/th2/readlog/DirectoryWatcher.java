@@ -0,0 +1,101 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Notifies the listeners when a file is created or modified in the directory.
+ * <p>
+ * Some file systems (e.g. network ones) do not deliver the events. So the listeners must not rely only on the notifications.
+ */
+final class DirectoryWatcher implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DirectoryWatcher.class);
+
+    private final WatchService watchService;
+    private final List<Runnable> listeners;
+
+    private DirectoryWatcher(WatchService watchService, Path directory, List<Runnable> listeners) {
+        this.watchService = watchService;
+        this.listeners = List.copyOf(listeners);
+        Thread thread = new Thread(this::watch, "directory-watcher");
+        thread.setDaemon(true);
+        thread.start();
+        LOGGER.info("Watching {} for changes", directory);
+    }
+
+    /**
+     * @return the watcher or {@code null} if the directory cannot be watched
+     */
+    @Nullable
+    static DirectoryWatcher start(Path directory, List<Runnable> listeners) {
+        Objects.requireNonNull(directory, "'Directory' parameter");
+        Objects.requireNonNull(listeners, "'Listeners' parameter");
+        WatchService watchService = null;
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            return new DirectoryWatcher(watchService, directory, listeners);
+        } catch (IOException | UnsupportedOperationException e) {
+            LOGGER.warn("Cannot watch {}. Only polling is used", directory, e);
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException ex) {
+                    e.addSuppressed(ex);
+                }
+            }
+            return null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                // only the fact of the change matters. The reader checks the directory itself
+                key.pollEvents();
+                listeners.forEach(Runnable::run);
+                if (!key.reset()) {
+                    LOGGER.warn("The watched directory is no longer accessible. Only polling is used");
+                    return;
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            LOGGER.debug("Watch service is closed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.exactpro.th2.common.grpc.Direction;
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
+import com.exactpro.th2.readlog.regex.LineRegex;
+import com.exactpro.th2.readlog.regex.MatchBudget;
+import com.exactpro.th2.readlog.regex.RegexEngine;
+
+/**
+ * Everything {@link RegexLogParser} needs to process a line for a single alias.
+ * It is built once from the {@link AliasConfiguration} so nothing is re-derived for each line.
+ */
+final class ExtractionPlan {
+    private final String alias;
+    private final LineRegex regexp;
+    private final String regexpLiteral;
+    private final DirectionClassifier directionClassifier;
+    private final int[] groups;
+
+    private final boolean joinGroups;
+    private final HeaderTemplate[] headerTemplates;
+    private final CsvJoinWriter csvWriter;
+
+    private final LineRegex timestampRegexp;
+    private final String timestampLiteral;
+    private final DateTimeFormatter timestampFormat;
+    private final TimestampParser timestampParser;
+    private final ZoneId timestampZone;
+    private final Instant skipBefore;
+
+    private final MatchBudget matchBudget;
+
+    private final ReaderMetrics metrics;
+
+    private ExtractionPlan(String alias, AliasConfiguration configuration) {
+        this.alias = alias;
+        RegexEngine engine = configuration.getRegexEngine();
+        regexp = engine.compile(configuration.getRegexp());
+        regexpLiteral = configuration.getRegexpLiteral();
+        int groupCount = regexp.groupCount();
+
+        Map<Direction, Pattern> directionToPattern = configuration.getDirectionToPattern();
+        Direction[] directions = directionToPattern.keySet().toArray(Direction[]::new);
+        String[] directionLiterals = new String[directions.length];
+        for (int i = 0; i < directions.length; i++) {
+            directionLiterals[i] = configuration.getDirectionLiterals().get(directions[i]);
+        }
+        directionClassifier = DirectionClassifier.create(
+                directions,
+                directionToPattern.values().toArray(Pattern[]::new),
+                directionLiterals
+        );
+
+        groups = toIndexes(configuration.getGroups(), groupCount);
+
+        joinGroups = configuration.isJoinGroups();
+        Map<String, String> headersFormat = configuration.getHeadersFormat();
+        Set<String> groupNames = HeaderTemplate.groupNames(regexp.pattern());
+        headerTemplates = headersFormat.values().stream()
+                .map(format -> HeaderTemplate.compile(format, groupCount, groupNames))
+                .toArray(HeaderTemplate[]::new);
+        csvWriter = new CsvJoinWriter(headersFormat.keySet().toArray(String[]::new),
+                configuration.getGroupsJoinDelimiter().charAt(0));
+
+        timestampRegexp = configuration.getTimestampRegexp() == null ? null : engine.compile(configuration.getTimestampRegexp());
+        timestampLiteral = configuration.getTimestampLiteral();
+        timestampFormat = configuration.getTimestampFormat();
+        timestampZone = Objects.requireNonNullElse(configuration.getTimestampZone(), ZoneId.systemDefault());
+        timestampParser = timestampFormat == null
+                ? null
+                : TimestampParser.create(configuration.getTimestampFormatPattern(), timestampFormat, timestampZone);
+        skipBefore = configuration.getSkipBefore();
+        matchBudget = MatchBudget.create(configuration.getMatchStepLimit(), configuration.getMatchTimeout());
+        metrics = ReaderMetrics.forAlias(alias);
+    }
+
+    static ExtractionPlan create(String alias, AliasConfiguration configuration) {
+        Objects.requireNonNull(configuration, "'Configuration' parameter");
+        try {
+            return new ExtractionPlan(alias, configuration);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid configuration for alias '" + alias + "': " + e.getMessage(), e);
+        }
+    }
+
+    String getAlias() {
+        return alias;
+    }
+
+    LineRegex getRegexp() {
+        return regexp;
+    }
+
+    String getRegexpLiteral() {
+        return regexpLiteral;
+    }
+
+    DirectionClassifier getDirectionClassifier() {
+        return directionClassifier;
+    }
+
+    int[] getGroups() {
+        return groups;
+    }
+
+    boolean isJoinGroups() {
+        return joinGroups;
+    }
+
+    HeaderTemplate[] getHeaderTemplates() {
+        return headerTemplates;
+    }
+
+    CsvJoinWriter getCsvWriter() {
+        return csvWriter;
+    }
+
+    LineRegex getTimestampRegexp() {
+        return timestampRegexp;
+    }
+
+    String getTimestampLiteral() {
+        return timestampLiteral;
+    }
+
+    DateTimeFormatter getTimestampFormat() {
+        return timestampFormat;
+    }
+
+    TimestampParser getTimestampParser() {
+        return timestampParser;
+    }
+
+    ZoneId getTimestampZone() {
+        return timestampZone;
+    }
+
+    Instant getSkipBefore() {
+        return skipBefore;
+    }
+
+    MatchBudget getMatchBudget() {
+        return matchBudget;
+    }
+
+    ReaderMetrics getMetrics() {
+        return metrics;
+    }
+
+    private static int[] toIndexes(List<Integer> groups, int groupCount) {
+        if (groups.isEmpty()) {
+            int[] all = new int[groupCount + 1];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+        int[] indexes = new int[groups.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            int index = Objects.requireNonNull(groups.get(i), "group index cannot be null");
+            if (index < 0 || index > groupCount) {
+                throw new IllegalArgumentException("group index " + index + " is out of range. The regexp has only " + groupCount + " group(s)");
+            }
+            indexes[i] = index;
+        }
+        return indexes;
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.exactpro.th2.readlog.regex.LineMatcher;
+
+/**
+ * Pre-tokenized value of the {@code headersFormat} entry.
+ * <p>
+ * Follows the syntax previously handled by {@code StringSubstitutor}:
+ * <ul>
+ *     <li>{@code ${index}} and {@code ${name}} refer to the group in the regexp</li>
+ *     <li>{@code ${name:-default}} uses the default value if the group did not participate in the match</li>
+ *     <li>{@code $${...}} is an escaped variable and is written as {@code ${...}}</li>
+ * </ul>
+ * The values extracted from the line are never substituted again.
+ */
+final class HeaderTemplate {
+    private static final String PREFIX = "${";
+    private static final char SUFFIX = '}';
+    private static final char ESCAPE = '$';
+    private static final String VALUE_DELIMITER = ":-";
+
+    private final String format;
+    private final Part[] parts;
+
+    private HeaderTemplate(String format, Part[] parts) {
+        this.format = format;
+        this.parts = parts;
+    }
+
+    /**
+     * @param format the header format
+     * @param groupCount the number of groups in the regexp. Used to validate the references by index
+     * @param groupNames the names of the groups in the regexp. Used to validate the references by name
+     */
+    static HeaderTemplate compile(String format, int groupCount, Set<String> groupNames) {
+        Objects.requireNonNull(format, "'Format' parameter");
+        List<Part> parts = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int length = format.length();
+        int index = 0;
+        while (index < length) {
+            char current = format.charAt(index);
+            if (current == ESCAPE && format.startsWith(PREFIX, index + 1)) {
+                literal.append(PREFIX);
+                index += 1 + PREFIX.length();
+                continue;
+            }
+            if (format.startsWith(PREFIX, index)) {
+                int end = format.indexOf(SUFFIX, index + PREFIX.length());
+                if (end >= 0) {
+                    if (literal.length() > 0) {
+                        parts.add(Part.literal(literal.toString()));
+                        literal.setLength(0);
+                    }
+                    parts.add(Part.variable(format.substring(index + PREFIX.length(), end), groupCount, groupNames));
+                    index = end + 1;
+                    continue;
+                }
+            }
+            literal.append(current);
+            index++;
+        }
+        if (literal.length() > 0 || parts.isEmpty()) {
+            parts.add(Part.literal(literal.toString()));
+        }
+        return new HeaderTemplate(format, parts.toArray(Part[]::new));
+    }
+
+    /**
+     * @return the names of the named groups ({@code (?<name>...)} or {@code (?P<name>...)}) in the {@code regexp}
+     */
+    static Set<String> groupNames(String regexp) {
+        Set<String> names = new HashSet<>();
+        int length = regexp.length();
+        int classDepth = 0;
+        for (int index = 0; index < length; index++) {
+            char current = regexp.charAt(index);
+            if (current == '\\') {
+                if (regexp.startsWith("Q", index + 1)) {
+                    // the quoted sequence \Q...\E
+                    int end = regexp.indexOf("\\E", index + 2);
+                    index = end < 0 ? length : end + 1;
+                } else {
+                    index++;
+                }
+            } else if (current == '[') {
+                classDepth++;
+            } else if (current == ']' && classDepth > 0) {
+                classDepth--;
+            } else if (classDepth == 0 && current == '(') {
+                int start = regexp.startsWith("(?<", index) ? index + 3
+                        : regexp.startsWith("(?P<", index) ? index + 4
+                        : -1;
+                int end = start < 0 ? -1 : regexp.indexOf('>', start);
+                // (?<= and (?<! are the lookbehinds
+                if (end > start && Character.isLetter(regexp.charAt(start))) {
+                    names.add(regexp.substring(start, end));
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Appends the value for the current match of the {@code matcher} to the {@code out}.
+     * The groups are copied from the {@code input} directly without creating intermediate strings.
+     */
+    void appendTo(LineMatcher matcher, CharSequence input, StringBuilder out) {
+        for (Part part : parts) {
+            part.appendTo(matcher, input, out);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return format;
+    }
+
+    private static final class Part {
+        private final String literal;
+        private final String variable;
+        private final int groupIndex;
+        private final String groupName;
+        private final String defaultValue;
+
+        private Part(String literal, String variable, int groupIndex, String groupName, String defaultValue) {
+            this.literal = literal;
+            this.variable = variable;
+            this.groupIndex = groupIndex;
+            this.groupName = groupName;
+            this.defaultValue = defaultValue;
+        }
+
+        static Part literal(String value) {
+            return new Part(value, null, -1, null, null);
+        }
+
+        static Part variable(String expression, int groupCount, Set<String> groupNames) {
+            String variable = expression;
+            String defaultValue = null;
+            int delimiter = expression.indexOf(VALUE_DELIMITER);
+            if (delimiter >= 0) {
+                variable = expression.substring(0, delimiter);
+                defaultValue = expression.substring(delimiter + VALUE_DELIMITER.length());
+            }
+            Integer index = tryParse(variable);
+            if (index == null) {
+                if (!groupNames.contains(variable)) {
+                    throw new IllegalArgumentException("group '" + variable + "' is not found. The regexp has the named groups: " + new TreeSet<>(groupNames));
+                }
+                return new Part(null, variable, -1, variable, defaultValue);
+            }
+            if (index < 0) {
+                throw new IllegalArgumentException("group index cannot be negative: " + expression);
+            }
+            if (index > groupCount) {
+                throw new IllegalArgumentException("group index " + index + " is out of range. The regexp has only " + groupCount + " group(s)");
+            }
+            return new Part(null, variable, index, null, defaultValue);
+        }
+
+        void appendTo(LineMatcher matcher, CharSequence input, StringBuilder out) {
+            if (literal != null) {
+                out.append(literal);
+                return;
+            }
+            int start = groupName == null ? matcher.start(groupIndex) : matcher.start(groupName);
+            if (start >= 0) {
+                out.append(input, start, groupName == null ? matcher.end(groupIndex) : matcher.end(groupName));
+            } else if (defaultValue != null) {
+                out.append(defaultValue);
+            } else {
+                throw new IllegalArgumentException("Cannot resolve variable '" + variable + "'");
+            }
+        }
+
+        private static Integer tryParse(String value) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -22,10 +22,11 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public final class LogData {
     public static LogData EMPTY = new LogData(List.of());
-    private List<String> body;
+    private List<CharSequence> body;
     private String rawTimestamp;
     private Instant parsedTimestamp;
     private Direction direction;
@@ -34,16 +35,29 @@ public final class LogData {
         this(null);
     }
 
-    private LogData(List<String> body) {
+    private LogData(List<CharSequence> body) {
         this.body = body;
     }
 
-    public void addBody(String item) {
+    public void addBody(CharSequence item) {
         initIfNeeded();
         body.add(item);
     }
 
+    /**
+     * @return the body as strings. Prefer {@link #getBodySequences()} to avoid creating the strings
+     */
     public List<String> getBody() {
+        return getBodySequences().stream()
+                .map(item -> item == null ? null : item.toString())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the body parts. They can refer to the line the data was extracted from
+     * and must not be used after the next line is read
+     */
+    public List<CharSequence> getBodySequences() {
         return body == null ? Collections.emptyList() : body;
     }
 
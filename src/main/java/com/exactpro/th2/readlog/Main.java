@@ -30,28 +30,43 @@ import com.exactpro.th2.common.schema.message.impl.rabbitmq.transport.MessageId;
 import com.exactpro.th2.common.schema.message.impl.rabbitmq.transport.RawMessage;
 import com.exactpro.th2.read.file.common.AbstractFileReader;
 import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.read.file.common.state.Content;
+import com.exactpro.th2.read.file.common.state.ReaderState;
 import com.exactpro.th2.read.file.common.state.impl.InMemoryReaderState;
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
 import com.exactpro.th2.readlog.cfg.LogReaderConfiguration;
 import com.exactpro.th2.readlog.impl.CradleReaderState;
+import com.exactpro.th2.readlog.impl.DurableReaderState;
 import com.exactpro.th2.readlog.impl.LogFileReader;
+import com.exactpro.th2.readlog.impl.PrefetchingLookup;
+import com.exactpro.th2.readlog.impl.ProbingLookup;
+import com.exactpro.th2.readlog.impl.StateJournal;
+import com.exactpro.th2.readlog.impl.StreamDataLookup;
 import kotlin.Unit;
+import kotlin.jvm.functions.Function1;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.LineNumberReader;
 import java.nio.file.Path;
+import java.time.Clock;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
 
 public class Main {
 
@@ -75,12 +90,45 @@ public class Main {
             if (cfg.isJoinGroups() && cfg.getHeadersFormat().isEmpty()) {
                 throw new IllegalArgumentException("Alias " + alias + " has parameter joinGroups = true but does not have any headers defined");
             }
+            if (cfg.getMaxGroupSize() < 0) {
+                throw new IllegalArgumentException("Alias " + alias + " has negative maxGroupSize " + cfg.getMaxGroupSize());
+            }
         });
 
+        if (configuration.getWorkers() <= 0) {
+            throw new IllegalArgumentException("Workers " + configuration.getWorkers() + " must be positive");
+        }
+
+        if (configuration.getPublishThreads() < 0 || configuration.getPublishQueueSize() <= 0) {
+            throw new IllegalArgumentException("Publish threads " + configuration.getPublishThreads() + " must not be negative and publish queue size "
+                    + configuration.getPublishQueueSize() + " must be positive");
+        }
+
+        if (configuration.getParsingThreads() <= 0) {
+            throw new IllegalArgumentException("Parsing threads " + configuration.getParsingThreads() + " must be positive");
+        }
+
+        if (configuration.getDecompressionThreads() < 0) {
+            throw new IllegalArgumentException("Decompression threads " + configuration.getDecompressionThreads() + " must not be negative");
+        }
+
+        if (configuration.getCradleSyncParallelism() <= 0) {
+            throw new IllegalArgumentException("Cradle sync parallelism " + configuration.getCradleSyncParallelism() + " must be positive");
+        }
+
+        if (configuration.getStateSyncInterval().isNegative() || configuration.getStateSyncInterval().isZero()) {
+            throw new IllegalArgumentException("State sync interval " + configuration.getStateSyncInterval() + " must be positive");
+        }
+
         if (configuration.getPullingInterval().isNegative()) {
             throw new IllegalArgumentException("Pulling interval " + configuration.getPullingInterval() + " must not be negative");
         }
 
+        if (configuration.getMinPullingInterval().isNegative() || configuration.getMinPullingInterval().compareTo(configuration.getPullingInterval()) > 0) {
+            throw new IllegalArgumentException("Min pulling interval " + configuration.getMinPullingInterval()
+                    + " must not be negative and must not exceed pulling interval " + configuration.getPullingInterval());
+        }
+
         try {
             Event rootEvent = Event.start().endTimestamp()
                     .name("Log reader for " + String.join(",", configuration.getAliases().keySet()))
@@ -93,59 +141,172 @@ public class Main {
 
             CommonMetrics.READINESS_MONITOR.enable();
 
-            final Runnable processUpdates;
-
-            if (configuration.isUseTransport()) {
-                AbstractFileReader<LineNumberReader, RawMessage.Builder, MessageId.Builder> reader
-                        = LogFileReader.getTransportLogFileReader(
-                        configuration,
-                        configuration.isSyncWithCradle()
-                                ? new CradleReaderState(commonFactory.getCradleManager().getStorage(),
-                                streamId -> commonFactory.newMessageIDBuilder().getBookName(),
-                                CradleReaderState.WRAP_TRANSPORT)
-                                : new InMemoryReaderState(),
-                        streamId -> MessageId.builder(),
-                        (streamId, builders) -> publishTransportMessages(commonFactory.getTransportGroupBatchRouter(), streamId, builders, boxBookName),
-                        (streamId, message, ex) -> publishErrorEvent(eventBatchRouter, streamId, message, ex, rootId),
-                        (streamId, path, e) -> publishSourceCorruptedEvent(eventBatchRouter, path, streamId, e, rootId)
-                );
-
-                processUpdates = reader::processUpdates;
-                toDispose.add(reader);
-            } else {
-                AbstractFileReader<LineNumberReader,com.exactpro.th2.common.grpc.RawMessage.Builder, com.exactpro.th2.common.grpc.MessageID> reader
-                        = LogFileReader.getProtoLogFileReader(
-                        configuration,
-                        configuration.isSyncWithCradle()
-                                ? new CradleReaderState(commonFactory.getCradleManager().getStorage(), streamId -> boxBookName, CradleReaderState.WRAP_PROTO)
-                                : new InMemoryReaderState(),
-                        streamId -> commonFactory.newMessageIDBuilder().build(),
-                        (streamId, builders) -> publishProtoMessages(commonFactory.getMessageRouterRawBatch(), streamId, builders),
-                        (streamId, message, ex) -> publishErrorEvent(eventBatchRouter, streamId, message, ex, rootId),
-                        (streamId, path, e) -> publishSourceCorruptedEvent(eventBatchRouter, path, streamId, e, rootId)
-                );
-
-                processUpdates = reader::processUpdates;
-                toDispose.add(reader);
+            List<Map<String, AliasConfiguration>> partitions = LogFileReader.partitionAliases(configuration.getAliases(), configuration.getWorkers());
+            List<Runnable> processUpdates = new ArrayList<>(partitions.size());
+            List<UpdatesLoop> loops = new ArrayList<>(partitions.size());
+            ScheduledExecutorService executorService = Executors.newScheduledThreadPool(Math.max(1, partitions.size()));
+            StateJournal stateJournal = configuration.getStateFile() == null ? null : StateJournal.open(configuration.getStateFile());
+            if (stateJournal != null) {
+                // is closed after the publisher so the checkpoints of the batches sent on closing are saved
+                toDispose.add(stateJournal);
+                long syncMillis = configuration.getStateSyncInterval().toMillis();
+                executorService.scheduleWithFixedDelay(() -> syncState(stateJournal), syncMillis, syncMillis, TimeUnit.MILLISECONDS);
+            }
+            AsyncPublisher publisher = new AsyncPublisher(configuration.getPublishThreads(), configuration.getPublishQueueSize());
+            // is closed after the readers so the batches published on closing are sent
+            toDispose.add(publisher);
+            ExecutorService parsingExecutor = createParsingExecutor(configuration);
+            if (parsingExecutor != null) {
+                // is closed after the readers
+                toDispose.add(() -> shutdown(parsingExecutor));
             }
+            ExecutorService decompressionExecutor = createDecompressionExecutor(configuration);
+            if (decompressionExecutor != null) {
+                // is closed after the readers
+                toDispose.add(() -> shutdown(decompressionExecutor));
+            }
+            // the streams of all aliases are looked up in Cradle while the readers are created
+            PrefetchingLookup streamLookup = configuration.isSyncWithCradle()
+                    ? createStreamLookup(configuration, CradleReaderState.cradleQuery(
+                            commonFactory.getCradleManager().getStorage(),
+                            configuration.isUseTransport() ? streamId -> commonFactory.newMessageIDBuilder().getBookName() : streamId -> boxBookName,
+                            configuration.isUseTransport() ? CradleReaderState.WRAP_TRANSPORT : CradleReaderState.WRAP_PROTO))
+                    : null;
+            // each reader has its own state and parser, so the readers do not share any mutable objects except the stream lookup
+            for (Map<String, AliasConfiguration> aliases : partitions) {
+                UpdatesLoop loop = new UpdatesLoop(executorService, configuration.getMinPullingInterval(), configuration.getPullingInterval());
+                loops.add(loop);
+                if (configuration.isUseTransport()) {
+                    AbstractFileReader<LineNumberReader, RawMessage.Builder, MessageId.Builder> reader
+                            = LogFileReader.getTransportLogFileReader(
+                            configuration,
+                            aliases,
+                            parsingExecutor,
+                            decompressionExecutor,
+                            stateJournal,
+                            createReaderState(streamLookup, stateJournal, CradleReaderState.WRAP_TRANSPORT),
+                            streamId -> MessageId.builder(),
+                            (streamId, builders) -> {
+                                loop.markActive();
+                                return publishTransportMessages(commonFactory.getTransportGroupBatchRouter()::sendAll, publisher, streamId, builders, boxBookName,
+                                        aliases.get(streamId.getSessionAlias()), stateJournal);
+                            },
+                            (streamId, message, ex) -> publishErrorEvent(eventBatchRouter, streamId, message, ex, rootId),
+                            (streamId, path, e) -> publishSourceCorruptedEvent(eventBatchRouter, path, streamId, e, rootId)
+                    );
+
+                    processUpdates.add(reader::processUpdates);
+                    toDispose.add(reader);
+                } else {
+                    AbstractFileReader<LineNumberReader,com.exactpro.th2.common.grpc.RawMessage.Builder, com.exactpro.th2.common.grpc.MessageID> reader
+                            = LogFileReader.getProtoLogFileReader(
+                            configuration,
+                            aliases,
+                            parsingExecutor,
+                            decompressionExecutor,
+                            stateJournal,
+                            createReaderState(streamLookup, stateJournal, CradleReaderState.WRAP_PROTO),
+                            streamId -> commonFactory.newMessageIDBuilder().build(),
+                            (streamId, builders) -> {
+                                loop.markActive();
+                                return publishProtoMessages(commonFactory.getMessageRouterRawBatch()::sendAll, publisher, streamId, builders, stateJournal);
+                            },
+                            (streamId, message, ex) -> publishErrorEvent(eventBatchRouter, streamId, message, ex, rootId),
+                            (streamId, path, e) -> publishSourceCorruptedEvent(eventBatchRouter, path, streamId, e, rootId)
+                    );
 
-            ScheduledExecutorService executorService = Executors.newSingleThreadScheduledExecutor();
-            toDispose.add(() -> {
-                executorService.shutdown();
-                if (executorService.awaitTermination(5, TimeUnit.SECONDS)) {
-                    LOGGER.warn("Cannot shutdown executor for 5 seconds");
-                    executorService.shutdownNow();
+                    processUpdates.add(reader::processUpdates);
+                    toDispose.add(reader);
                 }
-            });
+            }
+            LOGGER.info("Aliases are processed by {} reader(s): {}", partitions.size(), partitions.stream().map(Map::keySet).collect(Collectors.toList()));
+
+            toDispose.add(() -> shutdown(executorService));
 
-            ScheduledFuture<?> future = executorService.scheduleWithFixedDelay(processUpdates, 0, configuration.getPullingInterval().toMillis(), TimeUnit.MILLISECONDS);
+            // the task is not executed concurrently with itself, so the streams of one reader are processed sequentially
+            for (int i = 0; i < loops.size(); i++) {
+                loops.get(i).start(processUpdates.get(i));
+            }
+            if (configuration.isWatchDirectory()) {
+                DirectoryWatcher watcher = DirectoryWatcher.start(configuration.getLogDirectory(),
+                        loops.stream().<Runnable>map(loop -> loop::wakeUp).collect(Collectors.toList()));
+                if (watcher != null) {
+                    toDispose.add(watcher);
+                }
+            }
             awaitShutdown(lock, condition);
-            future.cancel(true);
+            loops.forEach(UpdatesLoop::close);
         } catch (IOException | InterruptedException e) {
             LOGGER.error("Cannot read files from: {}", configuration.getLogDirectory(), e);
         }
     }
 
+    @Nullable
+    static ExecutorService createParsingExecutor(LogReaderConfiguration configuration) {
+        boolean pipelined = configuration.getAliases().values().stream().anyMatch(AliasConfiguration::isPipelineParsing);
+        if (!pipelined) {
+            return null;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(configuration.getParsingThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "parser-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates the lookup of the last stored messages and starts looking up the streams of all aliases
+     */
+    static PrefetchingLookup createStreamLookup(LogReaderConfiguration configuration, ProbingLookup.WindowQuery query) {
+        PrefetchingLookup lookup = new PrefetchingLookup(
+                new ProbingLookup(query, configuration.getCradleSyncWindow(), configuration.getCradleSyncMaxLookback(), Clock.systemUTC()),
+                configuration.getCradleSyncRefreshInterval(),
+                Clock.systemUTC()
+        );
+        lookup.prefetch(configuration.getAliases().keySet().stream().map(StreamId::new).collect(Collectors.toList()),
+                configuration.getCradleSyncParallelism());
+        return lookup;
+    }
+
+    /**
+     * The journal restores the state after the restart. Cradle is checked only for the streams the journal does not have
+     */
+    static ReaderState createReaderState(@Nullable StreamDataLookup streamLookup, @Nullable StateJournal stateJournal, Function1<byte[], Content> wrapContent) {
+        ReaderState state = stateJournal == null ? new InMemoryReaderState() : new DurableReaderState(stateJournal, wrapContent);
+        return streamLookup == null ? state : new CradleReaderState(state, streamLookup);
+    }
+
+    private static void syncState(StateJournal stateJournal) {
+        try {
+            stateJournal.sync();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Cannot save the reader state", e);
+        }
+    }
+
+    @Nullable
+    static ExecutorService createDecompressionExecutor(LogReaderConfiguration configuration) {
+        if (configuration.getDecompressionThreads() == 0) {
+            return null;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        // the threads are started only when compressed files are read
+        return Executors.newFixedThreadPool(configuration.getDecompressionThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "decompressor-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    static void shutdown(ExecutorService executorService) throws InterruptedException {
+        executorService.shutdown();
+        if (!executorService.awaitTermination(5, TimeUnit.SECONDS)) {
+            LOGGER.warn("Cannot shutdown executor for 5 seconds");
+            executorService.shutdownNow();
+        }
+    }
+
     @NotNull
     private static Unit publishSourceCorruptedEvent(MessageRouter<EventBatch> eventBatchRouter, Path path, StreamId streamId, Exception e, EventID rootEventId) {
         Event error = Event.start()
@@ -179,13 +340,24 @@ public class Main {
     }
 
     @NotNull
-    private static Unit publishProtoMessages(MessageRouter<com.exactpro.th2.common.grpc.RawMessageBatch> rawMessageBatchRouter, StreamId streamId, List<? extends com.exactpro.th2.common.grpc.RawMessage.Builder> builders) {
+    static Unit publishProtoMessages(BatchSender<com.exactpro.th2.common.grpc.RawMessageBatch> rawMessageBatchRouter, AsyncPublisher publisher, StreamId streamId,
+                                     List<? extends com.exactpro.th2.common.grpc.RawMessage.Builder> builders, @Nullable StateJournal stateJournal) {
         try {
             com.exactpro.th2.common.grpc.RawMessageBatch.Builder builder = com.exactpro.th2.common.grpc.RawMessageBatch.newBuilder();
             for (com.exactpro.th2.common.grpc.RawMessage.Builder msg : builders) {
                 builder.addMessages(msg);
             }
-            rawMessageBatchRouter.sendAll(builder.build(), "raw");
+            var batch = builder.build();
+            ReaderMetrics metrics = ReaderMetrics.forAlias(streamId.getSessionAlias());
+            publisher.publish(streamId, () -> {
+                long start = System.nanoTime();
+                rawMessageBatchRouter.sendAll(batch, "raw");
+                // the builders belong to the reader and can be reused while the batch is waiting for sending
+                metrics.batchPublished(batch.getMessagesCount(), System.nanoTime() - start);
+                if (stateJournal != null && batch.getMessagesCount() > 0) {
+                    stateJournal.sent(streamId, batch.getMessages(batch.getMessagesCount() - 1).getMetadata().getId().getSequence());
+                }
+            });
         } catch (Exception e) {
             LOGGER.error("Cannot publish batch for {}", streamId, e);
         }
@@ -193,18 +365,32 @@ public class Main {
     }
 
     @NotNull
-    private static Unit publishTransportMessages(MessageRouter<GroupBatch> rawMessageBatchRouter, StreamId streamId, List<? extends RawMessage.Builder> builders, String bookName) {
+    static Unit publishTransportMessages(BatchSender<GroupBatch> rawMessageBatchRouter, AsyncPublisher publisher, StreamId streamId, List<? extends RawMessage.Builder> builders,
+                                         String bookName, AliasConfiguration aliasConfiguration, @Nullable StateJournal stateJournal) {
         try {
-            // messages are grouped by session aliases
-            String sessionGroup = builders.get(0).idBuilder().getSessionAlias();
+            // messages are grouped by session aliases by default
+            String sessionGroup = Objects.requireNonNullElse(aliasConfiguration.getSessionGroup(), streamId.getSessionAlias());
 
-            List<MessageGroup> groups = new ArrayList<>(builders.size());
+            List<RawMessage> messages = new ArrayList<>(builders.size());
             for (RawMessage.Builder msgBuilder : builders) {
-                groups.add(new MessageGroup(List.of(msgBuilder.build())));
+                messages.add(msgBuilder.build());
             }
+            List<MessageGroup> groups = aliasConfiguration.getMessageGrouping()
+                    .split(messages, message -> message.getId().getDirection(), aliasConfiguration.getMaxGroupSize())
+                    .stream()
+                    .map(MessageGroup::new)
+                    .collect(Collectors.toList());
 
             var batch = new GroupBatch(bookName, sessionGroup, groups);
-            rawMessageBatchRouter.sendAll(batch, "transport-group");
+            ReaderMetrics metrics = ReaderMetrics.forAlias(streamId.getSessionAlias());
+            publisher.publish(streamId, () -> {
+                long start = System.nanoTime();
+                rawMessageBatchRouter.sendAll(batch, "transport-group");
+                metrics.batchPublished(messages.size(), System.nanoTime() - start);
+                if (stateJournal != null && !messages.isEmpty()) {
+                    stateJournal.sent(streamId, messages.get(messages.size() - 1).getId().getSequence());
+                }
+            });
         } catch (Exception e) {
             LOGGER.error("Cannot publish batch for {}", streamId, e);
         }
@@ -212,6 +398,14 @@ public class Main {
         return Unit.INSTANCE;
     }
 
+    /**
+     * Sends the batch to the pins with the {@code attributes}. It is {@link MessageRouter#sendAll} of the router
+     */
+    @FunctionalInterface
+    interface BatchSender<T> {
+        void sendAll(T batch, String... attributes) throws Exception;
+    }
+
     private static void configureShutdownHook(Deque<AutoCloseable> resources, ReentrantLock lock, Condition condition) {
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
             LOGGER.info("Shutdown start");
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+import com.exactpro.th2.common.schema.message.impl.rabbitmq.transport.Direction;
+import com.exactpro.th2.readlog.impl.ByteSlice;
+
+/**
+ * The result of parsing a line by {@link RegexLogParser#parse(com.exactpro.th2.read.file.common.StreamId, CharSequence, ParseResult)}.
+ * <p>
+ * The instance is reused for the next lines, so parsing a line that does not produce any message allocates nothing.
+ * The body parts and the raw timestamp are stored as ranges in the line and are created only when requested.
+ * The result refers to the line and must not be used after the line is changed.
+ */
+public final class ParseResult {
+    private static final int NO_GROUP = -1;
+
+    private CharSequence line;
+    private Direction direction;
+    /**
+     * The start and the end of each body part in the line
+     */
+    private int[] bodyRanges = new int[16];
+    private int bodyCount;
+    /**
+     * The UTF-8 bytes of the body created from the groups of the line when they are joined
+     */
+    private byte[] joinedBody;
+    private int timestampStart = NO_GROUP;
+    private int timestampEnd;
+    private Instant parsedTimestamp;
+    /**
+     * The metrics of the line that are not recorded yet. It is {@code null} if there is nothing to record
+     */
+    private ReaderMetrics metrics;
+    private ReaderMetrics.LineOutcome outcome = ReaderMetrics.LineOutcome.NOT_MATCHED;
+    private int lineBytes;
+    private long parseNanos;
+
+    void reset(CharSequence line) {
+        this.line = line;
+        direction = null;
+        bodyCount = 0;
+        joinedBody = null;
+        timestampStart = NO_GROUP;
+        timestampEnd = 0;
+        parsedTimestamp = null;
+        metrics = null;
+        outcome = ReaderMetrics.LineOutcome.NOT_MATCHED;
+    }
+
+    void setOutcome(ReaderMetrics.LineOutcome outcome) {
+        this.outcome = outcome;
+    }
+
+    /**
+     * Keeps the metrics of the line until {@link #recordMetrics()} is called
+     */
+    void setMetrics(ReaderMetrics metrics, int lineBytes, long parseNanos) {
+        this.metrics = metrics;
+        this.lineBytes = lineBytes;
+        this.parseNanos = parseNanos;
+    }
+
+    /**
+     * Records the kept metrics of the line. They are recorded once
+     */
+    void recordMetrics() {
+        if (metrics != null) {
+            metrics.lineParsed(outcome, lineBytes, parseNanos);
+            metrics = null;
+        }
+    }
+
+    void setDirection(Direction direction) {
+        this.direction = direction;
+    }
+
+    /**
+     * @param start the start of the part or {@code -1} if the group did not match
+     */
+    void addBody(int start, int end) {
+        if (joinedBody != null) {
+            throw new IllegalStateException("the body is already joined");
+        }
+        if (bodyRanges.length < (bodyCount + 1) * 2) {
+            bodyRanges = Arrays.copyOf(bodyRanges, bodyRanges.length * 2);
+        }
+        bodyRanges[bodyCount * 2] = start;
+        bodyRanges[bodyCount * 2 + 1] = end;
+        bodyCount++;
+    }
+
+    /**
+     * @param joinedBody the UTF-8 bytes of the body. The array is not copied
+     */
+    void setJoinedBody(byte[] joinedBody) {
+        if (bodyCount > 0) {
+            throw new IllegalStateException("the body is already extracted");
+        }
+        this.joinedBody = Objects.requireNonNull(joinedBody, "'Joined body' parameter");
+        bodyCount = 1;
+    }
+
+    void setTimestampRange(int start, int end) {
+        timestampStart = start;
+        timestampEnd = end;
+    }
+
+    void setParsedTimestamp(Instant parsedTimestamp) {
+        this.parsedTimestamp = parsedTimestamp;
+    }
+
+    public CharSequence getLine() {
+        return line;
+    }
+
+    /**
+     * @return the direction or {@code null} if the line does not belong to the alias
+     */
+    @Nullable
+    public Direction getDirection() {
+        return direction;
+    }
+
+    public int getBodyCount() {
+        return bodyCount;
+    }
+
+    /**
+     * @return the body part or {@code null} if the group did not match
+     */
+    @Nullable
+    public CharSequence getBody(int index) {
+        Objects.checkIndex(index, bodyCount);
+        if (joinedBody != null) {
+            return new String(joinedBody, StandardCharsets.UTF_8);
+        }
+        int start = bodyRanges[index * 2];
+        return start == NO_GROUP ? null : line.subSequence(start, bodyRanges[index * 2 + 1]);
+    }
+
+    /**
+     * @return the UTF-8 bytes of the body part or {@code null} if the group did not match.
+     * The array is not referenced by the result after the next line is parsed, so it can be wrapped without copying
+     */
+    @Nullable
+    public byte[] getBodyUtf8(int index) {
+        Objects.checkIndex(index, bodyCount);
+        if (joinedBody != null) {
+            return joinedBody;
+        }
+        int start = bodyRanges[index * 2];
+        return start == NO_GROUP ? null : ByteSlice.toUtf8(line, start, bodyRanges[index * 2 + 1]);
+    }
+
+    @Nullable
+    public String getRawTimestamp() {
+        CharSequence rawTimestamp = getRawTimestampSequence();
+        return rawTimestamp == null ? null : rawTimestamp.toString();
+    }
+
+    @Nullable
+    CharSequence getRawTimestampSequence() {
+        return timestampStart == NO_GROUP ? null : line.subSequence(timestampStart, timestampEnd);
+    }
+
+    @Nullable
+    public Instant getParsedTimestamp() {
+        return parsedTimestamp;
+    }
+
+    /**
+     * @return the copy of the result in the {@link LogData} form
+     */
+    public LogData toLogData() {
+        if (direction == null) {
+            return LogData.EMPTY;
+        }
+        LogData data = new LogData();
+        data.setDirection(direction);
+        for (int i = 0; i < bodyCount; i++) {
+            data.addBody(getBody(i));
+        }
+        data.setRawTimestamp(getRawTimestamp());
+        data.setParsedTimestamp(parsedTimestamp);
+        return data;
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
+import com.exactpro.th2.readlog.cfg.LogReaderConfiguration;
+import com.exactpro.th2.readlog.regex.BacktrackingAnalyzer;
+import com.exactpro.th2.readlog.regex.LineMatcher;
+import com.exactpro.th2.readlog.regex.LineRegex;
+import com.exactpro.th2.readlog.regex.MatchBudget;
+import com.exactpro.th2.readlog.regex.MatchBudgetExceededException;
+import com.exactpro.th2.readlog.regex.RegexEngine;
+
+/**
+ * Replays sample log files through {@link RegexLogParser} without any th2 connectivity
+ * and reports the cost of each alias configuration:
+ * lines per second, match ratio, average and p99 time per line and the slowest lines with the pattern that took most of the time.
+ * The regexps with the shapes found by {@link BacktrackingAnalyzer} are reported too.
+ * The slowest lines are matched again within the alias {@link MatchBudget} or within {@link #DEFAULT_BUDGET} if the alias has no budget,
+ * so a catastrophically backtracking regexp is reported as over budget instead of hanging the profiler.
+ * <p>
+ * Usage: {@code ParserProfiler [--top=N] [--warmup=N] [--alias=name] <configuration.json> <log file>...}
+ * <p>
+ * The lines of a file are parsed for the aliases which {@code pathFilter} matches the file name or for the {@code --alias}.
+ * The exit code is {@code 1} if a regexp executed by the {@link RegexEngine#JDK} engine has a risky shape.
+ */
+public final class ParserProfiler {
+    private static final int MAX_PRINTED_LINE = 160;
+    private static final int PATTERN_RUNS = 5;
+    private static final double NANOS_PER_MICRO = 1_000;
+    private static final MatchBudget DEFAULT_BUDGET = MatchBudget.create(0, Duration.ofSeconds(1));
+    /**
+     * The time of the pattern that exceeded the budget
+     */
+    private static final long OVER_BUDGET = Long.MAX_VALUE;
+
+    private final RegexLogParser parser;
+    private final Map<String, AliasProfile> profiles = new LinkedHashMap<>();
+
+    private ParserProfiler(LogReaderConfiguration configuration, int top) {
+        parser = new RegexLogParser(configuration.getAliases());
+        configuration.getAliases().forEach((alias, cfg) -> profiles.put(alias, new AliasProfile(alias, cfg, top)));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int top = 5;
+        int warmup = 1;
+        String forcedAlias = null;
+        List<Path> paths = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--top=")) {
+                top = Integer.parseInt(arg.substring("--top=".length()));
+            } else if (arg.startsWith("--warmup=")) {
+                warmup = Integer.parseInt(arg.substring("--warmup=".length()));
+            } else if (arg.startsWith("--alias=")) {
+                forcedAlias = arg.substring("--alias=".length());
+            } else {
+                paths.add(Paths.get(arg));
+            }
+        }
+        if (paths.size() < 2) {
+            System.err.println("Usage: ParserProfiler [--top=N] [--warmup=N] [--alias=name] <configuration.json> <log file>...");
+            System.exit(2);
+            return;
+        }
+        LogReaderConfiguration configuration = LogReaderConfiguration.MAPPER.readValue(paths.get(0).toFile(), LogReaderConfiguration.class);
+        if (forcedAlias != null && !configuration.getAliases().containsKey(forcedAlias)) {
+            throw new IllegalArgumentException("Unknown alias '" + forcedAlias + "'. No configuration found");
+        }
+        ParserProfiler profiler = new ParserProfiler(configuration, top);
+        List<Path> files = paths.subList(1, paths.size());
+        for (int i = 0; i < warmup; i++) {
+            for (Path file : files) {
+                profiler.replay(file, forcedAlias, false);
+            }
+        }
+        for (Path file : files) {
+            profiler.replay(file, forcedAlias, true);
+        }
+        boolean risky = profiler.report();
+        System.exit(risky ? 1 : 0);
+    }
+
+    private void replay(Path file, String forcedAlias, boolean record) throws IOException {
+        List<AliasProfile> aliases = new ArrayList<>();
+        for (AliasProfile profile : profiles.values()) {
+            if (forcedAlias == null
+                    ? profile.configuration.getPathFilter().matcher(file.getFileName().toString()).matches()
+                    : forcedAlias.equals(profile.alias)) {
+                aliases.add(profile);
+            }
+        }
+        if (aliases.isEmpty()) {
+            if (record) {
+                System.out.printf("No alias matches %s%n", file);
+            }
+            return;
+        }
+        ParseResult result = new ParseResult();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                for (AliasProfile profile : aliases) {
+                    boolean matched = false;
+                    boolean failed = false;
+                    long start = System.nanoTime();
+                    try {
+                        matched = parser.parse(profile.streamId, line, result);
+                    } catch (RuntimeException e) {
+                        failed = true;
+                    }
+                    long nanos = System.nanoTime() - start;
+                    if (record) {
+                        profile.add(nanos, matched, failed, file, lineNumber, line);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if any regexp executed by the backtracking engine has a risky shape
+     */
+    private boolean report() {
+        boolean risky = false;
+        for (AliasProfile profile : profiles.values()) {
+            AliasConfiguration cfg = profile.configuration;
+            System.out.printf("%nAlias '%s' (%s engine)%n", profile.alias, cfg.getRegexEngine());
+            if (profile.lines > 0) {
+                long[] times = Arrays.copyOf(profile.times, (int) profile.lines);
+                Arrays.sort(times);
+                long p99 = times[(int) Math.min(times.length - 1, Math.ceil(times.length * 0.99) - 1)];
+                System.out.printf("  lines: %d, matched: %d (%.1f%%), errors: %d%n",
+                        profile.lines, profile.matched, 100.0 * profile.matched / profile.lines, profile.errors);
+                System.out.printf("  throughput: %.0f lines/s%n", profile.lines * 1e9 / Math.max(1, profile.totalNanos));
+                System.out.printf("  time per line: avg %.2f us, p99 %.2f us, max %.2f us%n",
+                        profile.totalNanos / NANOS_PER_MICRO / profile.lines, p99 / NANOS_PER_MICRO, times[times.length - 1] / NANOS_PER_MICRO);
+                System.out.println("  slowest lines:");
+                List<SlowLine> slowest = new ArrayList<>(profile.slowest);
+                slowest.sort(Comparator.comparingLong((SlowLine line) -> line.nanos).reversed());
+                for (SlowLine line : slowest) {
+                    NamedRegex dominant = null;
+                    long dominantNanos = -1;
+                    for (NamedRegex regex : profile.patterns) {
+                        long nanos = regex.time(line.line, profile.budget);
+                        if (nanos > dominantNanos) {
+                            dominant = regex;
+                            dominantNanos = nanos;
+                        }
+                    }
+                    String dominantTime = dominantNanos == OVER_BUDGET
+                            ? "over budget " + profile.budget
+                            : String.format("%.2f us", dominantNanos / NANOS_PER_MICRO);
+                    System.out.printf("    %.2f us %s:%d, dominated by %s '%s' (%s): %s%n",
+                            line.nanos / NANOS_PER_MICRO, line.file.getFileName(), line.lineNumber,
+                            dominant.name, dominant.regex.pattern(), dominantTime, printable(line.line));
+                }
+            } else {
+                System.out.println("  no lines");
+            }
+
+            List<String> risks = new ArrayList<>();
+            for (NamedRegex regex : profile.patterns) {
+                List<String> found = BacktrackingAnalyzer.analyze(regex.source);
+                for (String risk : found) {
+                    risks.add(regex.name + " '" + regex.source.pattern() + "': " + risk);
+                }
+                // the linear-time engine is not affected by the risky shapes
+                risky |= regex.regex.engine() == RegexEngine.JDK && !found.isEmpty();
+            }
+            if (!risks.isEmpty()) {
+                System.out.println("  backtracking risks:");
+                risks.forEach(risk -> System.out.println("    " + risk));
+            }
+        }
+        return risky;
+    }
+
+    private static String printable(String line) {
+        StringBuilder result = new StringBuilder(Math.min(line.length(), MAX_PRINTED_LINE) + 8);
+        for (int i = 0; i < line.length() && result.length() < MAX_PRINTED_LINE; i++) {
+            char current = line.charAt(i);
+            if (current < 0x20) {
+                // caret notation, e.g. ^A for SOH
+                result.append('^').append((char) (current + '@'));
+            } else {
+                result.append(current);
+            }
+        }
+        if (result.length() >= MAX_PRINTED_LINE) {
+            result.append("...");
+        }
+        return result.toString();
+    }
+
+    private static final class AliasProfile {
+        private final String alias;
+        private final StreamId streamId;
+        private final AliasConfiguration configuration;
+        private final List<NamedRegex> patterns = new ArrayList<>();
+        private final MatchBudget budget;
+        private final int top;
+        private final PriorityQueue<SlowLine> slowest = new PriorityQueue<>(Comparator.comparingLong((SlowLine line) -> line.nanos));
+        private long[] times = new long[1024];
+        private long lines;
+        private long matched;
+        private long errors;
+        private long totalNanos;
+
+        private AliasProfile(String alias, AliasConfiguration configuration, int top) {
+            this.alias = alias;
+            this.configuration = configuration;
+            this.top = top;
+            streamId = new StreamId(alias);
+            MatchBudget aliasBudget = MatchBudget.create(configuration.getMatchStepLimit(), configuration.getMatchTimeout());
+            budget = aliasBudget.isUnlimited() ? DEFAULT_BUDGET : aliasBudget;
+            RegexEngine engine = configuration.getRegexEngine();
+            patterns.add(new NamedRegex("regexp", configuration.getRegexp(), engine));
+            configuration.getDirectionToPattern().forEach((direction, pattern) ->
+                    patterns.add(new NamedRegex("direction " + direction, pattern, RegexEngine.JDK)));
+            if (configuration.getTimestampRegexp() != null) {
+                patterns.add(new NamedRegex("timestampRegexp", configuration.getTimestampRegexp(), engine));
+            }
+        }
+
+        private void add(long nanos, boolean matched, boolean failed, Path file, long lineNumber, String line) {
+            if (lines == times.length) {
+                times = Arrays.copyOf(times, times.length * 2);
+            }
+            times[(int) lines++] = nanos;
+            totalNanos += nanos;
+            if (matched) {
+                this.matched++;
+            }
+            if (failed) {
+                errors++;
+            }
+            if (slowest.size() < top) {
+                slowest.add(new SlowLine(nanos, file, lineNumber, line));
+            } else if (top > 0 && slowest.peek().nanos < nanos) {
+                slowest.poll();
+                slowest.add(new SlowLine(nanos, file, lineNumber, line));
+            }
+        }
+    }
+
+    private static final class NamedRegex {
+        private final String name;
+        private final Pattern source;
+        private final LineRegex regex;
+
+        private NamedRegex(String name, Pattern source, RegexEngine engine) {
+            this.name = name;
+            this.source = source;
+            this.regex = engine.compile(source);
+        }
+
+        /**
+         * @return the minimal time of finding all matches in the {@code line} or {@link #OVER_BUDGET} if the matching exceeds the {@code budget}
+         */
+        private long time(String line, MatchBudget budget) {
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < PATTERN_RUNS; i++) {
+                long start = System.nanoTime();
+                try {
+                    LineMatcher matcher = regex.matcher(budget.start(line));
+                    while (matcher.find()) {
+                        // only the time is measured
+                    }
+                } catch (MatchBudgetExceededException e) {
+                    return OVER_BUDGET;
+                }
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            return best;
+        }
+    }
+
+    private static final class SlowLine {
+        private final long nanos;
+        private final Path file;
+        private final long lineNumber;
+        private final String line;
+
+        private SlowLine(long nanos, Path file, long lineNumber, String line) {
+            this.nanos = nanos;
+            this.file = file;
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+}
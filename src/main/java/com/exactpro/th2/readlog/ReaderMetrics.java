@@ -0,0 +1,142 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Histogram;
+
+/**
+ * The metrics of a session alias. They are registered in the default Prometheus registry that th2 common exposes.
+ * <p>
+ * The labelled children are resolved once for an alias, so recording a value only updates the striped adders of the child.
+ */
+final class ReaderMetrics {
+    private static final String ALIAS_LABEL = "session_alias";
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private static final Counter LINES_READ = Counter.build("th2_read_log_lines_read", "The number of lines processed by the parser")
+            .labelNames(ALIAS_LABEL)
+            .register();
+    private static final Counter LINES_MATCHED = Counter.build("th2_read_log_lines_matched", "The number of lines the messages are extracted from")
+            .labelNames(ALIAS_LABEL)
+            .register();
+    private static final Counter LINES_SKIPPED_BY_DIRECTION = Counter.build("th2_read_log_lines_skipped_by_direction",
+                    "The number of lines that do not match any direction regexp")
+            .labelNames(ALIAS_LABEL)
+            .register();
+    private static final Counter LINES_SKIPPED_BEFORE = Counter.build("th2_read_log_lines_skipped_before",
+                    "The number of lines dropped because their timestamp is before 'skipBefore'")
+            .labelNames(ALIAS_LABEL)
+            .register();
+    private static final Counter LINES_OVER_BUDGET = Counter.build("th2_read_log_lines_over_budget",
+                    "The number of lines skipped because their matching exceeded 'matchStepLimit' or 'matchTimeout'")
+            .labelNames(ALIAS_LABEL)
+            .register();
+    private static final Counter BYTES_READ = Counter.build("th2_read_log_bytes_read", "The number of bytes in the lines processed by the parser. The line ends are not counted")
+            .labelNames(ALIAS_LABEL)
+            .register();
+    private static final Counter MESSAGES_EMITTED = Counter.build("th2_read_log_messages_emitted", "The number of messages published")
+            .labelNames(ALIAS_LABEL)
+            .register();
+    private static final Histogram PARSE_TIME = Histogram.build("th2_read_log_parse_time_seconds", "The time of parsing a line")
+            .labelNames(ALIAS_LABEL)
+            .buckets(0.000_001, 0.000_005, 0.000_01, 0.000_05, 0.000_1, 0.000_5, 0.001, 0.005, 0.01)
+            .register();
+    private static final Histogram PUBLISH_BATCH_SIZE = Histogram.build("th2_read_log_publish_batch_size", "The number of messages in a published batch")
+            .labelNames(ALIAS_LABEL)
+            .buckets(1, 10, 50, 100, 500, 1_000, 5_000, 10_000)
+            .register();
+    private static final Histogram PUBLISH_LATENCY = Histogram.build("th2_read_log_publish_latency_seconds", "The time of sending a batch to the router")
+            .labelNames(ALIAS_LABEL)
+            .buckets(0.000_1, 0.000_5, 0.001, 0.005, 0.01, 0.05, 0.1, 0.5, 1, 5)
+            .register();
+
+    private static final Map<String, ReaderMetrics> BY_ALIAS = new ConcurrentHashMap<>();
+
+    private final Counter.Child linesRead;
+    private final Counter.Child linesMatched;
+    private final Counter.Child linesSkippedByDirection;
+    private final Counter.Child linesSkippedBefore;
+    private final Counter.Child linesOverBudget;
+    private final Counter.Child bytesRead;
+    private final Counter.Child messagesEmitted;
+    private final Histogram.Child parseTime;
+    private final Histogram.Child publishBatchSize;
+    private final Histogram.Child publishLatency;
+
+    private ReaderMetrics(String alias) {
+        linesRead = LINES_READ.labels(alias);
+        linesMatched = LINES_MATCHED.labels(alias);
+        linesSkippedByDirection = LINES_SKIPPED_BY_DIRECTION.labels(alias);
+        linesSkippedBefore = LINES_SKIPPED_BEFORE.labels(alias);
+        linesOverBudget = LINES_OVER_BUDGET.labels(alias);
+        bytesRead = BYTES_READ.labels(alias);
+        messagesEmitted = MESSAGES_EMITTED.labels(alias);
+        parseTime = PARSE_TIME.labels(alias);
+        publishBatchSize = PUBLISH_BATCH_SIZE.labels(alias);
+        publishLatency = PUBLISH_LATENCY.labels(alias);
+    }
+
+    static ReaderMetrics forAlias(String alias) {
+        return BY_ALIAS.computeIfAbsent(alias, ReaderMetrics::new);
+    }
+
+    /**
+     * @param bytes the number of bytes the line takes in the source
+     */
+    void lineParsed(LineOutcome outcome, int bytes, long parseNanos) {
+        linesRead.inc();
+        bytesRead.inc(bytes);
+        parseTime.observe(parseNanos / NANOS_PER_SECOND);
+        switch (outcome) {
+            case MATCHED:
+                linesMatched.inc();
+                break;
+            case SKIPPED_BY_DIRECTION:
+                linesSkippedByDirection.inc();
+                break;
+            case SKIPPED_BEFORE:
+                linesSkippedBefore.inc();
+                break;
+            case OVER_BUDGET:
+                linesOverBudget.inc();
+                break;
+            default:
+                break;
+        }
+    }
+
+    void batchPublished(int size, long sendNanos) {
+        messagesEmitted.inc(size);
+        publishBatchSize.observe(size);
+        publishLatency.observe(sendNanos / NANOS_PER_SECOND);
+    }
+
+    enum LineOutcome {
+        /**
+         * The line belongs to the alias but no message is extracted from it
+         */
+        NOT_MATCHED,
+        MATCHED,
+        SKIPPED_BY_DIRECTION,
+        SKIPPED_BEFORE,
+        OVER_BUDGET
+    }
+}
@@ -16,215 +16,262 @@
 
 package com.exactpro.th2.readlog;
 
-import java.io.StringWriter;
 import java.time.DateTimeException;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import com.exactpro.th2.common.grpc.Direction;
 import com.exactpro.th2.read.file.common.StreamId;
 import com.exactpro.th2.readlog.cfg.AliasConfiguration;
+import com.exactpro.th2.readlog.impl.ByteSlice;
+import com.exactpro.th2.readlog.impl.lambdas.ForOnError;
+import com.exactpro.th2.readlog.regex.LineMatcher;
+import com.exactpro.th2.readlog.regex.LineRegex;
+import com.exactpro.th2.readlog.regex.MatchBudget;
+import com.exactpro.th2.readlog.regex.MatchBudgetExceededException;
+import com.exactpro.th2.readlog.regex.RequiredLiterals;
 import com.exactpro.th2.common.schema.message.impl.rabbitmq.transport.TransportUtilsKt;
-import com.opencsv.CSVWriter;
-import com.opencsv.ICSVWriter;
-import org.apache.commons.text.StringSubstitutor;
-import org.jetbrains.annotations.NotNull;
+import kotlin.Unit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static com.opencsv.ICSVWriter.DEFAULT_ESCAPE_CHARACTER;
-import static com.opencsv.ICSVWriter.DEFAULT_LINE_END;
-import static com.opencsv.ICSVWriter.DEFAULT_QUOTE_CHARACTER;
-import static java.util.stream.Collectors.toUnmodifiableList;
-
+/**
+ * Extracts the messages from the lines of the configured aliases.
+ * <p>
+ * The parser can be used from several threads: the matchers are created for each line
+ * and the cached values (the parsed date, the zone offset and the order of direction patterns) are published safely.
+ * Each reader still gets its own parser so the readers do not contend on the cached values.
+ */
 public class RegexLogParser {
     private static final Logger logger = LoggerFactory.getLogger(RegexLogParser.class);
-    private final Map<String, AliasConfiguration> cfg;
+    /**
+     * The number of the first characters of the line that exceeded the match budget to put into the report
+     */
+    private static final int REPORTED_LINE_LENGTH = 256;
+    private final Map<String, ExtractionPlan> plans;
+    private final ForOnError onOverBudget;
 
     public RegexLogParser(Map<String, AliasConfiguration> cfg) {
-        this.cfg = Objects.requireNonNull(cfg, "'Cfg' parameter");
+        this(cfg, (streamId, message, ex) -> Unit.INSTANCE);
+    }
+
+    /**
+     * @param onOverBudget is notified about each line that is skipped because its matching exceeded
+     *                     the {@link AliasConfiguration#getMatchStepLimit()} or {@link AliasConfiguration#getMatchTimeout()}
+     */
+    public RegexLogParser(Map<String, AliasConfiguration> cfg, ForOnError onOverBudget) {
+        Objects.requireNonNull(cfg, "'Cfg' parameter");
+        this.onOverBudget = Objects.requireNonNull(onOverBudget, "'On over budget' parameter");
         if (cfg.isEmpty()) {
             throw new IllegalArgumentException("At least one alis must be specified");
         }
+        Map<String, ExtractionPlan> plans = new HashMap<>(cfg.size() * 2);
+        cfg.forEach((alias, configuration) -> {
+            ExtractionPlan plan = ExtractionPlan.create(alias, configuration);
+            logger.info("Alias '{}' uses {} regex engine", alias, plan.getRegexp().engine());
+            if (!plan.getMatchBudget().isUnlimited()) {
+                logger.info("Alias '{}' matches each line within {}", alias, plan.getMatchBudget());
+            }
+            plans.put(alias, plan);
+        });
+        this.plans = plans;
     }
 
-    public LogData parse(StreamId streamId, String raw) {
+    /**
+     * @param raw the line. The extracted body can refer to it
+     */
+    public LogData parse(StreamId streamId, CharSequence raw) {
+        ParseResult result = new ParseResult();
+        parse(streamId, raw, result);
+        return result.toLogData();
+    }
+
+    /**
+     * Parses the line into the {@code result}. The previous content of the {@code result} is discarded.
+     * The line that exceeds the match budget of the alias is reported and nothing is extracted from it.
+     *
+     * @param raw the line. The result refers to it
+     * @return {@code true} if any body is extracted from the line
+     */
+    public boolean parse(StreamId streamId, CharSequence raw, ParseResult result) {
+        try {
+            return parseAhead(streamId, raw, result);
+        } finally {
+            result.recordMetrics();
+        }
+    }
+
+    /**
+     * Parses the line the same way as {@link #parse(StreamId, CharSequence, ParseResult)} does
+     * but keeps the metrics of the line in the {@code result} until {@link #recordMetrics(ParseResult)} is called.
+     * It is used to parse the lines ahead of the reader, so the lines that are parsed but never read are not counted.
+     *
+     * @param raw the line. The result refers to it
+     * @return {@code true} if any body is extracted from the line
+     */
+    public boolean parseAhead(StreamId streamId, CharSequence raw, ParseResult result) {
+        result.reset(raw);
 
         String sessionAlias = streamId.getSessionAlias();
-        AliasConfiguration configuration = cfg.get(sessionAlias);
-        if (configuration == null) {
+        ExtractionPlan plan = plans.get(sessionAlias);
+        if (plan == null) {
             logger.error("Unknown alias {}, there no configuration", sessionAlias);
             throw new IllegalArgumentException("Unknown alias '" + sessionAlias +"'. No configuration found" );
         }
 
-        Direction direction = null;
-        for (Entry<Direction, Pattern> entry : configuration.getDirectionToPattern().entrySet()) {
-            if (entry.getValue().matcher(raw).find()) {
-                direction = entry.getKey();
-                break;
-            }
+        long start = System.nanoTime();
+        try {
+            return parse(plan, raw, result);
+        } catch (MatchBudgetExceededException e) {
+            result.reset(raw);
+            result.setOutcome(ReaderMetrics.LineOutcome.OVER_BUDGET);
+            reportOverBudget(streamId, plan.getMatchBudget(), raw, e);
+            return false;
+        } finally {
+            // the decoded line is encoded back to count the bytes it took in the source
+            result.setMetrics(plan.getMetrics(), ByteSlice.utf8Length(raw), System.nanoTime() - start);
         }
+    }
+
+    /**
+     * Records the metrics of the line parsed by {@link #parseAhead(StreamId, CharSequence, ParseResult)}.
+     * Must be called when the line is read. The metrics are recorded once
+     */
+    public void recordMetrics(ParseResult result) {
+        result.recordMetrics();
+    }
+
+    private boolean parse(ExtractionPlan plan, CharSequence raw, ParseResult result) {
+        // the regexps are executed on the budgeted line, the result refers to the raw one
+        CharSequence input = plan.getMatchBudget().start(raw);
+        Direction direction = plan.getDirectionClassifier().classify(input);
         // check whether the line matches any direction regex
         // if not it is not our line
         if (direction == null) {
-            return LogData.EMPTY;
+            result.setOutcome(ReaderMetrics.LineOutcome.SKIPPED_BY_DIRECTION);
+            return false;
         }
 
-        LogData resultData = new LogData();
-        resultData.setDirection(TransportUtilsKt.getTransport(direction));
+        result.setDirection(TransportUtilsKt.getTransport(direction));
 
-        List<Integer> regexGroups = configuration.getGroups();
-        if (configuration.isJoinGroups()) {
-            parseBodyJoined(raw, configuration, resultData);
+        // the line cannot match the regexp if it does not have the required literal
+        if (!RequiredLiterals.contains(raw, plan.getRegexpLiteral())) {
+            return false;
+        }
+
+        if (plan.isJoinGroups()) {
+            parseBodyJoined(raw, input, plan, result);
         } else {
-            parseBody(raw, configuration.getRegexp(), regexGroups, resultData);
+            parseBody(input, plan.getRegexp(), plan.getGroups(), result);
         }
 
-        if (resultData.getBody().isEmpty()) {
+        if (result.getBodyCount() == 0) {
             // fast way, nothing matches the regexp, so we don't need to check for date pattern
-            return resultData;
+            return false;
         }
 
         // Timestamp string from log
-        Pattern datePattern = configuration.getTimestampRegexp();
+        LineRegex datePattern = plan.getTimestampRegexp();
         if (datePattern != null) {
-            if (!lookForTimestamp(raw, datePattern, resultData)) {
+            if (!lookForTimestamp(raw, input, datePattern, plan.getTimestampLiteral(), result)) {
                 throw new IllegalStateException("The pattern '" + datePattern.pattern() + "' cannot extract the timestamp from the string: " + raw);
             }
         }
 
         // DateTime from log
-        DateTimeFormatter timestampFormat = configuration.getTimestampFormat();
-        if (timestampFormat != null) {
-            ZoneOffset offset = Objects.requireNonNullElse(configuration.getTimestampZone(), ZoneId.systemDefault())
-                    .getRules().getOffset(Instant.now());
-            parseTimestamp(timestampFormat, resultData, offset);
+        TimestampParser timestampParser = plan.getTimestampParser();
+        if (timestampParser != null) {
+            parseTimestamp(timestampParser, plan.getTimestampFormat(), result);
         }
 
-        if (resultData.getParsedTimestamp() != null && configuration.getSkipBefore() != null) {
-            if (resultData.getParsedTimestamp().isBefore(configuration.getSkipBefore())) {
+        Instant skipBefore = plan.getSkipBefore();
+        if (result.getParsedTimestamp() != null && skipBefore != null) {
+            if (result.getParsedTimestamp().isBefore(skipBefore)) {
                 logger.trace("Content dropped because of 'skipBefore' condition. Log timestamp: {}, Skip before: {}",
-                        resultData.getParsedTimestamp(), configuration.getSkipBefore()
+                        result.getParsedTimestamp(), skipBefore
                 );
-                return LogData.EMPTY;
+                result.reset(raw);
+                result.setOutcome(ReaderMetrics.LineOutcome.SKIPPED_BEFORE);
+                return false;
             }
         }
 
-        return resultData;
+        result.setOutcome(ReaderMetrics.LineOutcome.MATCHED);
+        return true;
     }
 
-    private void parseTimestamp(DateTimeFormatter formatter, LogData data, ZoneOffset offset) {
-        String rawTimestamp = data.getRawTimestamp();
+    private void parseTimestamp(TimestampParser parser, DateTimeFormatter formatter, ParseResult result) {
+        CharSequence rawTimestamp = result.getRawTimestampSequence();
         try {
-            Instant dateTime = LocalDateTime.parse(rawTimestamp, formatter).toInstant(offset);
-            data.setParsedTimestamp(dateTime);
+            Instant dateTime = parser.parse(rawTimestamp);
+            result.setParsedTimestamp(dateTime);
             logger.trace("ParsedTimestamp: {}", dateTime);
         } catch (DateTimeException e) {
             throw new IllegalStateException("The timestamp '" + rawTimestamp + "' cannot be parsed using the '" + formatter + "' format", e);
         }
     }
 
-    private boolean lookForTimestamp(String text, Pattern pattern, LogData data) {
-        Matcher matcher = pattern.matcher(text);
-        if (!matcher.find()) {
+    private boolean lookForTimestamp(CharSequence text, CharSequence input, LineRegex pattern, String literal, ParseResult result) {
+        LineMatcher matcher = pattern.matcher(input);
+        if (!RequiredLiterals.contains(text, literal) || !matcher.find()) {
             logger.error("Timestamp with regex \"{}\" was not found in the log", pattern.pattern());
             return false;
         }
-        String res = matcher.group(0);
-        data.setRawTimestamp(res);
-        logger.trace("Found timestamp: {}", res);
+        result.setTimestampRange(matcher.start(0), matcher.end(0));
+        if (logger.isTraceEnabled()) {
+            logger.trace("Found timestamp: {}", result.getRawTimestamp());
+        }
         return true;
     }
 
-    private void parseBody(String text, Pattern pattern, List<Integer> groups, LogData data) {
-        Matcher matcher = pattern.matcher(text);
+    private void parseBody(CharSequence text, LineRegex pattern, int[] groups, ParseResult result) {
+        LineMatcher matcher = pattern.matcher(text);
         while (matcher.find()) {
-            var indexes = groups.isEmpty()
-                    ? IntStream.rangeClosed(0, matcher.groupCount()).boxed().collect(Collectors.toList())
-                    : groups;
-            for (int i : indexes) {
-                String res = matcher.group(i);
-                data.addBody(res);
-                logger.trace("ParsedLogLine: {}", res);
+            for (int i : groups) {
+                // the group is not copied from the line
+                int start = matcher.start(i);
+                result.addBody(start, matcher.end(i));
+                if (logger.isTraceEnabled()) {
+                    logger.trace("ParsedLogLine: {}", start < 0 ? null : text.subSequence(start, matcher.end(i)));
+                }
             }
         }
     }
 
-    private void parseBodyJoined(String raw, AliasConfiguration configuration, LogData resultData) {
-        Pattern pattern = configuration.getRegexp();
-        Matcher matcher = pattern.matcher(raw);
-        List<List<String>> valuesCollection = null;
-        Map<String, String> headersFormat = configuration.getHeadersFormat();
-        if (headersFormat.isEmpty()) {
+    private void parseBodyJoined(CharSequence raw, CharSequence input, ExtractionPlan plan, ParseResult result) {
+        HeaderTemplate[] templates = plan.getHeaderTemplates();
+        if (templates.length == 0) {
             return;
         }
+        LineMatcher matcher = plan.getRegexp().matcher(input);
+        CsvJoinWriter csvWriter = plan.getCsvWriter();
+        StringBuilder joined = null;
         while (matcher.find()) {
-            if (valuesCollection == null) {
-                valuesCollection = new ArrayList<>();
-                valuesCollection.add(headersFormat.keySet().stream().collect(toUnmodifiableList()));
+            if (joined == null) {
+                joined = csvWriter.begin();
             }
-            StringSubstitutor stringSubstitutor = createSubstitutor(matcher);
-            valuesCollection.add(
-                    headersFormat.values().stream()
-                            .map(stringSubstitutor::replace)
-                            .collect(Collectors.toUnmodifiableList())
-            );
+            csvWriter.appendRow(joined, matcher, raw, templates);
         }
-        if (valuesCollection != null) {
-            addJoined(resultData, valuesCollection, configuration.getGroupsJoinDelimiter().charAt(0));
-        }
-    }
-
-    private void addJoined(LogData data, List<List<String>> values, char delimiter) {
-        var writer = new StringWriter();
-        ICSVWriter csvPrinter = createCsvWriter(writer, delimiter); // we can ignore closing because there is no IO
-        for (List<String> value : values) {
-            csvPrinter.writeNext(value.toArray(String[]::new));
+        if (joined != null) {
+            // the buffer is reused for the next line, so the body is encoded from it right away
+            result.setJoinedBody(ByteSlice.toUtf8(joined));
+            logger.trace("Result after joining all groups: '{}'", joined);
         }
-
-        String joinedData = writer.toString().trim();
-        data.addBody(joinedData);
-        logger.trace("Result after joining all groups: '{}'", joinedData);
-    }
-
-    private StringSubstitutor createSubstitutor(Matcher matcher) {
-        StringSubstitutor stringSubstitutor = new StringSubstitutor(key -> {
-            Integer index = tryParse(key);
-            if (index == null) {
-                return matcher.group(key);
-            }
-            if (index < 0) {
-                throw new IllegalArgumentException("group index cannot be negative");
-            }
-            return matcher.group(index);
-        });
-        stringSubstitutor.setEnableUndefinedVariableException(true); // exception if key is unknown
-        stringSubstitutor.setDisableSubstitutionInValues(true);
-        return stringSubstitutor;
-    }
-
-    @NotNull
-    private ICSVWriter createCsvWriter(StringWriter writer, char delimiter) {
-        return new CSVWriter(writer, delimiter, DEFAULT_QUOTE_CHARACTER, DEFAULT_ESCAPE_CHARACTER, DEFAULT_LINE_END);
     }
 
-    private Integer tryParse(String value) {
+    private void reportOverBudget(StreamId streamId, MatchBudget budget, CharSequence raw, MatchBudgetExceededException e) {
+        logger.warn("The line of {} character(s) for alias '{}' is skipped because {}", raw.length(), streamId.getSessionAlias(), e.getMessage());
+        CharSequence reported = raw.length() > REPORTED_LINE_LENGTH
+                ? raw.subSequence(0, REPORTED_LINE_LENGTH) + "..."
+                : raw;
         try {
-            return Integer.parseInt(value);
-        } catch (NumberFormatException e) {
-            return null;
+            onOverBudget.action(streamId, "The line of " + raw.length() + " character(s) exceeded the match budget ("
+                    + budget + ") and was skipped: " + reported, e);
+        } catch (RuntimeException ex) {
+            logger.error("Cannot report the line that exceeded the match budget for alias '{}'", streamId.getSessionAlias(), ex);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import javax.annotation.Nullable;
+
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
+import com.exactpro.th2.readlog.regex.LineMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the position in the file to start reading from when the alias has {@code skipBefore} parameter.
+ * <p>
+ * The file is split into blocks. The timestamp of the first line in a block that has the timestamp is a checkpoint.
+ * The checkpoints are found by the binary search, so only a few blocks are read even for a large file.
+ * The checkpoints are kept in a sparse index per file and reused when the file is opened again.
+ * <p>
+ * The timestamps in the file must not decrease. Otherwise, the lines with the timestamp after {@code skipBefore}
+ * that are located before the found position will not be read.
+ */
+public final class SkipBeforeSeeker {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SkipBeforeSeeker.class);
+
+    static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+    /**
+     * The maximum number of bytes read from the block start to find a line with the timestamp
+     */
+    private static final int MAX_PROBE_SIZE = 1024 * 1024;
+    private static final int MAX_INDEXED_FILES = 1024;
+    private static final byte LINE_END = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private final Map<String, Target> targets;
+    private final int blockSize;
+    private final Map<IndexKey, FileIndex> indexes = new LinkedHashMap<>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<IndexKey, FileIndex> eldest) {
+            return size() > MAX_INDEXED_FILES;
+        }
+    };
+
+    public SkipBeforeSeeker(Map<String, AliasConfiguration> aliases) {
+        this(aliases, DEFAULT_BLOCK_SIZE);
+    }
+
+    SkipBeforeSeeker(Map<String, AliasConfiguration> aliases, int blockSize) {
+        Objects.requireNonNull(aliases, "'Aliases' parameter");
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("block size must be positive but was " + blockSize);
+        }
+        this.blockSize = blockSize;
+        Map<String, Target> targets = new HashMap<>();
+        aliases.forEach((alias, configuration) -> {
+            if (!configuration.isSeekToSkipBefore() || configuration.getSkipBefore() == null) {
+                return;
+            }
+            ExtractionPlan plan = ExtractionPlan.create(alias, configuration);
+            if (plan.getTimestampRegexp() != null && plan.getTimestampParser() != null) {
+                targets.put(alias, new Target(plan, configuration.getSkipBefore()));
+            }
+        });
+        this.targets = targets;
+    }
+
+    /**
+     * @return the offset of the line to start reading the file from. It is {@code 0} if the whole file must be read
+     */
+    public long startOffset(StreamId streamId, Path path) throws IOException {
+        Target target = targets.get(streamId.getSessionAlias());
+        if (target == null) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size <= blockSize) {
+                return 0;
+            }
+            FileIndex index = index(streamId.getSessionAlias(), path, size);
+            long offset = search(target, channel, index, size);
+            if (offset > 0) {
+                LOGGER.info("Skipping first {} byte(s) of {} for alias {}. All lines there are before {}",
+                        offset, path, streamId.getSessionAlias(), target.skipBefore);
+            }
+            return offset;
+        }
+    }
+
+    /**
+     * Finds the last checkpoint that is before {@code skipBefore}.
+     * All blocks before it have only lines with the timestamp before the checkpoint's timestamp.
+     */
+    private long search(Target target, FileChannel channel, FileIndex index, long size) throws IOException {
+        long low = -1;
+        long high = (size - 1) / blockSize + 1;
+        long found = 0;
+        while (high - low > 1) {
+            long middle = (low + high) >>> 1;
+            Checkpoint checkpoint = checkpoint(target, channel, index, middle);
+            if (checkpoint != null && checkpoint.timestamp.isBefore(target.skipBefore)) {
+                low = middle;
+                found = checkpoint.offset;
+            } else {
+                high = middle;
+            }
+        }
+        return found;
+    }
+
+    @Nullable
+    private Checkpoint checkpoint(Target target, FileChannel channel, FileIndex index, long block) throws IOException {
+        synchronized (index) {
+            Checkpoint checkpoint = index.checkpoints.get(block);
+            if (checkpoint != null) {
+                return checkpoint;
+            }
+        }
+        Checkpoint checkpoint = probe(target, channel, block * blockSize);
+        if (checkpoint != null) {
+            // a block without the timestamp is not cached because the file might be appended later
+            synchronized (index) {
+                index.checkpoints.put(block, checkpoint);
+            }
+        }
+        return checkpoint;
+    }
+
+    /**
+     * @return the first line at or after the {@code from} position that has a timestamp
+     * or {@code null} if there is no such line in the probed range
+     */
+    @Nullable
+    private Checkpoint probe(Target target, FileChannel channel, long from) throws IOException {
+        long limit = Math.min(channel.size(), from + MAX_PROBE_SIZE);
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(MAX_PROBE_SIZE, limit - Math.max(0, from - 1)));
+        long bufferStart = Math.max(0, from - 1);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, bufferStart + buffer.position()) < 0) {
+                break;
+            }
+        }
+        byte[] data = buffer.array();
+        int length = buffer.position();
+        int lineStart;
+        if (from == 0) {
+            lineStart = 0;
+        } else {
+            // the line starts after the line end that precedes the position
+            lineStart = indexOf(data, 0, length) + 1;
+            if (lineStart == 0) {
+                return null;
+            }
+        }
+        while (lineStart < length) {
+            int lineEnd = indexOf(data, lineStart, length);
+            if (lineEnd < 0) {
+                // the last line can be incomplete
+                return null;
+            }
+            int contentEnd = lineEnd > lineStart && data[lineEnd - 1] == CARRIAGE_RETURN ? lineEnd - 1 : lineEnd;
+            Instant timestamp = target.timestamp(new String(data, lineStart, contentEnd - lineStart, StandardCharsets.UTF_8));
+            if (timestamp != null) {
+                return new Checkpoint(bufferStart + lineStart, timestamp);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return null;
+    }
+
+    private FileIndex index(String alias, Path path, long size) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        IndexKey key = new IndexKey(alias, path.toAbsolutePath());
+        Object fileKey = attributes.fileKey() == null ? attributes.creationTime() : attributes.fileKey();
+        synchronized (indexes) {
+            FileIndex index = indexes.get(key);
+            // the log files are only appended. Otherwise, it is a different file
+            if (index == null || !index.fileKey.equals(fileKey) || index.size > size) {
+                index = new FileIndex(fileKey, size);
+                indexes.put(key, index);
+            }
+            return index;
+        }
+    }
+
+    private static int indexOf(byte[] data, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == LINE_END) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class Target {
+        private final ExtractionPlan plan;
+        private final Instant skipBefore;
+
+        private Target(ExtractionPlan plan, Instant skipBefore) {
+            this.plan = plan;
+            this.skipBefore = skipBefore;
+        }
+
+        @Nullable
+        private Instant timestamp(String line) {
+            LineMatcher matcher = plan.getTimestampRegexp().matcher(line);
+            if (!matcher.find()) {
+                return null;
+            }
+            try {
+                return plan.getTimestampParser().parse(matcher.group(0));
+            } catch (DateTimeException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final class Checkpoint {
+        private final long offset;
+        private final Instant timestamp;
+
+        private Checkpoint(long offset, Instant timestamp) {
+            this.offset = offset;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private static final class FileIndex {
+        private final Object fileKey;
+        private final long size;
+        /**
+         * Checkpoint for the block index
+         */
+        private final Map<Long, Checkpoint> checkpoints = new TreeMap<>();
+
+        private FileIndex(Object fileKey, long size) {
+            this.fileKey = fileKey;
+            this.size = size;
+        }
+    }
+
+    private static final class IndexKey {
+        private final String alias;
+        private final Path path;
+
+        private IndexKey(String alias, Path path) {
+            this.alias = alias;
+            this.path = path;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            IndexKey that = (IndexKey) o;
+            return alias.equals(that.alias) && path.equals(that.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(alias, path);
+        }
+    }
+}
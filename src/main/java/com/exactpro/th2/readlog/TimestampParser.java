@@ -0,0 +1,340 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+/**
+ * Converts the timestamp extracted from the line to {@link Instant}.
+ * <p>
+ * The result is the same as {@code LocalDateTime.parse(raw, formatter).toInstant(offset)}
+ * where {@code offset} is the offset of the zone at the current moment.
+ * <p>
+ * Fixed-width layouts that consist of {@code yyyy}/{@code uuuu}, {@code MM}, {@code dd}, {@code HH}, {@code mm},
+ * {@code ss}, {@code S...S} fields and literal separators (e.g. {@code yyyy-MM-dd HH:mm:ss.SSS} or {@code yyyyMMdd-HH:mm:ss.SSS})
+ * are parsed by reading the digits at known positions. The epoch day of the last parsed date is reused for the next
+ * lines with the same date. Anything the fast path cannot handle is parsed by the {@link DateTimeFormatter}.
+ * <p>
+ * The zone offset is cached until the next transition of the zone.
+ */
+final class TimestampParser {
+    private static final int SECONDS_PER_DAY = 86_400;
+    private static final int[] NANOS_MULTIPLIER = {
+            0, 100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1
+    };
+
+    private final DateTimeFormatter formatter;
+    private final ZoneRules rules;
+    private final Clock clock;
+    @Nullable
+    private final Layout layout;
+
+    private volatile CachedOffset cachedOffset;
+    private volatile CachedDay cachedDay;
+
+    private TimestampParser(DateTimeFormatter formatter, ZoneId zone, Clock clock, @Nullable Layout layout) {
+        this.formatter = formatter;
+        this.rules = zone.getRules();
+        this.clock = clock;
+        this.layout = layout;
+        cachedOffset = rules.isFixedOffset()
+                ? new CachedOffset(rules.getOffset(Instant.EPOCH), Long.MIN_VALUE, Long.MAX_VALUE)
+                : null;
+    }
+
+    /**
+     * @param pattern the pattern the {@code formatter} was created from. The fast path is used only if it is specified
+     */
+    static TimestampParser create(@Nullable String pattern, DateTimeFormatter formatter, ZoneId zone) {
+        return create(pattern, formatter, zone, Clock.systemUTC());
+    }
+
+    static TimestampParser create(@Nullable String pattern, DateTimeFormatter formatter, ZoneId zone, Clock clock) {
+        Objects.requireNonNull(formatter, "'Formatter' parameter");
+        Objects.requireNonNull(zone, "'Zone' parameter");
+        Objects.requireNonNull(clock, "'Clock' parameter");
+        return new TimestampParser(formatter, zone, clock, pattern == null ? null : Layout.compile(pattern));
+    }
+
+    boolean hasFastPath() {
+        return layout != null;
+    }
+
+    /**
+     * @throws DateTimeException if the {@code raw} timestamp cannot be parsed
+     */
+    Instant parse(CharSequence raw) {
+        ZoneOffset offset = currentOffset();
+        if (layout != null && raw != null) {
+            Instant result = parseFast(layout, raw, offset);
+            if (result != null) {
+                return result;
+            }
+        }
+        return LocalDateTime.parse(raw, formatter).toInstant(offset);
+    }
+
+    /**
+     * @return the instant or {@code null} if the {@code raw} value does not fit the layout
+     * or contains values that must be resolved by the {@link #formatter}
+     */
+    @Nullable
+    private Instant parseFast(Layout layout, CharSequence raw, ZoneOffset offset) {
+        if (raw.length() != layout.length) {
+            return null;
+        }
+        for (int i = 0; i < layout.literalPositions.length; i++) {
+            if (raw.charAt(layout.literalPositions[i]) != layout.literals[i]) {
+                return null;
+            }
+        }
+        int year = digits(raw, layout.yearPosition, 4);
+        int month = digits(raw, layout.monthPosition, 2);
+        int day = digits(raw, layout.dayPosition, 2);
+        int hour = digits(raw, layout.hourPosition, 2);
+        int minute = digits(raw, layout.minutePosition, 2);
+        int second = layout.secondPosition < 0 ? 0 : digits(raw, layout.secondPosition, 2);
+        int fraction = layout.fractionPosition < 0 ? 0 : digits(raw, layout.fractionPosition, layout.fractionWidth);
+        if ((year | month | day | hour | minute | second | fraction) < 0) {
+            return null;
+        }
+        // year 0 does not exist for the year-of-era field
+        if (year == 0 || hour > 23 || minute > 59 || second > 59) {
+            return null;
+        }
+        long epochDay = epochDay(year, month, day);
+        if (epochDay == Long.MIN_VALUE) {
+            return null;
+        }
+        long epochSecond = epochDay * SECONDS_PER_DAY + hour * 3600 + minute * 60 + second - offset.getTotalSeconds();
+        return Instant.ofEpochSecond(epochSecond, (long) fraction * NANOS_MULTIPLIER[layout.fractionWidth]);
+    }
+
+    /**
+     * @return the epoch day or {@link Long#MIN_VALUE} if the date is not valid
+     */
+    private long epochDay(int year, int month, int day) {
+        int key = (year * 100 + month) * 100 + day;
+        CachedDay cached = cachedDay;
+        if (cached != null && cached.key == key) {
+            return cached.epochDay;
+        }
+        // the formatter resolves days that are out of the month (e.g. 31 April) in smart mode
+        if (month < 1 || month > 12 || day < 1 || day > 28 && day > LocalDate.of(year, month, 1).lengthOfMonth()) {
+            return Long.MIN_VALUE;
+        }
+        long epochDay = LocalDate.of(year, month, day).toEpochDay();
+        cachedDay = new CachedDay(key, epochDay);
+        return epochDay;
+    }
+
+    private ZoneOffset currentOffset() {
+        CachedOffset cached = cachedOffset;
+        long now = clock.millis();
+        if (cached != null && now >= cached.validFrom && now < cached.validUntil) {
+            return cached.offset;
+        }
+        Instant instant = Instant.ofEpochMilli(now);
+        ZoneOffset offset = rules.getOffset(instant);
+        ZoneOffsetTransition previous = rules.previousTransition(instant);
+        ZoneOffsetTransition next = rules.nextTransition(instant);
+        cachedOffset = new CachedOffset(
+                offset,
+                previous == null ? Long.MIN_VALUE : previous.getInstant().toEpochMilli(),
+                next == null ? Long.MAX_VALUE : next.getInstant().toEpochMilli()
+        );
+        return offset;
+    }
+
+    /**
+     * @return the parsed number or {@code -1} if there is a non-digit character
+     */
+    private static int digits(CharSequence value, int from, int count) {
+        int result = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            result = result * 10 + digit;
+        }
+        return result;
+    }
+
+    private static final class CachedOffset {
+        private final ZoneOffset offset;
+        private final long validFrom;
+        private final long validUntil;
+
+        private CachedOffset(ZoneOffset offset, long validFrom, long validUntil) {
+            this.offset = offset;
+            this.validFrom = validFrom;
+            this.validUntil = validUntil;
+        }
+    }
+
+    private static final class CachedDay {
+        private final int key;
+        private final long epochDay;
+
+        private CachedDay(int key, long epochDay) {
+            this.key = key;
+            this.epochDay = epochDay;
+        }
+    }
+
+    /**
+     * The positions of the fields in the timestamp
+     */
+    private static final class Layout {
+        private int length;
+        private int yearPosition = -1;
+        private int monthPosition = -1;
+        private int dayPosition = -1;
+        private int hourPosition = -1;
+        private int minutePosition = -1;
+        private int secondPosition = -1;
+        private int fractionPosition = -1;
+        private int fractionWidth;
+        private int[] literalPositions;
+        private char[] literals;
+
+        /**
+         * @return the layout or {@code null} if the pattern cannot be parsed by the fast path
+         */
+        @Nullable
+        static Layout compile(String pattern) {
+            Layout layout = new Layout();
+            List<Integer> literalPositions = new ArrayList<>();
+            StringBuilder literals = new StringBuilder();
+            int index = 0;
+            while (index < pattern.length()) {
+                char current = pattern.charAt(index);
+                if (current == '\'') {
+                    int end = pattern.indexOf('\'', index + 1);
+                    if (end <= index + 1) {
+                        // '' (escaped quote) or unterminated literal
+                        return null;
+                    }
+                    for (int i = index + 1; i < end; i++) {
+                        literalPositions.add(layout.length++);
+                        literals.append(pattern.charAt(i));
+                    }
+                    index = end + 1;
+                    continue;
+                }
+                if (!isLetter(current)) {
+                    if ("[]{}#".indexOf(current) >= 0) {
+                        // optional sections and reserved characters
+                        return null;
+                    }
+                    literalPositions.add(layout.length++);
+                    literals.append(current);
+                    index++;
+                    continue;
+                }
+                int width = 1;
+                while (index + width < pattern.length() && pattern.charAt(index + width) == current) {
+                    width++;
+                }
+                if (!layout.addField(current, width)) {
+                    return null;
+                }
+                index += width;
+            }
+            if (layout.yearPosition < 0 || layout.monthPosition < 0 || layout.dayPosition < 0
+                    || layout.hourPosition < 0 || layout.minutePosition < 0
+                    || (layout.fractionPosition >= 0 && layout.secondPosition < 0)) {
+                return null;
+            }
+            layout.literalPositions = literalPositions.stream().mapToInt(Integer::intValue).toArray();
+            layout.literals = literals.toString().toCharArray();
+            return layout;
+        }
+
+        private boolean addField(char letter, int width) {
+            switch (letter) {
+                case 'y':
+                case 'u':
+                    if (width != 4 || yearPosition >= 0) {
+                        return false;
+                    }
+                    yearPosition = length;
+                    break;
+                case 'M':
+                    if (width != 2 || monthPosition >= 0) {
+                        return false;
+                    }
+                    monthPosition = length;
+                    break;
+                case 'd':
+                    if (width != 2 || dayPosition >= 0) {
+                        return false;
+                    }
+                    dayPosition = length;
+                    break;
+                case 'H':
+                    if (width != 2 || hourPosition >= 0) {
+                        return false;
+                    }
+                    hourPosition = length;
+                    break;
+                case 'm':
+                    if (width != 2 || minutePosition >= 0) {
+                        return false;
+                    }
+                    minutePosition = length;
+                    break;
+                case 's':
+                    if (width != 2 || secondPosition >= 0) {
+                        return false;
+                    }
+                    secondPosition = length;
+                    break;
+                case 'S':
+                    if (width > 9 || fractionPosition >= 0) {
+                        return false;
+                    }
+                    fractionPosition = length;
+                    fractionWidth = width;
+                    break;
+                default:
+                    return false;
+            }
+            length += width;
+            return true;
+        }
+
+        private static boolean isLetter(char value) {
+            return (value >= 'a' && value <= 'z') || (value >= 'A' && value <= 'Z');
+        }
+    }
+}
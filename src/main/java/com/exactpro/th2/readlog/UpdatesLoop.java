@@ -0,0 +1,139 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the task on the executor repeatedly. The task is never executed concurrently with itself.
+ * <p>
+ * The delay between the runs is adaptive. It is reset to the minimum delay when the last run was active
+ * (see {@link #markActive()}) and is doubled after each idle run until it reaches the maximum delay.
+ * If the minimum and maximum delays are equal the task is run with the fixed delay.
+ * <p>
+ * {@link #wakeUp()} runs the task as soon as possible. If the task is running at the moment it is run again right after that.
+ */
+final class UpdatesLoop implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UpdatesLoop.class);
+
+    private final ScheduledExecutorService executor;
+    private final long minDelay;
+    private final long maxDelay;
+    private final Object lock = new Object();
+
+    private Runnable task;
+    private ScheduledFuture<?> next;
+    private long delay;
+    private boolean running;
+    private boolean wakeUpRequested;
+    private boolean closed;
+    private volatile boolean active;
+
+    UpdatesLoop(ScheduledExecutorService executor, Duration minDelay, Duration maxDelay) {
+        this.executor = Objects.requireNonNull(executor, "'Executor' parameter");
+        this.minDelay = minDelay.toNanos();
+        this.maxDelay = maxDelay.toNanos();
+        if (this.minDelay < 0 || this.minDelay > this.maxDelay) {
+            throw new IllegalArgumentException("min delay " + minDelay + " must not be negative and must not exceed max delay " + maxDelay);
+        }
+        delay = this.minDelay;
+    }
+
+    void start(Runnable task) {
+        synchronized (lock) {
+            if (this.task != null) {
+                throw new IllegalStateException("the loop is already started");
+            }
+            this.task = Objects.requireNonNull(task, "'Task' parameter");
+            schedule(0);
+        }
+    }
+
+    /**
+     * Marks the current run as active. It is called when the task has processed some data
+     */
+    void markActive() {
+        active = true;
+    }
+
+    void wakeUp() {
+        synchronized (lock) {
+            if (task == null || closed) {
+                return;
+            }
+            if (running) {
+                wakeUpRequested = true;
+                return;
+            }
+            if (next != null && next.getDelay(TimeUnit.NANOSECONDS) > 0 && next.cancel(false)) {
+                schedule(0);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            if (next != null) {
+                next.cancel(false);
+            }
+        }
+    }
+
+    static long nextDelay(long current, boolean active, long minDelay, long maxDelay) {
+        if (active) {
+            return minDelay;
+        }
+        return Math.min(maxDelay, Math.max(minDelay, Math.max(1, current) * 2));
+    }
+
+    private void run() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            running = true;
+            wakeUpRequested = false;
+        }
+        active = false;
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            LOGGER.error("Cannot process updates", e);
+        } finally {
+            synchronized (lock) {
+                running = false;
+                delay = nextDelay(delay, active, minDelay, maxDelay);
+                if (!closed) {
+                    schedule(wakeUpRequested ? 0 : delay);
+                }
+            }
+        }
+    }
+
+    private void schedule(long delay) {
+        next = executor.schedule(this::run, delay, TimeUnit.NANOSECONDS);
+    }
+}
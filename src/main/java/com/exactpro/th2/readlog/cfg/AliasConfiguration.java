@@ -17,8 +17,11 @@
 package com.exactpro.th2.readlog.cfg;
 
 import com.exactpro.th2.common.grpc.Direction;
+import com.exactpro.th2.readlog.regex.RegexEngine;
+import com.exactpro.th2.readlog.regex.RequiredLiterals;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
@@ -43,11 +46,16 @@ public class AliasConfiguration {
     private final Pattern pathFilter;
     private final Map<Direction, Pattern> directionToPattern;
 
+    private final String regexpLiteral;
+    private final Map<Direction, String> directionLiterals;
+    private final String timestampLiteral;
+
     @JsonPropertyDescription("The regexp which will be used to get timestamp from log line")
     private final Pattern timestampRegexp;
 
     @JsonPropertyDescription("The format which will be used to parse matched timestamp")
     private final DateTimeFormatter timestampFormat;
+    private final String timestampFormatPattern;
 
     private List<Integer> groups = Collections.emptyList();
 
@@ -67,6 +75,40 @@ public class AliasConfiguration {
     )
     private Instant skipBefore;
 
+    @JsonPropertyDescription("Enables searching the first line to read from in the file when 'skipBefore' is set. "
+            + "The timestamps in the file must not decrease. Disabled by default")
+    private boolean seekToSkipBefore;
+
+    @JsonPropertyDescription("The engine that executes 'regexp' and 'timestampRegexp'. "
+            + "RE2J takes linear time in the length of the line. "
+            + "If the regexp uses constructs that RE2J does not support the JDK engine is used")
+    private RegexEngine regexEngine = RegexEngine.JDK;
+
+    @JsonPropertyDescription("Defines how the messages of a batch are put into the groups when th2 transport protocol is used")
+    private MessageGrouping messageGrouping = MessageGrouping.MESSAGE;
+
+    @JsonPropertyDescription("The maximum number of messages in a group. 0 means there is no limit")
+    private int maxGroupSize = 0;
+
+    @JsonPropertyDescription("The session group for the messages when th2 transport protocol is used. By default, it is the alias")
+    private String sessionGroup;
+
+    @JsonPropertyDescription("Enables parsing the lines on the parsing threads ahead of the reading. "
+            + "The messages are the same and in the same order as without it")
+    private boolean pipelineParsing = false;
+
+    @JsonPropertyDescription("The maximum number of characters the regex engine can read while matching a line. "
+            + "The line is skipped and reported if it needs more. 0 means there is no limit")
+    private long matchStepLimit = 0;
+
+    @JsonPropertyDescription("The maximum time of matching a line. The line is skipped and reported if it takes longer. "
+            + "By default, there is no limit")
+    private Duration matchTimeout;
+
+    @JsonPropertyDescription("The keys the files of the alias are sorted by. Each key is extracted from the file name by its regexp. "
+            + "The next key is compared if the previous keys are equal. By default, the files are sorted by name")
+    private List<SortingConfiguration> sorting = Collections.emptyList();
+
     @JsonCreator
     public AliasConfiguration(
             @JsonProperty(value = "regexp", required = true) String regexp,
@@ -90,6 +132,13 @@ public class AliasConfiguration {
         this.timestampFormat = StringUtils.isEmpty(timestampFormat)
                 ? null
                 : DateTimeFormatter.ofPattern(timestampFormat);
+        this.timestampFormatPattern = this.timestampFormat == null ? null : timestampFormat;
+
+        regexpLiteral = RequiredLiterals.longest(this.regexp);
+        Map<Direction, String> literalByDirection = new EnumMap<>(Direction.class);
+        directionToPattern.forEach((direction, pattern) -> literalByDirection.put(direction, RequiredLiterals.longest(pattern)));
+        directionLiterals = Collections.unmodifiableMap(literalByDirection);
+        timestampLiteral = this.timestampRegexp == null ? null : RequiredLiterals.longest(this.timestampRegexp);
     }
 
     public Pattern getRegexp() {
@@ -104,6 +153,30 @@ public class AliasConfiguration {
         return directionToPattern;
     }
 
+    /**
+     * @return the literal that must be present in the line to match the {@link #getRegexp()} or {@code null}
+     */
+    @Nullable
+    public String getRegexpLiteral() {
+        return regexpLiteral;
+    }
+
+    /**
+     * @return the literals that must be present in the line to match the direction's pattern.
+     * The value is {@code null} if the pattern does not have such literal
+     */
+    public Map<Direction, String> getDirectionLiterals() {
+        return directionLiterals;
+    }
+
+    /**
+     * @return the literal that must be present in the line to match the {@link #getTimestampRegexp()} or {@code null}
+     */
+    @Nullable
+    public String getTimestampLiteral() {
+        return timestampLiteral;
+    }
+
     public List<Integer> getGroups() {
         return groups;
     }
@@ -122,6 +195,14 @@ public class AliasConfiguration {
         return timestampFormat;
     }
 
+    /**
+     * @return the pattern the {@link #getTimestampFormat()} was created from or {@code null}
+     */
+    @Nullable
+    public String getTimestampFormatPattern() {
+        return timestampFormatPattern;
+    }
+
     public boolean isJoinGroups() {
         return joinGroups;
     }
@@ -165,4 +246,78 @@ public class AliasConfiguration {
     public void setSkipBefore(@Nullable Instant skipBefore) {
         this.skipBefore = skipBefore;
     }
+
+    public boolean isSeekToSkipBefore() {
+        return seekToSkipBefore;
+    }
+
+    public void setSeekToSkipBefore(boolean seekToSkipBefore) {
+        this.seekToSkipBefore = seekToSkipBefore;
+    }
+
+    public boolean isPipelineParsing() {
+        return pipelineParsing;
+    }
+
+    public void setPipelineParsing(boolean pipelineParsing) {
+        this.pipelineParsing = pipelineParsing;
+    }
+
+    public MessageGrouping getMessageGrouping() {
+        return messageGrouping;
+    }
+
+    public void setMessageGrouping(MessageGrouping messageGrouping) {
+        this.messageGrouping = Objects.requireNonNull(messageGrouping, "'Message grouping' parameter");
+    }
+
+    public int getMaxGroupSize() {
+        return maxGroupSize;
+    }
+
+    public void setMaxGroupSize(int maxGroupSize) {
+        this.maxGroupSize = maxGroupSize;
+    }
+
+    @Nullable
+    public String getSessionGroup() {
+        return sessionGroup;
+    }
+
+    public void setSessionGroup(@Nullable String sessionGroup) {
+        this.sessionGroup = sessionGroup;
+    }
+
+    public RegexEngine getRegexEngine() {
+        return regexEngine;
+    }
+
+    public void setRegexEngine(RegexEngine regexEngine) {
+        this.regexEngine = Objects.requireNonNull(regexEngine, "'Regex engine' parameter");
+    }
+
+    public long getMatchStepLimit() {
+        return matchStepLimit;
+    }
+
+    public void setMatchStepLimit(long matchStepLimit) {
+        this.matchStepLimit = matchStepLimit;
+    }
+
+    @Nullable
+    public Duration getMatchTimeout() {
+        return matchTimeout;
+    }
+
+    public void setMatchTimeout(@Nullable Duration matchTimeout) {
+        this.matchTimeout = matchTimeout;
+    }
+
+    public List<SortingConfiguration> getSorting() {
+        return sorting;
+    }
+
+    public void setSorting(List<SortingConfiguration> sorting) {
+        this.sorting = List.copyOf(Objects.requireNonNull(sorting, "'Sorting' parameter"));
+    }
 }
@@ -22,6 +22,8 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.Objects;
 
+import javax.annotation.Nullable;
+
 import com.exactpro.th2.read.file.common.cfg.CommonFileReaderConfiguration;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -49,12 +51,60 @@ public class LogReaderConfiguration {
 
     private Duration pullingInterval = Duration.ofSeconds(5);
 
+    @JsonPropertyDescription("The minimum interval between the directory checks. "
+            + "The interval grows up to 'pullingInterval' while there are no updates. By default, it is equal to 'pullingInterval'")
+    private Duration minPullingInterval;
+
+    @JsonPropertyDescription("Enables checking the directory as soon as a file is created or modified in it")
+    private boolean watchDirectory = false;
+
     @JsonPropertyDescription("Enables synchronization information about last timestamp and sequence for stream with Cradle")
     private boolean syncWithCradle = true;
 
+    @JsonPropertyDescription("The number of streams that are looked up in Cradle concurrently on start-up")
+    private int cradleSyncParallelism = 16;
+
+    @JsonPropertyDescription("The first time window the last message of a stream is looked for in Cradle. "
+            + "The window grows until the message is found")
+    private Duration cradleSyncWindow = Duration.ofHours(1);
+
+    @JsonPropertyDescription("How far back the last message of a stream is looked for in Cradle. By default, the whole history is checked")
+    private Duration cradleSyncMaxLookback;
+
+    @JsonPropertyDescription("The time the last message found in Cradle is reused for. Then the stream is looked up again")
+    private Duration cradleSyncRefreshInterval = Duration.ofMinutes(1);
+
+    @JsonPropertyDescription("The file on the local disk the positions, last sequences and timestamps of the streams are saved to. "
+            + "On restart the files are read from the saved positions. By default, the state is not saved")
+    private Path stateFile;
+
+    @JsonPropertyDescription("The interval the saved state is forced to the disk with")
+    private Duration stateSyncInterval = Duration.ofSeconds(1);
+
     @JsonPropertyDescription("Enables using th2 transport protocol")
     private boolean useTransport = false;
 
+    @JsonPropertyDescription("Enables reading the log files mapped into memory. "
+            + "Must not be used if the files can be truncated while they are read")
+    private boolean useMemoryMappedFiles = false;
+
+    @JsonPropertyDescription("The number of threads that read the files. The aliases are distributed between them")
+    private int workers = 1;
+
+    @JsonPropertyDescription("The number of threads that parse the lines of the aliases with 'pipelineParsing' enabled")
+    private int parsingThreads = Runtime.getRuntime().availableProcessors();
+
+    @JsonPropertyDescription("The number of threads that decompress the '.gz' and '.zst' files ahead of the reading. "
+            + "If it is 0 the files are decompressed by the readers")
+    private int decompressionThreads = Runtime.getRuntime().availableProcessors();
+
+    @JsonPropertyDescription("The number of threads that send the batches. "
+            + "The batches of a session alias are sent by the same thread. If it is 0 the batches are sent by the reader")
+    private int publishThreads = 0;
+
+    @JsonPropertyDescription("The number of batches that can wait for sending on each publishing thread")
+    private int publishQueueSize = 16;
+
     @JsonCreator
     public LogReaderConfiguration(@JsonProperty("logDirectory") Path logDirectory) {
         this.logDirectory = Objects.requireNonNull(logDirectory, "'Log directory' parameter");
@@ -88,6 +138,22 @@ public class LogReaderConfiguration {
         this.pullingInterval = pullingInterval;
     }
 
+    public Duration getMinPullingInterval() {
+        return minPullingInterval == null ? pullingInterval : minPullingInterval;
+    }
+
+    public void setMinPullingInterval(Duration minPullingInterval) {
+        this.minPullingInterval = minPullingInterval;
+    }
+
+    public boolean isWatchDirectory() {
+        return watchDirectory;
+    }
+
+    public void setWatchDirectory(boolean watchDirectory) {
+        this.watchDirectory = watchDirectory;
+    }
+
     public boolean isSyncWithCradle() {
         return syncWithCradle;
     }
@@ -96,6 +162,56 @@ public class LogReaderConfiguration {
         this.syncWithCradle = syncWithCradle;
     }
 
+    public int getCradleSyncParallelism() {
+        return cradleSyncParallelism;
+    }
+
+    public void setCradleSyncParallelism(int cradleSyncParallelism) {
+        this.cradleSyncParallelism = cradleSyncParallelism;
+    }
+
+    public Duration getCradleSyncWindow() {
+        return cradleSyncWindow;
+    }
+
+    public void setCradleSyncWindow(Duration cradleSyncWindow) {
+        this.cradleSyncWindow = cradleSyncWindow;
+    }
+
+    @Nullable
+    public Duration getCradleSyncMaxLookback() {
+        return cradleSyncMaxLookback;
+    }
+
+    public void setCradleSyncMaxLookback(@Nullable Duration cradleSyncMaxLookback) {
+        this.cradleSyncMaxLookback = cradleSyncMaxLookback;
+    }
+
+    public Duration getCradleSyncRefreshInterval() {
+        return cradleSyncRefreshInterval;
+    }
+
+    public void setCradleSyncRefreshInterval(Duration cradleSyncRefreshInterval) {
+        this.cradleSyncRefreshInterval = cradleSyncRefreshInterval;
+    }
+
+    @Nullable
+    public Path getStateFile() {
+        return stateFile;
+    }
+
+    public void setStateFile(@Nullable Path stateFile) {
+        this.stateFile = stateFile;
+    }
+
+    public Duration getStateSyncInterval() {
+        return stateSyncInterval;
+    }
+
+    public void setStateSyncInterval(Duration stateSyncInterval) {
+        this.stateSyncInterval = stateSyncInterval;
+    }
+
     public void setUseTransport(boolean useTransport) {
         this.useTransport = useTransport;
     }
@@ -103,4 +219,52 @@ public class LogReaderConfiguration {
     public boolean isUseTransport() {
         return useTransport;
     }
+
+    public boolean isUseMemoryMappedFiles() {
+        return useMemoryMappedFiles;
+    }
+
+    public void setUseMemoryMappedFiles(boolean useMemoryMappedFiles) {
+        this.useMemoryMappedFiles = useMemoryMappedFiles;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public int getParsingThreads() {
+        return parsingThreads;
+    }
+
+    public void setParsingThreads(int parsingThreads) {
+        this.parsingThreads = parsingThreads;
+    }
+
+    public int getDecompressionThreads() {
+        return decompressionThreads;
+    }
+
+    public void setDecompressionThreads(int decompressionThreads) {
+        this.decompressionThreads = decompressionThreads;
+    }
+
+    public int getPublishThreads() {
+        return publishThreads;
+    }
+
+    public void setPublishThreads(int publishThreads) {
+        this.publishThreads = publishThreads;
+    }
+
+    public int getPublishQueueSize() {
+        return publishQueueSize;
+    }
+
+    public void setPublishQueueSize(int publishQueueSize) {
+        this.publishQueueSize = publishQueueSize;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.cfg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Defines how the messages of a batch are put into the message groups when th2 transport protocol is used.
+ * The order of the messages is always kept.
+ */
+public enum MessageGrouping {
+    /**
+     * Each message is put into its own group
+     */
+    MESSAGE,
+    /**
+     * All messages are put into one group
+     */
+    BATCH,
+    /**
+     * The consecutive messages with the same direction are put into one group
+     */
+    DIRECTION;
+
+    /**
+     * @param direction extracts the direction of the message
+     * @param maxGroupSize the maximum number of messages in a group. {@code 0} means there is no limit
+     */
+    public <T> List<List<T>> split(List<T> messages, Function<T, ?> direction, int maxGroupSize) {
+        if (maxGroupSize < 0) {
+            throw new IllegalArgumentException("max group size must not be negative but was " + maxGroupSize);
+        }
+        if (this == MESSAGE) {
+            List<List<T>> groups = new ArrayList<>(messages.size());
+            for (T message : messages) {
+                groups.add(List.of(message));
+            }
+            return groups;
+        }
+        int limit = maxGroupSize == 0 ? Integer.MAX_VALUE : maxGroupSize;
+        List<List<T>> groups = new ArrayList<>();
+        List<T> current = null;
+        Object previousDirection = null;
+        for (T message : messages) {
+            Object messageDirection = this == DIRECTION ? direction.apply(message) : null;
+            if (current == null || current.size() == limit || !Objects.equals(previousDirection, messageDirection)) {
+                current = new ArrayList<>(Math.min(limit, messages.size()));
+                groups.add(current);
+            }
+            current.add(message);
+            previousDirection = messageDirection;
+        }
+        return groups;
+    }
+}
@@ -18,6 +18,8 @@ package com.exactpro.th2.readlog.cfg;
 
 import java.util.Objects;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
@@ -33,6 +35,8 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
         property = "compare-as",
         visible = true
 )
+// the type is set by the subclass
+@JsonIgnoreProperties("compare-as")
 public abstract class SortingConfiguration {
     private final String regexp;
     private final boolean reversed;
@@ -61,7 +65,11 @@ public abstract class SortingConfiguration {
     }
 
     public static class NumberSortingConfiguration extends SortingConfiguration {
-        public NumberSortingConfiguration(String regexp, @JsonProperty(defaultValue = "false") boolean reversed) {
+        @JsonCreator
+        public NumberSortingConfiguration(
+                @JsonProperty(value = "regexp", required = true) String regexp,
+                @JsonProperty(value = "reversed", defaultValue = "false") boolean reversed
+        ) {
             super(regexp, CompareAs.NUMBER, reversed);
         }
     }
@@ -69,7 +77,12 @@ public abstract class SortingConfiguration {
     public static class TimeSortingConfiguration extends SortingConfiguration {
         private final String timeFormat;
 
-        public TimeSortingConfiguration(String regexp, @JsonProperty(defaultValue = "false") boolean reversed, String timeFormat) {
+        @JsonCreator
+        public TimeSortingConfiguration(
+                @JsonProperty(value = "regexp", required = true) String regexp,
+                @JsonProperty(value = "reversed", defaultValue = "false") boolean reversed,
+                @JsonProperty(value = "timeFormat", required = true) String timeFormat
+        ) {
             super(regexp, CompareAs.TIME, reversed);
             this.timeFormat = Objects.requireNonNull(timeFormat, "'Time format' parameter");
         }
@@ -80,7 +93,11 @@ public abstract class SortingConfiguration {
     }
 
     public static class StringSortingConfiguration extends SortingConfiguration {
-        public StringSortingConfiguration(String regexp, @JsonProperty(defaultValue = "false")  boolean reversed) {
+        @JsonCreator
+        public StringSortingConfiguration(
+                @JsonProperty(value = "regexp", required = true) String regexp,
+                @JsonProperty(value = "reversed", defaultValue = "false") boolean reversed
+        ) {
             super(regexp, CompareAs.STRING, reversed);
         }
     }
@@ -0,0 +1,462 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * {@link LineNumberReader} that splits the UTF-8 content into lines at the byte level.
+ * <p>
+ * {@link #readLineSequence()} returns the ASCII line as a {@link ByteSlice} over the read buffer without decoding.
+ * Lines with other characters are decoded as {@link java.nio.file.Files#newBufferedReader(java.nio.file.Path) Files.newBufferedReader} does.
+ * <p>
+ * The line terminators, {@link #ready()}, {@link #mark(int)} and {@link #reset()} work in the same way
+ * as in {@link java.io.BufferedReader}. The mark is kept regardless of the read-ahead limit.
+ * The reading can be continued after the end of the source is reached if more data is appended to the source.
+ */
+public abstract class ByteLineReader extends LineNumberReader {
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private byte[] buffer;
+    /**
+     * The index of the next byte to read
+     */
+    private int position;
+    /**
+     * The index after the last byte read from the source
+     */
+    private int limit;
+    /**
+     * The number of bytes discarded from the start of the buffer. So {@code discarded + index} is the position in the source
+     */
+    private long discarded;
+    private int lineNumber;
+    /**
+     * The position in the source of the first byte of the last line read by {@link #readLineSequence()} or {@code -1}
+     */
+    private long lastLineStart = -1;
+    /**
+     * The previous line ended with {@code \r} so the next {@code \n} must be skipped
+     */
+    private boolean skipLF;
+    /**
+     * The low surrogate of the character returned by {@link #read()}
+     */
+    private int pendingChar = -1;
+
+    private int markPosition = -1;
+    private int markLineNumber;
+    private boolean markSkipLF;
+    private boolean closed;
+
+    protected ByteLineReader() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    protected ByteLineReader(int bufferSize) {
+        super(Reader.nullReader());
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("buffer size must be positive but was " + bufferSize);
+        }
+        buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Reads the bytes available in the source
+     *
+     * @return the number of read bytes or {@code -1} if there are no more bytes at the moment
+     */
+    protected abstract int readBytes(byte[] target, int offset, int length) throws IOException;
+
+    /**
+     * @return {@code true} if the source has bytes that can be read without blocking
+     */
+    protected abstract boolean hasAvailableBytes() throws IOException;
+
+    protected abstract void closeSource() throws IOException;
+
+    /**
+     * Reads the next line without the line terminator.
+     * The {@link ByteSlice} is valid until the next read operation.
+     *
+     * @return {@link ByteSlice} if the line contains only ASCII characters, {@link String} otherwise.
+     * {@code null} if the end of the source is reached
+     */
+    @Nullable
+    public CharSequence readLineSequence() throws IOException {
+        ensureOpen();
+        pendingChar = -1;
+        if (skipLF) {
+            if (position >= limit && !fill()) {
+                return null;
+            }
+            if (buffer[position] == LINE_FEED) {
+                position++;
+            }
+            skipLF = false;
+        }
+        long lineStart = discarded + position;
+        int scan = position;
+        boolean ascii = true;
+        while (true) {
+            while (scan < limit) {
+                byte current = buffer[scan];
+                if (current == LINE_FEED || current == CARRIAGE_RETURN) {
+                    CharSequence line = line(position, scan, ascii);
+                    position = scan + 1;
+                    skipLF = current == CARRIAGE_RETURN;
+                    lineNumber++;
+                    lastLineStart = lineStart;
+                    return line;
+                }
+                ascii &= current >= 0;
+                scan++;
+            }
+            int scanned = scan - position;
+            if (!fill()) {
+                if (position == limit) {
+                    return null;
+                }
+                CharSequence line = line(position, limit, ascii);
+                position = limit;
+                lineNumber++;
+                lastLineStart = lineStart;
+                return line;
+            }
+            scan = position + scanned;
+        }
+    }
+
+    /**
+     * @return the position in the source of the next byte to read
+     */
+    long streamPosition() {
+        return discarded + position;
+    }
+
+    /**
+     * @return the position in the source of the first byte of the last read line or {@code -1} if no line is read yet.
+     * The line may be read again if the reader is reset to the mark before it
+     */
+    long lastLineStart() {
+        return lastLineStart;
+    }
+
+    /**
+     * @return {@code true} if the previous line ended with {@code \r} so the next {@code \n} will be skipped
+     */
+    boolean skipsLineFeed() {
+        return skipLF;
+    }
+
+    /**
+     * Copies the complete lines that start at {@link LineChunk#start()} into the chunk without reading them.
+     * The chunk must start at or after the {@link #streamPosition()}.
+     * The copying stops at the first incomplete line, at the line that is not valid UTF-8 or when the chunk is full.
+     */
+    void peekLines(LineChunk chunk) throws IOException {
+        ensureOpen();
+        long next = chunk.start();
+        boolean skip = chunk.startSkipsLineFeed();
+        if (next < streamPosition()) {
+            throw new IllegalArgumentException("chunk start " + next + " is before the current position " + streamPosition());
+        }
+        while (!chunk.isFull()) {
+            long lineStart = next;
+            if (skip) {
+                if (!isAvailable(lineStart)) {
+                    return;
+                }
+                if (buffer[(int) (lineStart - discarded)] == LINE_FEED) {
+                    lineStart++;
+                }
+            }
+            long lineEnd = lineStart;
+            boolean ascii = true;
+            byte terminator = 0;
+            while (terminator == 0) {
+                if (!isAvailable(lineEnd)) {
+                    // the last line is not complete
+                    return;
+                }
+                int index = (int) (lineEnd - discarded);
+                while (index < limit) {
+                    byte current = buffer[index];
+                    if (current == LINE_FEED || current == CARRIAGE_RETURN) {
+                        terminator = current;
+                        break;
+                    }
+                    ascii &= current >= 0;
+                    index++;
+                }
+                lineEnd = discarded + index;
+            }
+            CharSequence line = copy((int) (lineStart - discarded), (int) (lineEnd - discarded), ascii);
+            if (line == null) {
+                return;
+            }
+            next = lineEnd + 1;
+            skip = terminator == CARRIAGE_RETURN;
+            chunk.add(line, next, skip);
+        }
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        CharSequence line = readLineSequence();
+        return line == null ? null : line.toString();
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensureOpen();
+        if (pendingChar >= 0) {
+            int result = pendingChar;
+            pendingChar = -1;
+            return result;
+        }
+        int current = nextByte();
+        if (skipLF) {
+            skipLF = false;
+            if (current == LINE_FEED) {
+                current = nextByte();
+            }
+        }
+        switch (current) {
+            case -1:
+                return -1;
+            case CARRIAGE_RETURN:
+                skipLF = true;
+                lineNumber++;
+                return LINE_FEED;
+            case LINE_FEED:
+                lineNumber++;
+                return LINE_FEED;
+            default:
+                return current < 0x80 ? current : decodeChar(current);
+        }
+    }
+
+    @Override
+    public int read(char[] target, int offset, int length) throws IOException {
+        ensureOpen();
+        if (length == 0) {
+            return 0;
+        }
+        int count = 0;
+        while (count < length) {
+            int current = read();
+            if (current < 0) {
+                break;
+            }
+            target[offset + count++] = (char) current;
+            if (position >= limit && !hasAvailableBytes()) {
+                // do not block waiting for more data
+                break;
+            }
+        }
+        return count == 0 ? -1 : count;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException("skip() value is negative");
+        }
+        long skipped = 0;
+        while (skipped < count && read() >= 0) {
+            skipped++;
+        }
+        return skipped;
+    }
+
+    @Override
+    public boolean ready() throws IOException {
+        ensureOpen();
+        if (skipLF) {
+            if (position >= limit && hasAvailableBytes()) {
+                fill();
+            }
+            if (position < limit) {
+                if (buffer[position] == LINE_FEED) {
+                    position++;
+                }
+                skipLF = false;
+            }
+        }
+        return position < limit || hasAvailableBytes();
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public void mark(int readAheadLimit) throws IOException {
+        if (readAheadLimit < 0) {
+            throw new IllegalArgumentException("Read-ahead limit < 0");
+        }
+        ensureOpen();
+        markPosition = position;
+        markLineNumber = lineNumber;
+        markSkipLF = skipLF;
+    }
+
+    @Override
+    public void reset() throws IOException {
+        ensureOpen();
+        if (markPosition < 0) {
+            throw new IOException("Stream not marked");
+        }
+        position = markPosition;
+        lineNumber = markLineNumber;
+        skipLF = markSkipLF;
+        pendingChar = -1;
+    }
+
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void setLineNumber(int lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        buffer = null;
+        closeSource();
+    }
+
+    private CharSequence line(int from, int to, boolean ascii) throws IOException {
+        if (ascii) {
+            return new ByteSlice(buffer, from, to - from);
+        }
+        // the decoder reports malformed input in the same way as the reader created by Files.newBufferedReader
+        return decoder.reset().decode(ByteBuffer.wrap(buffer, from, to - from)).toString();
+    }
+
+    /**
+     * @return the line that does not refer to the buffer or {@code null} if the line is not valid UTF-8
+     */
+    @Nullable
+    private CharSequence copy(int from, int to, boolean ascii) {
+        if (ascii) {
+            return new ByteSlice(Arrays.copyOfRange(buffer, from, to), 0, to - from);
+        }
+        try {
+            return decoder.reset().decode(ByteBuffer.wrap(buffer, from, to - from)).toString();
+        } catch (CharacterCodingException e) {
+            // the error is reported when the line is read
+            return null;
+        }
+    }
+
+    /**
+     * Reads the source until the byte at the {@code streamPosition} is in the buffer
+     */
+    private boolean isAvailable(long streamPosition) throws IOException {
+        while (streamPosition - discarded >= limit) {
+            if (!fill()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int nextByte() throws IOException {
+        if (position >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private int decodeChar(int lead) throws IOException {
+        int length = (lead & 0xE0) == 0xC0 ? 2 : (lead & 0xF0) == 0xE0 ? 3 : (lead & 0xF8) == 0xF0 ? 4 : 1;
+        // the lead byte is already read
+        position--;
+        while (limit - position < length && fill()) {
+            // read until the whole character is in the buffer
+        }
+        int start = position;
+        int available = Math.min(length, limit - start);
+        CharBuffer chars = decoder.reset().decode(ByteBuffer.wrap(buffer, start, available));
+        position = start + available;
+        if (chars.length() > 1) {
+            pendingChar = chars.get(1);
+        }
+        return chars.get(0);
+    }
+
+    /**
+     * Reads more bytes from the source. If the buffer is full the bytes before the mark
+     * (or the current position if there is no mark) are discarded and the rest is moved to the start of the buffer.
+     * So the indexes in the buffer must be stored relative to the {@link #position}.
+     *
+     * @return {@code true} if any bytes were read
+     */
+    private boolean fill() throws IOException {
+        if (limit == buffer.length) {
+            int keepFrom = markPosition >= 0 ? Math.min(markPosition, position) : position;
+            if (keepFrom > 0) {
+                System.arraycopy(buffer, keepFrom, buffer, 0, limit - keepFrom);
+                position -= keepFrom;
+                limit -= keepFrom;
+                discarded += keepFrom;
+                if (markPosition >= 0) {
+                    markPosition -= keepFrom;
+                }
+            } else {
+                byte[] extended = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, extended, 0, limit);
+                buffer = extended;
+            }
+        }
+        int read = readBytes(buffer, limit, buffer.length - limit);
+        if (read <= 0) {
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+}
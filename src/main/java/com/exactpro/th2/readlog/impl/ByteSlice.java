@@ -0,0 +1,156 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.th2.readlog.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+
+/**
+ * {@link CharSequence} view of the ASCII bytes. Each byte is a character.
+ * <p>
+ * The slice does not copy the bytes. If it was returned by the {@link ByteLineReader}
+ * it is valid only until the next line is read.
+ */
+public final class ByteSlice implements CharSequence {
+    private final byte[] bytes;
+    private final int offset;
+    private final int length;
+
+    ByteSlice(byte[] bytes, int offset, int length) {
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length);
+        return (char) (bytes[offset + index] & 0xFF);
+    }
+
+    @Nonnull
+    @Override
+    public ByteSlice subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, length);
+        return new ByteSlice(bytes, offset + start, end - start);
+    }
+
+    /**
+     * @return the slice over the copy of the bytes. It stays valid when the source buffer is reused
+     */
+    ByteSlice copy() {
+        return new ByteSlice(toByteArray(), 0, length);
+    }
+
+    /**
+     * @return the copy of the bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOfRange(bytes, offset, offset + length);
+    }
+
+    /**
+     * Encodes the {@code value} into the array of the exact size. The array is not referenced anywhere else,
+     * so it can be wrapped without copying.
+     * The unpaired surrogates are replaced with {@code ?} as {@link String#getBytes(java.nio.charset.Charset)} does.
+     *
+     * @return the UTF-8 bytes of the {@code value}. The bytes are copied as is if the value is {@link ByteSlice}
+     */
+    public static byte[] toUtf8(CharSequence value) {
+        return toUtf8(value, 0, value.length());
+    }
+
+    /**
+     * @return the UTF-8 bytes of the {@code value} part from {@code start} (inclusive) to {@code end} (exclusive)
+     * @see #toUtf8(CharSequence)
+     */
+    public static byte[] toUtf8(CharSequence value, int start, int end) {
+        Objects.checkFromToIndex(start, end, value.length());
+        if (value instanceof ByteSlice) {
+            ByteSlice slice = (ByteSlice) value;
+            return Arrays.copyOfRange(slice.bytes, slice.offset + start, slice.offset + end);
+        }
+        byte[] result = new byte[utf8Length(value, start, end)];
+        int position = 0;
+        for (int i = start; i < end; i++) {
+            char current = value.charAt(i);
+            if (current < 0x80) {
+                result[position++] = (byte) current;
+            } else if (current < 0x800) {
+                result[position++] = (byte) (0xC0 | current >> 6);
+                result[position++] = (byte) (0x80 | current & 0x3F);
+            } else if (Character.isHighSurrogate(current) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(current, value.charAt(++i));
+                result[position++] = (byte) (0xF0 | codePoint >> 18);
+                result[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                result[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                result[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate(current)) {
+                result[position++] = '?';
+            } else {
+                result[position++] = (byte) (0xE0 | current >> 12);
+                result[position++] = (byte) (0x80 | current >> 6 & 0x3F);
+                result[position++] = (byte) (0x80 | current & 0x3F);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of bytes in the UTF-8 encoding of the {@code value}. It is the length of the value if the value is {@link ByteSlice}
+     * @see #toUtf8(CharSequence)
+     */
+    public static int utf8Length(CharSequence value) {
+        if (value instanceof ByteSlice) {
+            return value.length();
+        }
+        return utf8Length(value, 0, value.length());
+    }
+
+    private static int utf8Length(CharSequence value, int start, int end) {
+        int encodedLength = 0;
+        for (int i = start; i < end; i++) {
+            char current = value.charAt(i);
+            if (current < 0x80) {
+                encodedLength++;
+            } else if (current < 0x800) {
+                encodedLength += 2;
+            } else if (Character.isHighSurrogate(current) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                encodedLength += 4;
+                i++;
+            } else {
+                encodedLength += Character.isSurrogate(current) ? 1 : 3;
+            }
+        }
+        return encodedLength;
+    }
+
+    @Nonnull
+    @Override
+    public String toString() {
+        // ASCII is the same in ISO-8859-1 and copying is the cheapest way to create a string
+        return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+import com.github.luben.zstd.ZstdInputStream;
+
+/**
+ * The compression of a log file. It is detected by the file extension or, if the extension is not known, by the magic bytes
+ */
+public enum Compression {
+    NONE(null) {
+        @Override
+        InputStream decompress(InputStream source) {
+            return source;
+        }
+    },
+    /**
+     * Concatenated gzip members (e.g. produced by {@code pigz} or by appending to a {@code .gz} file) are read one after another
+     */
+    GZIP(".gz", (byte) 0x1F, (byte) 0x8B) {
+        @Override
+        InputStream decompress(InputStream source) throws IOException {
+            return new GZIPInputStream(source, BUFFER_SIZE);
+        }
+    },
+    /**
+     * Several zstd frames in one file are read one after another
+     */
+    ZSTD(".zst", (byte) 0x28, (byte) 0xB5, (byte) 0x2F, (byte) 0xFD) {
+        @Override
+        InputStream decompress(InputStream source) throws IOException {
+            return new ZstdInputStream(source);
+        }
+    };
+
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_MAGIC_LENGTH = 4;
+
+    private final String extension;
+    private final byte[] magic;
+
+    Compression(String extension, byte... magic) {
+        this.extension = extension;
+        this.magic = magic;
+    }
+
+    /**
+     * Wraps the {@code source} into the stream that decompresses it. The decompressing stream closes the {@code source}
+     */
+    abstract InputStream decompress(InputStream source) throws IOException;
+
+    public static Compression detect(Path path) throws IOException {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        for (Compression compression : values()) {
+            if (compression.extension != null && name.endsWith(compression.extension)) {
+                return compression;
+            }
+        }
+        ByteBuffer header = ByteBuffer.allocate(MAX_MAGIC_LENGTH);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (header.hasRemaining() && channel.read(header) > 0) {
+                // read until the header is full or the end of the file
+            }
+        }
+        for (Compression compression : values()) {
+            if (compression.magic.length > 0 && startsWith(header, compression.magic)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+
+    private static boolean startsWith(ByteBuffer header, byte[] magic) {
+        if (header.position() < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (header.get(i) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.th2.readlog.impl;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Reads the lines from the file starting from the specified position
+ */
+public final class FileLineReader extends ByteLineReader {
+    private final FileChannel channel;
+
+    private FileLineReader(FileChannel channel) {
+        this.channel = Objects.requireNonNull(channel, "'Channel' parameter");
+    }
+
+    public static FileLineReader open(Path path, long offset) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            channel.position(offset);
+            return new FileLineReader(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    protected int readBytes(byte[] target, int offset, int length) throws IOException {
+        return channel.read(ByteBuffer.wrap(target, offset, length));
+    }
+
+    @Override
+    protected boolean hasAvailableBytes() throws IOException {
+        return channel.position() < channel.size();
+    }
+
+    @Override
+    protected void closeSource() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
+import com.exactpro.th2.readlog.cfg.SortingConfiguration;
+import com.exactpro.th2.readlog.cfg.SortingConfiguration.TimeSortingConfiguration;
+
+/**
+ * Sorts the files of each alias by the keys configured in {@link AliasConfiguration#getSorting()}.
+ * <p>
+ * The keys are extracted from the file name when the file is seen for the first time and are cached for its path,
+ * so the regexps are not executed on each comparison or on each directory check.
+ * The file is compared with the files of the same alias by the keys in the configured order.
+ * The file without a key (e.g. the active file that is not rotated yet) goes after the files with this key.
+ * The files with the same keys are sorted by the case-insensitive name.
+ * The files of different aliases are sorted by the alias.
+ * <p>
+ * The instance is not thread-safe. It must be used by the reader's thread only.
+ */
+public final class FileSorter {
+    private static final Comparator<Key> BY_NAME = Comparator.comparing((Key key) -> key.name, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(key -> key.name);
+    private static final long NANOS_PER_DAY = 86_400_000_000_000L;
+
+    private final List<AliasSorting> aliases;
+    private final Map<Path, Key> keys = new HashMap<>();
+
+    public FileSorter(Map<String, AliasConfiguration> aliases) {
+        Objects.requireNonNull(aliases, "'Aliases' parameter");
+        List<AliasSorting> sortings = new ArrayList<>(aliases.size());
+        aliases.forEach((alias, configuration) -> sortings.add(new AliasSorting(alias, configuration)));
+        sortings.sort(Comparator.comparing(sorting -> sorting.alias));
+        this.aliases = sortings;
+    }
+
+    /**
+     * Sorts the {@code files} in place. The keys of the files that are not in the list any more are removed from the cache
+     */
+    public void sort(List<Path> files) {
+        if (keys.size() > files.size()) {
+            keys.keySet().retainAll(new HashSet<>(files));
+        }
+        List<Key> sorted = new ArrayList<>(files.size());
+        for (Path file : files) {
+            sorted.add(keys.computeIfAbsent(file, this::extract));
+        }
+        sorted.sort(FileSorter::compare);
+        for (int i = 0; i < sorted.size(); i++) {
+            files.set(i, sorted.get(i).path);
+        }
+    }
+
+    /**
+     * @return the number of the cached keys
+     */
+    int cachedKeys() {
+        return keys.size();
+    }
+
+    private Key extract(Path path) {
+        String name = path.getFileName().toString();
+        for (AliasSorting sorting : aliases) {
+            if (sorting.pathFilter.matcher(name).matches()) {
+                return sorting.extract(path, name);
+            }
+        }
+        return new Key(path, name, null);
+    }
+
+    private static int compare(Key first, Key second) {
+        AliasSorting sorting = first.sorting;
+        if (sorting != second.sorting) {
+            return sorting == null ? -1 : second.sorting == null ? 1 : sorting.alias.compareTo(second.sorting.alias);
+        }
+        if (sorting != null) {
+            for (int i = 0; i < sorting.criteria.length; i++) {
+                int result = sorting.criteria[i].compare(first, second, i);
+                if (result != 0) {
+                    return result;
+                }
+            }
+        }
+        return BY_NAME.compare(first, second);
+    }
+
+    private static final class AliasSorting {
+        private final String alias;
+        private final Pattern pathFilter;
+        private final Criterion[] criteria;
+
+        private AliasSorting(String alias, AliasConfiguration configuration) {
+            this.alias = alias;
+            this.pathFilter = configuration.getPathFilter();
+            this.criteria = configuration.getSorting().stream()
+                    .map(Criterion::new)
+                    .toArray(Criterion[]::new);
+        }
+
+        private Key extract(Path path, String name) {
+            Key key = new Key(path, name, this);
+            if (criteria.length > 0) {
+                key.numbers = new long[criteria.length];
+                key.strings = new String[criteria.length];
+                key.present = new boolean[criteria.length];
+                for (int i = 0; i < criteria.length; i++) {
+                    criteria[i].extract(name, key, i);
+                }
+            }
+            return key;
+        }
+    }
+
+    private static final class Criterion {
+        private final SortingConfiguration.CompareAs compareAs;
+        private final Pattern pattern;
+        private final boolean reversed;
+        private final DateTimeFormatter timeFormat;
+
+        private Criterion(SortingConfiguration configuration) {
+            this.compareAs = configuration.getCompareAs();
+            this.pattern = Pattern.compile(configuration.getRegexp());
+            this.reversed = configuration.isReversed();
+            this.timeFormat = configuration instanceof TimeSortingConfiguration
+                    ? DateTimeFormatter.ofPattern(((TimeSortingConfiguration) configuration).getTimeFormat())
+                    : null;
+        }
+
+        private void extract(String name, Key key, int index) {
+            String value = find(name);
+            if (value == null) {
+                return;
+            }
+            try {
+                switch (compareAs) {
+                case NUMBER:
+                    key.numbers[index] = Long.parseLong(value);
+                    break;
+                case TIME:
+                    key.numbers[index] = toNanos(timeFormat.parse(value));
+                    break;
+                case STRING:
+                    key.strings[index] = value;
+                    break;
+                default:
+                    throw new IllegalStateException("Unsupported key type " + compareAs);
+                }
+                key.present[index] = true;
+            } catch (NumberFormatException | DateTimeParseException | ArithmeticException e) {
+                // the file is sorted as the file without the key
+            }
+        }
+
+        /**
+         * @return the first group of the regexp or the whole match if the regexp does not have groups
+         */
+        @Nullable
+        private String find(String name) {
+            Matcher matcher = pattern.matcher(name);
+            if (!matcher.find()) {
+                return null;
+            }
+            return matcher.groupCount() > 0 ? matcher.group(1) : matcher.group();
+        }
+
+        private int compare(Key first, Key second, int index) {
+            boolean firstPresent = first.present[index];
+            boolean secondPresent = second.present[index];
+            if (!firstPresent || !secondPresent) {
+                // the file without the key goes last regardless of the order
+                return Boolean.compare(!firstPresent, !secondPresent);
+            }
+            int result = compareAs == SortingConfiguration.CompareAs.STRING
+                    ? first.strings[index].compareTo(second.strings[index])
+                    : Long.compare(first.numbers[index], second.numbers[index]);
+            return reversed ? -result : result;
+        }
+
+        /**
+         * The time without the zone is compared as UTC, so the keys of one format are comparable
+         */
+        private static long toNanos(TemporalAccessor time) {
+            if (time.isSupported(ChronoField.INSTANT_SECONDS)) {
+                return Math.addExact(Math.multiplyExact(time.getLong(ChronoField.INSTANT_SECONDS), 1_000_000_000L), time.getLong(ChronoField.NANO_OF_SECOND));
+            }
+            LocalDate date = time.query(TemporalQueries.localDate());
+            if (date == null && time.isSupported(ChronoField.YEAR)) {
+                // e.g. 'yyyy-MM' format
+                date = LocalDate.of(
+                        time.get(ChronoField.YEAR),
+                        time.isSupported(ChronoField.MONTH_OF_YEAR) ? time.get(ChronoField.MONTH_OF_YEAR) : 1,
+                        1
+                );
+            }
+            LocalTime localTime = time.query(TemporalQueries.localTime());
+            return (date == null ? 0 : date.toEpochDay() * NANOS_PER_DAY) + (localTime == null ? 0 : localTime.toNanoOfDay());
+        }
+    }
+
+    private static final class Key {
+        private final Path path;
+        private final String name;
+        @Nullable
+        private final AliasSorting sorting;
+        private long[] numbers;
+        private String[] strings;
+        private boolean[] present;
+
+        private Key(Path path, String name, @Nullable AliasSorting sorting) {
+            this.path = path;
+            this.name = name;
+            this.sorting = sorting;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+/**
+ * The copies of the consecutive lines read ahead by {@link ByteLineReader#peekLines(LineChunk)}.
+ * Each line is identified by the position in the source where the reading of the line starts.
+ */
+final class LineChunk {
+    private final long start;
+    private final boolean startSkipsLineFeed;
+    private final long[] keys;
+    private final CharSequence[] lines;
+    private final int maxChars;
+    private int size;
+    private int chars;
+    private long end;
+    private boolean endSkipsLineFeed;
+
+    /**
+     * @param start the position of the first line
+     * @param startSkipsLineFeed the line before the {@code start} ended with {@code \r}
+     * @param maxLines the maximum number of lines in the chunk
+     * @param maxChars the chunk is full when the total length of its lines reaches this value
+     */
+    LineChunk(long start, boolean startSkipsLineFeed, int maxLines, int maxChars) {
+        if (maxLines <= 0) {
+            throw new IllegalArgumentException("max lines must be positive but was " + maxLines);
+        }
+        this.start = start;
+        this.startSkipsLineFeed = startSkipsLineFeed;
+        this.maxChars = maxChars;
+        keys = new long[maxLines];
+        lines = new CharSequence[maxLines];
+        end = start;
+        endSkipsLineFeed = startSkipsLineFeed;
+    }
+
+    long start() {
+        return start;
+    }
+
+    boolean startSkipsLineFeed() {
+        return startSkipsLineFeed;
+    }
+
+    /**
+     * @return the position after the last line
+     */
+    long end() {
+        return end;
+    }
+
+    boolean endSkipsLineFeed() {
+        return endSkipsLineFeed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == lines.length || chars >= maxChars;
+    }
+
+    long key(int index) {
+        return keys[index];
+    }
+
+    CharSequence line(int index) {
+        return lines[index];
+    }
+
+    /**
+     * @param next the position after the line terminator
+     * @param nextSkipsLineFeed the line terminator is {@code \r}
+     */
+    void add(CharSequence line, long next, boolean nextSkipsLineFeed) {
+        keys[size] = end;
+        lines[size] = line;
+        size++;
+        chars += line.length();
+        end = next;
+        endSkipsLineFeed = nextSkipsLineFeed;
+    }
+}
@@ -28,6 +28,8 @@ import com.exactpro.th2.read.file.common.impl.RecoverableBufferedReaderWrapper;
 import com.exactpro.th2.read.file.common.impl.TransportDefaultFileReader;
 import com.exactpro.th2.read.file.common.state.ReaderState;
 import com.exactpro.th2.readlog.RegexLogParser;
+import com.exactpro.th2.readlog.SkipBeforeSeeker;
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
 import com.exactpro.th2.readlog.cfg.LogReaderConfiguration;
 import com.exactpro.th2.readlog.impl.lambdas.ForOnError;
 import com.exactpro.th2.readlog.impl.lambdas.ForOnSourceCorrupted;
@@ -37,13 +39,18 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import java.io.IOException;
 import java.io.LineNumberReader;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import static java.util.Comparator.comparing;
+import javax.annotation.Nullable;
 
 public class LogFileReader {
 
@@ -55,14 +62,41 @@ public class LogFileReader {
             ForOnError forError,
             ForOnSourceCorrupted forCorrupted
     ){
+        return getProtoLogFileReader(configuration, configuration.getAliases(), null, null, null, readerState, initialMessageId, forStream, forError, forCorrupted);
+    }
+
+    /**
+     * Creates the reader that processes only the files for the specified {@code aliases}
+     *
+     * @param parsingExecutor parses the lines of the aliases with {@code pipelineParsing} enabled.
+     *                        If it is {@code null} all lines are parsed by the reader's thread
+     * @param decompressionExecutor decompresses the compressed files ahead of the reading.
+     *                              If it is {@code null} the files are decompressed by the reader's thread
+     * @param stateJournal the checkpoints of the streams. The file of the checkpoint is read from the checkpoint position.
+     *                     The {@code readerState} must record the checkpoints into it.
+     *                     If it is {@code null} the files are read from the start or from the position found by {@code skipBefore}
+     */
+    public static AbstractFileReader<LineNumberReader, com.exactpro.th2.common.grpc.RawMessage.Builder, com.exactpro.th2.common.grpc.MessageID> getProtoLogFileReader(
+            LogReaderConfiguration configuration,
+            Map<String, AliasConfiguration> aliases,
+            @Nullable ExecutorService parsingExecutor,
+            @Nullable ExecutorService decompressionExecutor,
+            @Nullable StateJournal stateJournal,
+            ReaderState readerState,
+            Function<StreamId, com.exactpro.th2.common.grpc.MessageID> initialMessageId,
+            ProtoForOnStreamData forStream,
+            ForOnError forError,
+            ForOnSourceCorrupted forCorrupted
+    ){
+            SkipBeforeSeeker seeker = new SkipBeforeSeeker(aliases);
             return new ProtoDefaultFileReader.Builder<>(
                     configuration.getCommon(),
-                    getDirectoryChecker(configuration),
-                    new ProtoRegexpContentParser(new RegexLogParser(configuration.getAliases())),
+                    getDirectoryChecker(configuration, aliases),
+                    createProtoParser(aliases, parsingExecutor, forError),
                     new MovedFileTracker(configuration.getLogDirectory()),
                     readerState,
                     initialMessageId::apply,
-                    LogFileReader::createSource
+                    (streamId, path) -> createSource(configuration, seeker, decompressionExecutor, stateJournal, streamId, path)
             )
                     .readFileImmediately()
                     .acceptNewerFiles()
@@ -80,14 +114,41 @@ public class LogFileReader {
             ForOnError forError,
             ForOnSourceCorrupted forCorrupted
     ){
+        return getTransportLogFileReader(configuration, configuration.getAliases(), null, null, null, readerState, initialMessageId, forStream, forError, forCorrupted);
+    }
+
+    /**
+     * Creates the reader that processes only the files for the specified {@code aliases}
+     *
+     * @param parsingExecutor parses the lines of the aliases with {@code pipelineParsing} enabled.
+     *                        If it is {@code null} all lines are parsed by the reader's thread
+     * @param decompressionExecutor decompresses the compressed files ahead of the reading.
+     *                              If it is {@code null} the files are decompressed by the reader's thread
+     * @param stateJournal the checkpoints of the streams. The file of the checkpoint is read from the checkpoint position.
+     *                     The {@code readerState} must record the checkpoints into it.
+     *                     If it is {@code null} the files are read from the start or from the position found by {@code skipBefore}
+     */
+    public static AbstractFileReader<LineNumberReader, RawMessage.Builder, MessageId.Builder> getTransportLogFileReader(
+            LogReaderConfiguration configuration,
+            Map<String, AliasConfiguration> aliases,
+            @Nullable ExecutorService parsingExecutor,
+            @Nullable ExecutorService decompressionExecutor,
+            @Nullable StateJournal stateJournal,
+            ReaderState readerState,
+            Function<StreamId, MessageId.Builder> initialMessageId,
+            TransportForOnStreamData forStream,
+            ForOnError forError,
+            ForOnSourceCorrupted forCorrupted
+    ){
+        SkipBeforeSeeker seeker = new SkipBeforeSeeker(aliases);
         return new TransportDefaultFileReader.Builder<>(
                 configuration.getCommon(),
-                getDirectoryChecker(configuration),
-                new TransportRegexpContentParser(new RegexLogParser(configuration.getAliases())),
+                getDirectoryChecker(configuration, aliases),
+                createTransportParser(aliases, parsingExecutor, forError),
                 new MovedFileTracker(configuration.getLogDirectory()),
                 readerState,
                 initialMessageId::apply,
-                LogFileReader::createSource
+                (streamId, path) -> createSource(configuration, seeker, decompressionExecutor, stateJournal, streamId, path)
         )
                 .readFileImmediately()
                 .acceptNewerFiles()
@@ -97,22 +158,91 @@ public class LogFileReader {
                 .build();
     }
 
-    private static DirectoryChecker getDirectoryChecker(LogReaderConfiguration configuration) {
-        Comparator<Path> pathComparator = comparing(it -> it.getFileName().toString(), String.CASE_INSENSITIVE_ORDER);
+    private static ProtoRegexpContentParser createProtoParser(Map<String, AliasConfiguration> aliases, @Nullable ExecutorService parsingExecutor, ForOnError forError) {
+        // the lines that exceed the match budget are reported as the errors of the reader
+        RegexLogParser parser = new RegexLogParser(aliases, forError);
+        return new ProtoRegexpContentParser(parser, createPipeline(parser, aliases, parsingExecutor));
+    }
+
+    private static TransportRegexpContentParser createTransportParser(Map<String, AliasConfiguration> aliases, @Nullable ExecutorService parsingExecutor, ForOnError forError) {
+        // the lines that exceed the match budget are reported as the errors of the reader
+        RegexLogParser parser = new RegexLogParser(aliases, forError);
+        return new TransportRegexpContentParser(parser, createPipeline(parser, aliases, parsingExecutor));
+    }
+
+    @Nullable
+    private static ParsingPipeline createPipeline(RegexLogParser parser, Map<String, AliasConfiguration> aliases, @Nullable ExecutorService parsingExecutor) {
+        Set<String> pipelined = aliases.entrySet().stream()
+                .filter(entry -> entry.getValue().isPipelineParsing())
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        return parsingExecutor == null || pipelined.isEmpty() ? null : new ParsingPipeline(parser, pipelined, parsingExecutor);
+    }
+
+    /**
+     * Distributes the aliases between {@code workers} groups in the round-robin order of their names.
+     * Each group is processed by its own reader, so all files of an alias are read by the same thread.
+     *
+     * @return not empty groups of aliases. There are fewer groups than {@code workers} if there are not enough aliases
+     */
+    public static List<Map<String, AliasConfiguration>> partitionAliases(Map<String, AliasConfiguration> aliases, int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("workers must be positive but was " + workers);
+        }
+        List<Map<String, AliasConfiguration>> partitions = new ArrayList<>(workers);
+        List<String> names = new ArrayList<>(aliases.keySet());
+        names.sort(Comparator.naturalOrder());
+        for (int i = 0; i < names.size(); i++) {
+            if (i < workers) {
+                partitions.add(new LinkedHashMap<>());
+            }
+            String alias = names.get(i);
+            partitions.get(i % workers).put(alias, aliases.get(alias));
+        }
+        return partitions;
+    }
+
+    private static DirectoryChecker getDirectoryChecker(LogReaderConfiguration configuration, Map<String, AliasConfiguration> aliases) {
+        // the keys of the files are cached by the sorter, so the sorter is created once for the checker
+        FileSorter sorter = new FileSorter(aliases);
         return new DirectoryChecker(
                 configuration.getLogDirectory(),
-                (Path path) -> configuration.getAliases().entrySet().stream()
+                (Path path) -> aliases.entrySet().stream()
                         .filter(entry -> entry.getValue().getPathFilter().matcher(path.getFileName().toString()).matches())
                         .map(entry -> new StreamId(entry.getKey()))
                         .collect(Collectors.toSet()),
-                files -> files.sort(pathComparator),
+                sorter::sort,
                 path -> true
         );
     }
 
-    private static FileSourceWrapper<LineNumberReader> createSource(StreamId streamId, Path path) {
+    private static FileSourceWrapper<LineNumberReader> createSource(
+            LogReaderConfiguration configuration,
+            SkipBeforeSeeker seeker,
+            @Nullable ExecutorService decompressionExecutor,
+            @Nullable StateJournal stateJournal,
+            StreamId streamId,
+            Path path
+    ) {
         try {
-            return new RecoverableBufferedReaderWrapper(new LineNumberReader(Files.newBufferedReader(path)));
+            long checkpointOffset = stateJournal == null ? 0 : stateJournal.startOffset(streamId, path);
+            Compression compression = Compression.detect(path);
+            ByteLineReader reader;
+            long offset;
+            if (compression != Compression.NONE) {
+                // the offsets in the compressed file cannot be used to seek, so the lines before the checkpoint are decompressed and skipped
+                offset = checkpointOffset;
+                reader = StreamLineReader.open(path, compression, decompressionExecutor, offset);
+            } else {
+                offset = checkpointOffset > 0 ? checkpointOffset : seeker.startOffset(streamId, path);
+                reader = configuration.isUseMemoryMappedFiles()
+                        ? MappedLineReader.open(path, offset)
+                        : FileLineReader.open(path, offset);
+            }
+            if (stateJournal != null) {
+                stateJournal.sourceOpened(streamId, path, offset, reader);
+            }
+            return new RecoverableBufferedReaderWrapper(reader);
         } catch (IOException e) {
             return ExceptionUtils.rethrow(e);
         }
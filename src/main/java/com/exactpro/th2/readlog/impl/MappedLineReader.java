@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Reads the lines from the file mapped into memory.
+ * <p>
+ * The file is mapped by windows. The next window is mapped when the reading reaches the end of the current one,
+ * so the data appended to the file after the window was mapped is read from the next window.
+ * <p>
+ * <b>NOTE:</b> if the file is truncated while it is mapped (e.g. by {@code copytruncate} log rotation)
+ * accessing the mapped memory may fail with {@link InternalError}.
+ */
+public final class MappedLineReader extends ByteLineReader {
+    static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long windowSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long filePosition;
+
+    private MappedLineReader(FileChannel channel, long offset, long windowSize, int bufferSize) {
+        super(bufferSize);
+        this.channel = Objects.requireNonNull(channel, "'Channel' parameter");
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("window size must be positive but was " + windowSize);
+        }
+        this.windowSize = windowSize;
+        filePosition = offset;
+    }
+
+    public static MappedLineReader open(Path path, long offset) throws IOException {
+        return open(path, offset, DEFAULT_WINDOW_SIZE, BUFFER_SIZE);
+    }
+
+    static MappedLineReader open(Path path, long offset, long windowSize, int bufferSize) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new MappedLineReader(channel, offset, windowSize, bufferSize);
+        } catch (RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    protected int readBytes(byte[] target, int offset, int length) throws IOException {
+        long size = channel.size();
+        if (filePosition >= size) {
+            return -1;
+        }
+        if (window == null || filePosition < windowStart || filePosition >= windowStart + window.limit()) {
+            windowStart = filePosition;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(windowSize, size - windowStart));
+        }
+        int index = (int) (filePosition - windowStart);
+        int count = Math.min(length, window.limit() - index);
+        window.position(index);
+        window.get(target, offset, count);
+        filePosition += count;
+        return count;
+    }
+
+    @Override
+    protected boolean hasAvailableBytes() throws IOException {
+        return filePosition < channel.size();
+    }
+
+    @Override
+    protected void closeSource() throws IOException {
+        window = null;
+        channel.close();
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.annotation.Nullable;
+
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.readlog.ParseResult;
+import com.exactpro.th2.readlog.RegexLogParser;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+/**
+ * Parses the lines of the stream on the {@link ExecutorService} ahead of the reading thread.
+ * <p>
+ * After a line is read, the complete lines that follow it in the {@link ByteLineReader} are copied by chunks
+ * and the chunks are parsed by the executor. When the reading thread reads one of these lines
+ * the result is taken from the chunk. So the lines are still read (and the messages are created) one by one in the
+ * order of the file, and the result is the same as if each line was parsed when it is read.
+ * <p>
+ * The lines are identified by their position in the source. If the reader does not read the expected line
+ * (e.g. the reader was reset to the mark) the line is parsed by the reading thread.
+ * The metrics of a line parsed ahead are recorded when the reading thread takes its result,
+ * so the lines that are parsed ahead but then discarded are not counted.
+ * <p>
+ * The instance is not thread-safe. It must be used by the reader's thread only.
+ */
+final class ParsingPipeline {
+    private static final int CHUNK_LINES = 256;
+    private static final int CHUNK_CHARS = 256 * 1024;
+    private static final int MAX_CHUNKS = 4;
+
+    private final RegexLogParser parser;
+    private final Set<String> aliases;
+    private final ExecutorService executor;
+    private final int chunkLines;
+    private final int chunkChars;
+    private final int maxChunks;
+    private final Map<StreamId, StreamState> states = new HashMap<>();
+
+    /**
+     * @param aliases the aliases whose lines are parsed in the pipeline
+     */
+    ParsingPipeline(RegexLogParser parser, Set<String> aliases, ExecutorService executor) {
+        this(parser, aliases, executor, CHUNK_LINES, CHUNK_CHARS, MAX_CHUNKS);
+    }
+
+    ParsingPipeline(RegexLogParser parser, Set<String> aliases, ExecutorService executor, int chunkLines, int chunkChars, int maxChunks) {
+        this.parser = Objects.requireNonNull(parser, "'Parser' parameter");
+        this.aliases = Set.copyOf(Objects.requireNonNull(aliases, "'Aliases' parameter"));
+        this.executor = Objects.requireNonNull(executor, "'Executor' parameter");
+        if (chunkLines <= 0 || chunkChars <= 0 || maxChunks <= 0) {
+            throw new IllegalArgumentException("chunk lines (" + chunkLines + "), chunk chars (" + chunkChars
+                    + ") and max chunks (" + maxChunks + ") must be positive");
+        }
+        this.chunkLines = chunkLines;
+        this.chunkChars = chunkChars;
+        this.maxChunks = maxChunks;
+    }
+
+    boolean accepts(StreamId streamId) {
+        return aliases.contains(streamId.getSessionAlias());
+    }
+
+    /**
+     * @param key the {@link ByteLineReader#streamPosition()} before the line was read
+     * @param line the line that has just been read from the {@code reader}
+     * @param result is used if the line was not parsed ahead
+     * @return the result of parsing the line. It does not refer to the reader's buffer, so it stays valid when the following lines are read ahead
+     */
+    ParseResult parse(StreamId streamId, ByteLineReader reader, long key, CharSequence line, ParseResult result) throws IOException {
+        StreamState state = states.computeIfAbsent(streamId, it -> new StreamState());
+        if (state.reader != reader) {
+            state.clear();
+            state.reader = reader;
+        }
+        ParseResult parsed = state.take(key, parser);
+        if (parsed == null) {
+            // the result refers to the line, and the line refers to the reader's buffer that can be compacted by the prefetch
+            parser.parse(streamId, line instanceof ByteSlice ? ((ByteSlice) line).copy() : line, result);
+            parsed = result;
+        }
+        prefetch(streamId, state);
+        return parsed;
+    }
+
+    private void prefetch(StreamId streamId, StreamState state) throws IOException {
+        ByteLineReader reader = state.reader;
+        while (state.chunks.size() < maxChunks) {
+            Chunk last = state.chunks.peekLast();
+            LineChunk lines = last == null
+                    ? new LineChunk(reader.streamPosition(), reader.skipsLineFeed(), chunkLines, chunkChars)
+                    : new LineChunk(last.lines.end(), last.lines.endSkipsLineFeed(), chunkLines, chunkChars);
+            reader.peekLines(lines);
+            if (lines.size() == 0) {
+                return;
+            }
+            Future<ParsedLines> results;
+            try {
+                results = executor.submit(() -> parseAll(streamId, lines));
+            } catch (RejectedExecutionException e) {
+                // the executor is shut down. The lines are parsed when they are read
+                return;
+            }
+            state.chunks.addLast(new Chunk(lines, results));
+            if (!lines.isFull()) {
+                // there are no more complete lines at the moment
+                return;
+            }
+        }
+    }
+
+    private ParsedLines parseAll(StreamId streamId, LineChunk lines) {
+        ParsedLines parsed = new ParsedLines(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            ParseResult result = new ParseResult();
+            parsed.results[i] = result;
+            try {
+                parser.parseAhead(streamId, lines.line(i), result);
+            } catch (RuntimeException e) {
+                parsed.errors[i] = e;
+            }
+        }
+        return parsed;
+    }
+
+    private static final class StreamState {
+        private final Deque<Chunk> chunks = new ArrayDeque<>();
+        private ByteLineReader reader;
+
+        /**
+         * @return the result for the line with the {@code key} or {@code null} if the line was not parsed ahead.
+         * The metrics of the line are recorded by the {@code parser}
+         */
+        @Nullable
+        private ParseResult take(long key, RegexLogParser parser) {
+            Chunk chunk;
+            while ((chunk = chunks.peekFirst()) != null) {
+                if (chunk.next == chunk.lines.size()) {
+                    chunks.removeFirst();
+                    continue;
+                }
+                long expected = chunk.lines.key(chunk.next);
+                if (expected > key) {
+                    // the reader returned to a line before the parsed ones
+                    return null;
+                }
+                int index = chunk.next++;
+                if (expected == key) {
+                    return chunk.result(index, parser);
+                }
+            }
+            return null;
+        }
+
+        private void clear() {
+            chunks.forEach(chunk -> chunk.results.cancel(false));
+            chunks.clear();
+        }
+    }
+
+    private static final class Chunk {
+        private final LineChunk lines;
+        private final Future<ParsedLines> results;
+        private int next;
+
+        private Chunk(LineChunk lines, Future<ParsedLines> results) {
+            this.lines = lines;
+            this.results = results;
+        }
+
+        private ParseResult result(int index, RegexLogParser parser) {
+            ParsedLines parsed;
+            try {
+                parsed = results.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return ExceptionUtils.rethrow(e);
+            } catch (ExecutionException e) {
+                return ExceptionUtils.rethrow(e.getCause());
+            }
+            parser.recordMetrics(parsed.results[index]);
+            RuntimeException error = parsed.errors[index];
+            if (error != null) {
+                throw error;
+            }
+            return parsed.results[index];
+        }
+    }
+
+    /**
+     * The result of each line of a chunk and the exception thrown by the parser for the line if any
+     */
+    private static final class ParsedLines {
+        private final ParseResult[] results;
+        private final RuntimeException[] errors;
+
+        private ParsedLines(int size) {
+            results = new ParseResult[size];
+            errors = new RuntimeException[size];
+        }
+    }
+}
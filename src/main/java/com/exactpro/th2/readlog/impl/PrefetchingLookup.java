@@ -0,0 +1,135 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.read.file.common.state.StreamData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Looks up the streams ahead of the readers and caches the found data.
+ * <p>
+ * {@link #prefetch(Collection, int)} issues the lookups for the known streams concurrently,
+ * so the readers do not wait for the lookups one by one on start-up.
+ * {@link #find(StreamId)} waits for the lookup in progress, returns the cached data
+ * or looks up the stream on the calling thread if it was not prefetched.
+ * <p>
+ * Refresh policy: the found data is reused for {@code refreshInterval} after it is looked up.
+ * Then the stream is looked up again on the next {@link #find(StreamId)}. The failed lookups are not cached.
+ * The lookups can be shared by several readers.
+ */
+public final class PrefetchingLookup implements StreamDataLookup {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrefetchingLookup.class);
+
+    private final StreamDataLookup delegate;
+    private final Duration refreshInterval;
+    private final Clock clock;
+    private final Map<StreamId, Entry> cache = new ConcurrentHashMap<>();
+
+    public PrefetchingLookup(StreamDataLookup delegate, Duration refreshInterval, Clock clock) {
+        this.delegate = Objects.requireNonNull(delegate, "'Delegate' parameter");
+        this.refreshInterval = Objects.requireNonNull(refreshInterval, "'Refresh interval' parameter");
+        this.clock = Objects.requireNonNull(clock, "'Clock' parameter");
+        if (refreshInterval.isNegative()) {
+            throw new IllegalArgumentException("refresh interval " + refreshInterval + " must not be negative");
+        }
+    }
+
+    /**
+     * Starts looking up the {@code streams} on at most {@code parallelism} threads. The method does not wait for the lookups.
+     * The threads are stopped when all lookups are done
+     */
+    public void prefetch(Collection<StreamId> streams, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism " + parallelism + " must be positive");
+        }
+        if (streams.isEmpty()) {
+            return;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, streams.size()), runnable -> {
+            Thread thread = new Thread(runnable, "stream-lookup-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long start = System.nanoTime();
+            CompletableFuture<?>[] lookups = streams.stream()
+                    .map(streamId -> cache.computeIfAbsent(streamId, id -> new Entry(CompletableFuture.supplyAsync(() -> delegate.find(id), executor), clock)))
+                    .map(entry -> entry.data)
+                    .toArray(CompletableFuture[]::new);
+            CompletableFuture.allOf(lookups).whenComplete((ignore, error) ->
+                    LOGGER.info("{} stream(s) are looked up in {} ms", lookups.length, Duration.ofNanos(System.nanoTime() - start).toMillis()));
+        } finally {
+            // the submitted lookups are still executed
+            executor.shutdown();
+        }
+    }
+
+    @Nullable
+    @Override
+    public StreamData find(StreamId streamId) {
+        Entry entry = cache.get(streamId);
+        if (entry != null && !entry.isExpired(clock.instant(), refreshInterval)) {
+            try {
+                return entry.data.join();
+            } catch (CompletionException e) {
+                LOGGER.warn("Prefetching stream {} failed. Looking up it again", streamId, e.getCause());
+                cache.remove(streamId, entry);
+            }
+        }
+        StreamData data = delegate.find(streamId);
+        cache.put(streamId, new Entry(CompletableFuture.completedFuture(data), clock));
+        return data;
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<StreamData> data;
+        /**
+         * {@code null} while the lookup is in progress
+         */
+        @Nullable
+        private volatile Instant lookedUpAt;
+
+        private Entry(CompletableFuture<StreamData> data, Clock clock) {
+            this.data = data;
+            // the failed lookup never expires but is removed when its failure is found
+            data.thenRun(() -> lookedUpAt = clock.instant());
+        }
+
+        private boolean isExpired(Instant now, Duration refreshInterval) {
+            Instant time = lookedUpAt;
+            return time != null && time.plus(refreshInterval).isBefore(now);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+
+import javax.annotation.Nullable;
+
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.read.file.common.state.StreamData;
+
+/**
+ * Looks for the last message in the growing time windows that end now instead of querying the whole history of the stream at once.
+ * <p>
+ * An active stream is found by the first query that covers only the recent pages of the storage.
+ * The windows grow {@value #GROWTH} times each probe.
+ * The last probe covers {@code maxLookback} or the whole history if it is not set.
+ */
+public final class ProbingLookup implements StreamDataLookup {
+    public static final Duration DEFAULT_WINDOW = Duration.ofHours(1);
+    private static final int GROWTH = 4;
+    /**
+     * The windows do not grow beyond it if {@code maxLookback} is not set. The whole history is queried after it
+     */
+    private static final Duration MAX_PROBING_WINDOW = Duration.ofDays(30);
+
+    private final WindowQuery query;
+    private final Duration window;
+    @Nullable
+    private final Duration maxLookback;
+    private final Clock clock;
+
+    public ProbingLookup(WindowQuery query) {
+        this(query, DEFAULT_WINDOW, null, Clock.systemUTC());
+    }
+
+    /**
+     * @param window the first probing window
+     * @param maxLookback how far back the message is looked for. If it is {@code null} the whole history is checked
+     */
+    public ProbingLookup(WindowQuery query, Duration window, @Nullable Duration maxLookback, Clock clock) {
+        this.query = Objects.requireNonNull(query, "'Query' parameter");
+        this.window = Objects.requireNonNull(window, "'Window' parameter");
+        this.maxLookback = maxLookback;
+        this.clock = Objects.requireNonNull(clock, "'Clock' parameter");
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("window " + window + " must be positive");
+        }
+        if (maxLookback != null && maxLookback.compareTo(window) < 0) {
+            throw new IllegalArgumentException("max lookback " + maxLookback + " must not be less than window " + window);
+        }
+    }
+
+    @Nullable
+    @Override
+    public StreamData find(StreamId streamId) {
+        Instant now = clock.instant();
+        Duration limit = maxLookback == null ? MAX_PROBING_WINDOW : maxLookback;
+        for (Duration current = window; current.compareTo(limit) < 0; current = current.multipliedBy(GROWTH)) {
+            StreamData data = query.findLast(streamId, now.minus(current), now);
+            if (data != null) {
+                return data;
+            }
+        }
+        return query.findLast(streamId, maxLookback == null ? null : now.minus(maxLookback), now);
+    }
+
+    public interface WindowQuery {
+        /**
+         * @param from the start of the window (inclusive) or {@code null} if the window is not limited
+         * @param to the end of the window (inclusive)
+         * @return the data of the last message stored in the window or {@code null} if there is no message there
+         */
+        @Nullable
+        StreamData findLast(StreamId streamId, @Nullable Instant from, Instant to);
+    }
+}
@@ -20,13 +20,20 @@ import com.exactpro.th2.common.grpc.RawMessageMetadata;
 import com.exactpro.th2.common.schema.message.impl.rabbitmq.transport.TransportUtilsKt;
 import com.exactpro.th2.common.message.MessageUtils;
 import com.exactpro.th2.read.file.common.impl.LineParser;
-import com.exactpro.th2.readlog.LogData;
-import com.google.protobuf.ByteString;
-import java.nio.charset.StandardCharsets;
+import com.exactpro.th2.readlog.ParseResult;
+import com.google.protobuf.Timestamp;
+import com.google.protobuf.UnsafeByteOperations;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
+import com.exactpro.th2.common.grpc.Direction;
 import com.exactpro.th2.common.grpc.RawMessage;
 import com.exactpro.th2.read.file.common.StreamId;
 import com.exactpro.th2.readlog.RegexLogParser;
@@ -39,33 +46,89 @@ import static java.util.Objects.requireNonNull;
 public class ProtoRegexpContentParser extends LineParser<RawMessage.Builder> {
     private static final Logger LOGGER = LoggerFactory.getLogger(ProtoRegexpContentParser.class);
     private final RegexLogParser parser;
+    @Nullable
+    private final ParsingPipeline pipeline;
+    /**
+     * The parser is used by the reader's thread only, so the result is reused for all lines
+     */
+    private final ParseResult result = new ParseResult();
 
     public ProtoRegexpContentParser(RegexLogParser parser) {
+        this(parser, null);
+    }
+
+    /**
+     * @param pipeline parses the lines of its aliases ahead of the reading
+     */
+    ProtoRegexpContentParser(RegexLogParser parser, @Nullable ParsingPipeline pipeline) {
         super(LineParser.PROTO);
         this.parser = requireNonNull(parser, "'Parser' parameter");
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Parses the line without decoding it to {@link String} if the source is {@link ByteLineReader}
+     */
+    @Nonnull
+    @Override
+    public Collection<RawMessage.Builder> parse(@Nonnull StreamId streamId, @Nonnull BufferedReader source) {
+        if (source instanceof ByteLineReader) {
+            ByteLineReader reader = (ByteLineReader) source;
+            try {
+                long key = reader.streamPosition();
+                CharSequence readLine = reader.readLineSequence();
+                if (readLine != null) {
+                    return pipeline != null && pipeline.accepts(streamId)
+                            ? toMessages(pipeline.parse(streamId, reader, key, readLine, result))
+                            : toMessages(streamId, readLine);
+                }
+            } catch (IOException e) {
+                return ExceptionUtils.rethrow(e);
+            }
+        }
+        return super.parse(streamId, source);
     }
 
     @Nonnull
     @Override
     protected List<RawMessage.Builder> lineToMessages(@Nonnull StreamId streamId, @Nonnull String readLine) {
-        LogData logData = parser.parse(streamId, readLine);
-        LOGGER.trace("{} line(s) extracted from {}: {}", logData.getBody().size(), readLine, logData.getBody());
-        return logData.getBody().stream().map(it -> {
+        return toMessages(streamId, readLine);
+    }
+
+    private List<RawMessage.Builder> toMessages(StreamId streamId, CharSequence readLine) {
+        parser.parse(streamId, readLine, result);
+        return toMessages(result);
+    }
+
+    private static List<RawMessage.Builder> toMessages(ParseResult result) {
+        int count = result.getBodyCount();
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace("{} line(s) extracted from {}: {}", count, result.getLine(), result.toLogData().getBodySequences());
+        }
+        Direction direction = TransportUtilsKt.getProto(requireNonNull(result.getDirection(), "direction is not set"));
+        Timestamp timestamp = result.getParsedTimestamp() == null ? null : MessageUtils.toTimestamp(result.getParsedTimestamp());
+        String rawTimestamp = result.getRawTimestamp();
+        List<RawMessage.Builder> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
             RawMessage.Builder builder = RawMessage.newBuilder();
-            setupMetadata(builder.getMetadataBuilder(), logData);
-            builder.setBody(ByteString.copyFrom(it.getBytes(StandardCharsets.UTF_8)));
-            return builder;
-        }).collect(Collectors.toList());
+            setupMetadata(builder.getMetadataBuilder(), direction, timestamp, rawTimestamp);
+            // the array is created for this body only, so it is wrapped without copying
+            builder.setBody(UnsafeByteOperations.unsafeWrap(result.getBodyUtf8(i)));
+            messages.add(builder);
+        }
+        return messages;
     }
 
-    private void setupMetadata(RawMessageMetadata.Builder builder, LogData logData) {
-        builder.getIdBuilder().setDirection(TransportUtilsKt.getProto(requireNonNull(logData.getDirection(),
-                "direction is not set")));
-        if (logData.getParsedTimestamp() != null) {
-            builder.getIdBuilder().setTimestamp(MessageUtils.toTimestamp(logData.getParsedTimestamp()));
+    private static void setupMetadata(RawMessageMetadata.Builder builder, Direction direction, @Nullable Timestamp timestamp, @Nullable String rawTimestamp) {
+        builder.getIdBuilder().setDirection(direction);
+        if (timestamp != null) {
+            builder.getIdBuilder().setTimestamp(timestamp);
         }
-        if (logData.getRawTimestamp() != null) {
-            builder.putProperties("logTimestamp", logData.getRawTimestamp());
+        if (rawTimestamp != null) {
+            builder.putProperties("logTimestamp", rawTimestamp);
         }
     }
-}
\ No newline at end of file
+}
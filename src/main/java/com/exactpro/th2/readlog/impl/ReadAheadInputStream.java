@@ -0,0 +1,223 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reads the source ahead of the consumer on the {@link Executor}, so the decompression of a file runs
+ * on another core in parallel with the parsing of its lines.
+ * <p>
+ * The source is read in blocks. At most {@code blocks} of them wait for the consumer.
+ * The filling task does not wait for free space: it stops when all blocks are filled and is scheduled again by the consumer.
+ * So a stream that is not read does not hold an executor's thread and the streams can share a small executor.
+ */
+final class ReadAheadInputStream extends InputStream {
+    private static final Block END = new Block(new byte[0], -1, null);
+
+    private final InputStream source;
+    private final Executor executor;
+    private final int blockSize;
+    /**
+     * Has one more slot than the number of blocks for {@link #END} or the failure
+     */
+    private final BlockingQueue<Block> filled;
+    private final BlockingQueue<byte[]> free;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    /**
+     * Guards the source, so it is not closed while the filling task reads it
+     */
+    private final Object sourceLock = new Object();
+    private volatile boolean sourceFinished;
+    private volatile boolean closed;
+
+    private Block current;
+    private int position;
+
+    ReadAheadInputStream(InputStream source, Executor executor, int blockSize, int blocks) {
+        this.source = Objects.requireNonNull(source, "'Source' parameter");
+        this.executor = Objects.requireNonNull(executor, "'Executor' parameter");
+        if (blockSize <= 0 || blocks <= 0) {
+            throw new IllegalArgumentException("block size " + blockSize + " and blocks " + blocks + " must be positive");
+        }
+        this.blockSize = blockSize;
+        filled = new ArrayBlockingQueue<>(blocks + 1);
+        free = new ArrayBlockingQueue<>(blocks + 1);
+        schedule();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureBlock()) {
+            return -1;
+        }
+        return current.data[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] target, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, target.length);
+        if (length == 0) {
+            return 0;
+        }
+        if (!ensureBlock()) {
+            return -1;
+        }
+        int count = Math.min(length, current.length - position);
+        System.arraycopy(current.data, position, target, offset, count);
+        position += count;
+        return count;
+    }
+
+    /**
+     * @return the number of bytes in the current block or {@code 1} if the next block is being read.
+     * {@code 0} is returned only at the end of the source
+     */
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        if (current != null && position < current.length) {
+            return current.length - position;
+        }
+        Block next = filled.peek();
+        if (next != null) {
+            return Math.max(next.length, 0);
+        }
+        return sourceFinished || current == END ? 0 : 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        synchronized (sourceLock) {
+            source.close();
+        }
+        filled.clear();
+        free.clear();
+    }
+
+    private boolean ensureBlock() throws IOException {
+        ensureOpen();
+        if (current == END) {
+            return false;
+        }
+        if (current != null && position < current.length) {
+            return true;
+        }
+        if (current != null) {
+            free.offer(current.data);
+        }
+        schedule();
+        Block next;
+        try {
+            next = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for the data");
+        }
+        // the taken block frees the space for the next one
+        schedule();
+        if (next.failure != null) {
+            current = END;
+            throw new IOException("cannot read the source", next.failure);
+        }
+        current = next;
+        position = 0;
+        return current != END;
+    }
+
+    private void schedule() {
+        if (closed || sourceFinished || !scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(this::fill);
+        } catch (RejectedExecutionException e) {
+            // the executor is shut down, the blocks are read by the consumer
+            fill();
+        }
+    }
+
+    private void fill() {
+        try {
+            // one slot is always left for END or the failure
+            while (!closed && !sourceFinished && filled.remainingCapacity() > 1) {
+                byte[] data = free.poll();
+                Block block = readBlock(data == null ? new byte[blockSize] : data);
+                if (block == END) {
+                    sourceFinished = true;
+                }
+                filled.offer(block);
+            }
+        } catch (IOException | RuntimeException e) {
+            sourceFinished = true;
+            filled.offer(new Block(null, -1, e));
+        } finally {
+            scheduled.set(false);
+        }
+        // the consumer could take a block after the check above but before the flag is reset
+        if (filled.remainingCapacity() > 1) {
+            schedule();
+        }
+    }
+
+    private Block readBlock(byte[] data) throws IOException {
+        int length = 0;
+        synchronized (sourceLock) {
+            if (closed) {
+                return END;
+            }
+            while (length < data.length) {
+                int read = source.read(data, length, data.length - length);
+                if (read < 0) {
+                    break;
+                }
+                length += read;
+            }
+        }
+        return length == 0 ? END : new Block(data, length, null);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("stream is closed");
+        }
+    }
+
+    private static final class Block {
+        private final byte[] data;
+        private final int length;
+        private final Exception failure;
+
+        private Block(byte[] data, int length, Exception failure) {
+            this.data = data;
+            this.length = length;
+            this.failure = failure;
+        }
+    }
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import javax.annotation.Nullable;
+
+import com.exactpro.th2.read.file.common.StreamId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the last checkpoint of each stream in an append-only file on the local disk.
+ * <p>
+ * The checkpoint is the file the stream is read from, the position of the line the reading must continue from,
+ * the last sequence and the last timestamp of the stream.
+ * Each record is written with its length and CRC32, so a record torn by a crash is detected and dropped on start-up
+ * together with everything after it.
+ * <p>
+ * The records are written to the OS without waiting for the disk. {@link #sync()} forces them to the disk,
+ * so the caller bounds the fsync cost and the checkpoints that can be lost by a power failure by the period of the sync.
+ * The file is compacted to one record per stream when it has many outdated records.
+ * <p>
+ * The checkpoint is saved only when the messages before it are sent. So the crash does not lose the lines of the batches
+ * that wait for sending, they are read again after the restart.
+ * <p>
+ * The journal can be shared by several readers.
+ */
+public final class StateJournal implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(StateJournal.class);
+    private static final int MAGIC = 0x524C_5331; // RLS1
+    private static final int HEADER_SIZE = Integer.BYTES;
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MAX_RECORD_SIZE = 64 * 1024;
+    /**
+     * The file is compacted when it has more than this number of records and they are {@link #COMPACTION_RATIO} times more than the streams
+     */
+    private static final int COMPACTION_MIN_RECORDS = 1024;
+    private static final int COMPACTION_RATIO = 4;
+    /**
+     * The maximum number of checkpoints of a stream that wait for sending their batches
+     */
+    private static final int MAX_PENDING = 1024;
+
+    private final Path file;
+    private final Map<String, Checkpoint> checkpoints = new HashMap<>();
+    private final Map<String, OpenedSource> sources = new ConcurrentHashMap<>();
+    private final Map<String, Deque<Checkpoint>> pending = new HashMap<>();
+    private final Map<String, Long> sentSequences = new HashMap<>();
+    private FileChannel channel;
+    private int records;
+    private boolean dirty;
+
+    private StateJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens the journal. The checkpoints are loaded from the {@code file} if it exists
+     */
+    public static StateJournal open(Path file) throws IOException {
+        Objects.requireNonNull(file, "'File' parameter");
+        StateJournal journal = new StateJournal(file);
+        journal.load();
+        return journal;
+    }
+
+    /**
+     * @return the last checkpoint of the stream or {@code null} if there is no checkpoint
+     */
+    @Nullable
+    public synchronized Checkpoint get(StreamId streamId) {
+        return checkpoints.get(streamId.getSessionAlias());
+    }
+
+    /**
+     * @return the position to start reading the {@code path} from for the stream.
+     * It is the checkpoint position if the {@code path} is the checkpoint file.
+     * For the compressed file it is the position in the decompressed content.
+     * It is {@code 0} if there is no checkpoint or the checkpoint is for another file
+     */
+    public long startOffset(StreamId streamId, Path path) throws IOException {
+        Checkpoint checkpoint = get(streamId);
+        if (checkpoint == null || !checkpoint.isFor(path, fileKey(path))) {
+            return 0;
+        }
+        // the position in the compressed file counts the decompressed bytes, so it cannot be checked without decompressing the file
+        if (Compression.detect(path) == Compression.NONE && checkpoint.offset > Files.size(path)) {
+            LOGGER.warn("The file {} is shorter than the checkpoint position {} for alias {}. It is read from the start",
+                    path, checkpoint.offset, streamId.getSessionAlias());
+            return 0;
+        }
+        LOGGER.info("Reading {} for alias {} from the checkpoint position {}", path, streamId.getSessionAlias(), checkpoint.offset);
+        return checkpoint.offset;
+    }
+
+    /**
+     * Remembers the reader of the stream. The checkpoint positions are taken from it
+     *
+     * @param offset the position in the {@code path} the reader starts from
+     */
+    public void sourceOpened(StreamId streamId, Path path, long offset, ByteLineReader reader) throws IOException {
+        sources.put(streamId.getSessionAlias(), new OpenedSource(path.toString(), fileKey(path), offset, reader));
+    }
+
+    /**
+     * Prepares the checkpoint for the stream when its messages are passed to the publication.
+     * The checkpoint is saved when the messages up to its {@code sequence} are sent (see {@link #sent(StreamId, long)}),
+     * so the lines of the batches that wait for sending are read again after the restart.
+     * <p>
+     * The reader can hold the messages of the lines read after the passed ones until the next publication.
+     * So the position is the start of the last line read at the previous publication: all lines before it are passed to the publication.
+     * The lines after it are read again after the restart (at-least-once).
+     * Must be called by the thread that reads the stream
+     */
+    public void record(StreamId streamId, Instant timestamp, long sequence) {
+        String alias = streamId.getSessionAlias();
+        OpenedSource source = sources.get(alias);
+        synchronized (this) {
+            Deque<Checkpoint> waiting = pending.computeIfAbsent(alias, it -> new ArrayDeque<>());
+            Checkpoint previous = waiting.isEmpty() ? checkpoints.get(alias) : waiting.peekLast();
+            Checkpoint checkpoint;
+            if (source != null) {
+                checkpoint = new Checkpoint(source.path, source.fileKey, source.passed, sequence, timestamp);
+                long lastLineStart = source.reader.lastLineStart();
+                source.passed = lastLineStart < 0 ? source.offset : source.offset + lastLineStart;
+            } else if (previous != null) {
+                checkpoint = new Checkpoint(previous.path, previous.fileKey, previous.offset, sequence, timestamp);
+            } else {
+                checkpoint = new Checkpoint("", "", 0, sequence, timestamp);
+            }
+            if (waiting.size() == MAX_PENDING) {
+                // the batches are not sent. The older checkpoints are dropped, so the saved checkpoint does not advance until the newer ones are sent
+                waiting.removeFirst();
+            }
+            waiting.addLast(checkpoint);
+            Long sent = sentSequences.get(alias);
+            if (sent != null) {
+                // the batch is sent by the reader's thread before the checkpoint is prepared
+                save(alias, sent);
+            }
+        }
+    }
+
+    /**
+     * Saves the last prepared checkpoint of the stream whose sequence does not exceed the {@code sequence}.
+     * Must be called when the messages of the stream up to the {@code sequence} are sent
+     */
+    public synchronized void sent(StreamId streamId, long sequence) {
+        String alias = streamId.getSessionAlias();
+        Long previous = sentSequences.get(alias);
+        if (previous == null || previous < sequence) {
+            sentSequences.put(alias, sequence);
+        }
+        save(alias, sentSequences.get(alias));
+    }
+
+    private void save(String alias, long sentSequence) {
+        Deque<Checkpoint> waiting = pending.get(alias);
+        Checkpoint checkpoint = null;
+        while (waiting != null && !waiting.isEmpty() && waiting.peekFirst().sequence <= sentSequence) {
+            checkpoint = waiting.removeFirst();
+        }
+        if (checkpoint == null) {
+            return;
+        }
+        checkpoints.put(alias, checkpoint);
+        try {
+            append(alias, checkpoint);
+            if (records > COMPACTION_MIN_RECORDS && records > checkpoints.size() * COMPACTION_RATIO) {
+                compact();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot write checkpoint for alias " + alias + " to " + file, e);
+        }
+    }
+
+    /**
+     * Forces the written records to the disk
+     */
+    public synchronized void sync() throws IOException {
+        if (dirty && channel.isOpen()) {
+            channel.force(false);
+            dirty = false;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * @return the number of records in the file
+     */
+    synchronized int records() {
+        return records;
+    }
+
+    private void load() throws IOException {
+        if (Files.exists(file)) {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long valid = read(ByteBuffer.wrap(Files.readAllBytes(file)));
+            if (valid < channel.size()) {
+                LOGGER.warn("The state file {} has a damaged tail after {} byte(s). It is dropped", file, valid);
+                channel.truncate(valid);
+                channel.force(false);
+            }
+            channel.position(valid);
+            if (valid == 0) {
+                writeHeader();
+            }
+            LOGGER.info("Loaded {} checkpoint(s) from {}", checkpoints.size(), file);
+        } else {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            writeHeader();
+        }
+    }
+
+    /**
+     * @return the size of the valid part of the file
+     */
+    private long read(ByteBuffer content) {
+        if (content.remaining() < HEADER_SIZE || content.getInt() != MAGIC) {
+            return 0;
+        }
+        CRC32 crc = new CRC32();
+        while (content.remaining() >= RECORD_HEADER_SIZE) {
+            int start = content.position();
+            int length = content.getInt();
+            int checksum = content.getInt();
+            if (length <= 0 || length > MAX_RECORD_SIZE || length > content.remaining()) {
+                return start;
+            }
+            crc.reset();
+            crc.update(content.array(), content.position(), length);
+            if ((int) crc.getValue() != checksum) {
+                return start;
+            }
+            ByteBuffer payload = content.slice();
+            payload.limit(length);
+            content.position(content.position() + length);
+            String alias = readString(payload);
+            checkpoints.put(alias, new Checkpoint(readString(payload), readString(payload), payload.getLong(), payload.getLong(),
+                    Instant.ofEpochSecond(payload.getLong(), payload.getInt())));
+            records++;
+        }
+        return content.position();
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).flip();
+        writeFully(channel, header);
+        dirty = true;
+    }
+
+    private void append(String alias, Checkpoint checkpoint) throws IOException {
+        writeFully(channel, encode(alias, checkpoint));
+        records++;
+        dirty = true;
+    }
+
+    /**
+     * Writes the checkpoints into a new file and replaces the journal with it
+     */
+    private void compact() throws IOException {
+        Path compacted = file.resolveSibling(file.getFileName() + ".compacting");
+        try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(target, ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).flip());
+            for (Map.Entry<String, Checkpoint> entry : checkpoints.entrySet()) {
+                writeFully(target, encode(entry.getKey(), entry.getValue()));
+            }
+            target.force(false);
+        }
+        channel.close();
+        Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        LOGGER.debug("State file {} is compacted from {} to {} record(s)", file, records, checkpoints.size());
+        records = checkpoints.size();
+        dirty = false;
+    }
+
+    private static ByteBuffer encode(String alias, Checkpoint checkpoint) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(0); // the place for the length and the checksum
+        writeString(out, alias);
+        writeString(out, checkpoint.path);
+        writeString(out, checkpoint.fileKey);
+        out.writeLong(checkpoint.offset);
+        out.writeLong(checkpoint.sequence);
+        out.writeLong(checkpoint.timestamp.getEpochSecond());
+        out.writeInt(checkpoint.timestamp.getNano());
+        ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+        int length = record.remaining() - RECORD_HEADER_SIZE;
+        if (length > MAX_RECORD_SIZE) {
+            throw new IOException("checkpoint for alias " + alias + " is too large: " + length + " bytes");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), RECORD_HEADER_SIZE, length);
+        record.putInt(0, length).putInt(Integer.BYTES, (int) crc.getValue());
+        return record;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * @return the identity of the file that does not change when it is renamed (e.g. the inode) or empty string if the file system does not provide it
+     */
+    static String fileKey(Path path) throws IOException {
+        Object key = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        return key == null ? "" : key.toString();
+    }
+
+    public static final class Checkpoint {
+        private final String path;
+        private final String fileKey;
+        private final long offset;
+        private final long sequence;
+        private final Instant timestamp;
+
+        private Checkpoint(String path, String fileKey, long offset, long sequence, Instant timestamp) {
+            this.path = path;
+            this.fileKey = fileKey;
+            this.offset = offset;
+            this.sequence = sequence;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * The renamed file (e.g. on rotation) is recognized by its key
+         */
+        private boolean isFor(Path path, String fileKey) {
+            return this.fileKey.isEmpty() ? this.path.equals(path.toString()) : this.fileKey.equals(fileKey);
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public Instant getTimestamp() {
+            return timestamp;
+        }
+    }
+
+    private static final class OpenedSource {
+        private final String path;
+        private final String fileKey;
+        private final long offset;
+        private final ByteLineReader reader;
+        /**
+         * The position in the file before which all lines are passed to the publication
+         */
+        private long passed;
+
+        private OpenedSource(String path, String fileKey, long offset, ByteLineReader reader) {
+            this.path = path;
+            this.fileKey = fileKey;
+            this.offset = offset;
+            this.reader = reader;
+            this.passed = offset;
+        }
+    }
+}
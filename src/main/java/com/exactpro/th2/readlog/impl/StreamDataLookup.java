@@ -1,5 +1,5 @@
 /*
- * Copyright 2020-2021 Exactpro (Exactpro Systems Limited)
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -13,20 +13,22 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-package com.exactpro.th2.readlog.impl;
 
-import java.nio.file.Path;
-import java.util.Comparator;
+package com.exactpro.th2.readlog.impl;
 
-import com.exactpro.th2.readlog.cfg.SortingConfiguration;
+import javax.annotation.Nullable;
 
-public interface ComparatorFactory<T extends SortingConfiguration> {
-    Comparator<Path> create(T configuration);
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.read.file.common.state.StreamData;
 
-    class StringComparator implements ComparatorFactory<SortingConfiguration.StringSortingConfiguration> {
-        @Override
-        public Comparator<Path> create(SortingConfiguration.StringSortingConfiguration configuration) {
-            return null;
-        }
-    }
+/**
+ * Finds the last message stored for the stream, so the reader continues the sequence and the timestamps of the stream
+ */
+@FunctionalInterface
+public interface StreamDataLookup {
+    /**
+     * @return the data of the last stored message or {@code null} if nothing is stored for the stream
+     */
+    @Nullable
+    StreamData find(StreamId streamId);
 }
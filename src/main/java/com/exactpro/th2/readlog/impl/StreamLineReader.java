@@ -0,0 +1,120 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+import javax.annotation.Nullable;
+
+/**
+ * Reads the lines from the {@link InputStream}. It is used for the compressed files: the stream decompresses the file.
+ * <p>
+ * The compressed file is expected to be complete (e.g. compressed on rotation),
+ * so the reading can wait only while the data is decompressed.
+ */
+public final class StreamLineReader extends ByteLineReader {
+    /**
+     * The number of decompressed blocks that can wait for the reader
+     */
+    private static final int READ_AHEAD_BLOCKS = 4;
+
+    private final InputStream source;
+    private boolean endOfStream;
+
+    StreamLineReader(InputStream source) {
+        this.source = Objects.requireNonNull(source, "'Source' parameter");
+    }
+
+    /**
+     * Opens the file compressed with the {@code compression}
+     *
+     * @param decompressionExecutor decompresses the file ahead of the reading.
+     *                              If it is {@code null} the file is decompressed by the reading thread
+     */
+    public static StreamLineReader open(Path path, Compression compression, @Nullable Executor decompressionExecutor) throws IOException {
+        return open(path, compression, decompressionExecutor, 0);
+    }
+
+    /**
+     * Opens the file compressed with the {@code compression} and skips {@code offset} decompressed bytes.
+     * The compressed file cannot be sought, so the skipped bytes are decompressed too
+     *
+     * @param decompressionExecutor decompresses the file ahead of the reading.
+     *                              If it is {@code null} the file is decompressed by the reading thread
+     */
+    public static StreamLineReader open(Path path, Compression compression, @Nullable Executor decompressionExecutor, long offset) throws IOException {
+        if (offset < 0) {
+            throw new IllegalArgumentException("offset must not be negative but was " + offset);
+        }
+        InputStream file = Files.newInputStream(path);
+        try {
+            InputStream decompressed = compression.decompress(file);
+            skip(decompressed, offset);
+            return new StreamLineReader(decompressionExecutor == null
+                    ? decompressed
+                    : new ReadAheadInputStream(decompressed, decompressionExecutor, Compression.BUFFER_SIZE, READ_AHEAD_BLOCKS));
+        } catch (IOException | RuntimeException e) {
+            file.close();
+            throw e;
+        }
+    }
+
+    private static void skip(InputStream source, long bytes) throws IOException {
+        byte[] scratch = null;
+        long remaining = bytes;
+        while (remaining > 0) {
+            long skipped = source.skip(remaining);
+            if (skipped <= 0) {
+                if (scratch == null) {
+                    scratch = new byte[(int) Math.min(Compression.BUFFER_SIZE, remaining)];
+                }
+                skipped = source.read(scratch, 0, (int) Math.min(scratch.length, remaining));
+                if (skipped < 0) {
+                    return;
+                }
+            }
+            remaining -= skipped;
+        }
+    }
+
+    @Override
+    protected int readBytes(byte[] target, int offset, int length) throws IOException {
+        int read = source.read(target, offset, length);
+        if (read < 0) {
+            endOfStream = true;
+        }
+        return read;
+    }
+
+    /**
+     * The decompressing streams report the available bytes differently, but any of them can be read without waiting for new data
+     */
+    @Override
+    protected boolean hasAvailableBytes() {
+        return !endOfStream;
+    }
+
+    @Override
+    protected void closeSource() throws IOException {
+        source.close();
+    }
+}
@@ -16,52 +16,115 @@
 
 package com.exactpro.th2.readlog.impl;
 
+import com.exactpro.th2.common.schema.message.impl.rabbitmq.transport.Direction;
 import com.exactpro.th2.common.schema.message.impl.rabbitmq.transport.RawMessage;
 import com.exactpro.th2.read.file.common.StreamId;
 import com.exactpro.th2.read.file.common.impl.LineParser;
-import com.exactpro.th2.readlog.LogData;
+import com.exactpro.th2.readlog.ParseResult;
 import com.exactpro.th2.readlog.RegexLogParser;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
-import java.nio.charset.StandardCharsets;
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
 
 public class TransportRegexpContentParser extends LineParser<RawMessage.Builder> {
     private static final Logger LOGGER = LoggerFactory.getLogger(TransportRegexpContentParser.class);
     private final RegexLogParser parser;
+    @Nullable
+    private final ParsingPipeline pipeline;
+    /**
+     * The parser is used by the reader's thread only, so the result is reused for all lines
+     */
+    private final ParseResult result = new ParseResult();
 
     public TransportRegexpContentParser(RegexLogParser parser) {
+        this(parser, null);
+    }
+
+    /**
+     * @param pipeline parses the lines of its aliases ahead of the reading
+     */
+    TransportRegexpContentParser(RegexLogParser parser, @Nullable ParsingPipeline pipeline) {
         super(LineParser.TRANSPORT);
         this.parser = requireNonNull(parser, "'Parser' parameter");
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Parses the line without decoding it to {@link String} if the source is {@link ByteLineReader}
+     */
+    @Nonnull
+    @Override
+    public Collection<RawMessage.Builder> parse(@Nonnull StreamId streamId, @Nonnull BufferedReader source) {
+        if (source instanceof ByteLineReader) {
+            ByteLineReader reader = (ByteLineReader) source;
+            try {
+                long key = reader.streamPosition();
+                CharSequence readLine = reader.readLineSequence();
+                if (readLine != null) {
+                    return pipeline != null && pipeline.accepts(streamId)
+                            ? toMessages(pipeline.parse(streamId, reader, key, readLine, result))
+                            : toMessages(streamId, readLine);
+                }
+            } catch (IOException e) {
+                return ExceptionUtils.rethrow(e);
+            }
+        }
+        return super.parse(streamId, source);
     }
 
     @Nonnull
     @Override
     protected List<RawMessage.Builder> lineToMessages(@Nonnull StreamId streamId, @Nonnull String readLine) {
-        LogData logData = parser.parse(streamId, readLine);
-        LOGGER.trace("{} line(s) extracted from {}: {}", logData.getBody().size(), readLine, logData.getBody());
-        return logData.getBody().stream().map(it -> {
+        return toMessages(streamId, readLine);
+    }
+
+    private List<RawMessage.Builder> toMessages(StreamId streamId, CharSequence readLine) {
+        parser.parse(streamId, readLine, result);
+        return toMessages(result);
+    }
+
+    private static List<RawMessage.Builder> toMessages(ParseResult result) {
+        int count = result.getBodyCount();
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace("{} line(s) extracted from {}: {}", count, result.getLine(), result.toLogData().getBodySequences());
+        }
+        Direction direction = requireNonNull(result.getDirection(), "direction is not set");
+        Instant timestamp = result.getParsedTimestamp();
+        String rawTimestamp = result.getRawTimestamp();
+        List<RawMessage.Builder> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
             RawMessage.Builder builder = RawMessage.builder();
-            setupMetadata(builder, logData);
-            builder.setBody(it.getBytes(StandardCharsets.UTF_8));
-            return builder;
-        }).collect(Collectors.toList());
+            setupMetadata(builder, direction, timestamp, rawTimestamp);
+            builder.setBody(result.getBodyUtf8(i));
+            messages.add(builder);
+        }
+        return messages;
     }
 
-    private void setupMetadata(RawMessage.Builder builder, LogData logData) {
-        builder.idBuilder().setDirection(requireNonNull(logData.getDirection(), "direction is not set"));
+    private static void setupMetadata(RawMessage.Builder builder, Direction direction, @Nullable Instant timestamp, @Nullable String rawTimestamp) {
+        builder.idBuilder().setDirection(direction);
 
-        if (logData.getParsedTimestamp() != null) {
-            builder.idBuilder().setTimestamp(logData.getParsedTimestamp());
+        if (timestamp != null) {
+            builder.idBuilder().setTimestamp(timestamp);
         }
 
-        if (logData.getRawTimestamp() != null) {
-            builder.addMetadataProperty("logTimestamp", logData.getRawTimestamp());
+        if (rawTimestamp != null) {
+            builder.addMetadataProperty("logTimestamp", rawTimestamp);
         }
     }
-}
\ No newline at end of file
+}
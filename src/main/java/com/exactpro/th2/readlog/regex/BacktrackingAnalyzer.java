@@ -0,0 +1,380 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.regex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the shapes of a regexp that make a backtracking engine take super-linear time on the lines it does not match:
+ * <ul>
+ *     <li>a quantified group that contains a quantifier itself, e.g. {@code (\w+\s?)+} (exponential time)</li>
+ *     <li>a quantified alternation with the branches that can match the same text, e.g. {@code (a|ab)*} (exponential time)</li>
+ *     <li>adjacent quantifiers that can match the same text, e.g. {@code .*\S*} (polynomial time)</li>
+ * </ul>
+ * Possessive quantifiers and atomic groups do not backtrack, so they are not reported.
+ * The analysis is a heuristic: it does not prove that the regexp is safe.
+ */
+public final class BacktrackingAnalyzer {
+    private final String regexp;
+    private final List<String> risks = new ArrayList<>();
+    private int position;
+
+    private BacktrackingAnalyzer(String regexp) {
+        this.regexp = regexp;
+    }
+
+    /**
+     * @return the descriptions of the risky shapes found in the {@code pattern}
+     */
+    public static List<String> analyze(Pattern pattern) {
+        if ((pattern.flags() & Pattern.LITERAL) != 0) {
+            return Collections.emptyList();
+        }
+        BacktrackingAnalyzer analyzer = new BacktrackingAnalyzer(pattern.pattern());
+        // the pattern is already compiled, so the unmatched ')' can only be at the top level
+        while (analyzer.position < analyzer.regexp.length()) {
+            analyzer.sequence();
+            analyzer.position++;
+        }
+        return analyzer.risks;
+    }
+
+    /**
+     * Parses the sequence until the end of the regexp or the end of the current group
+     */
+    private Group sequence() {
+        Group group = new Group();
+        int branchStart = position;
+        // the previous atom with an unbounded quantifier if there is no required atom after it
+        Quantified previousUnbounded = null;
+        boolean required = false;
+        while (position < regexp.length()) {
+            char current = regexp.charAt(position);
+            if (current == ')') {
+                break;
+            }
+            if (current == '|') {
+                group.branches.add(regexp.substring(branchStart, position));
+                position++;
+                branchStart = position;
+                previousUnbounded = null;
+                required = false;
+                continue;
+            }
+            int atomStart = position;
+            Group inner = null;
+            switch (current) {
+                case '(':
+                    inner = group();
+                    if (inner == null) {
+                        // inline flags
+                        continue;
+                    }
+                    break;
+                case '[':
+                    skipCharacterClass();
+                    break;
+                case '\\':
+                    skipEscape();
+                    break;
+                default:
+                    position++;
+            }
+            String atom = regexp.substring(atomStart, position);
+            int quantifierStart = position;
+            Quantifier quantifier = quantifier();
+            Quantified quantified = new Quantified(atom, atom + regexp.substring(quantifierStart, position));
+            if (inner != null && inner.unbounded) {
+                group.unbounded = true;
+            }
+            if (quantifier.unbounded && !quantifier.possessive && (inner == null || !inner.atomic)) {
+                if (inner != null && inner.unbounded) {
+                    risks.add("nested quantifier " + quantified.text + " can take exponential time");
+                } else if (inner != null && inner.hasOverlappingBranches()) {
+                    risks.add("alternation " + quantified.text + " has branches that can match the same text and can take exponential time");
+                }
+                checkAdjacent(previousUnbounded, quantified);
+                if (!required && group.leading == null) {
+                    group.leading = quantified;
+                }
+                previousUnbounded = quantified;
+                group.unbounded = true;
+            } else if (inner != null && quantifier.min > 0 && !inner.lookaround && !inner.atomic && inner.branches.size() == 1) {
+                // the atoms of the group are the part of the sequence
+                if (inner.leading != null) {
+                    checkAdjacent(previousUnbounded, inner.leading);
+                    if (!required && group.leading == null) {
+                        group.leading = inner.leading;
+                    }
+                }
+                if (inner.trailing != null) {
+                    previousUnbounded = inner.trailing;
+                } else if (inner.required) {
+                    previousUnbounded = null;
+                }
+                required |= inner.required;
+            } else if (quantifier.min > 0 && !(inner != null ? inner.lookaround : isAnchor(atom))) {
+                previousUnbounded = null;
+                required = true;
+            }
+        }
+        group.branches.add(regexp.substring(branchStart, position));
+        if (group.branches.size() == 1) {
+            group.required = required;
+            group.trailing = previousUnbounded;
+        } else {
+            group.leading = null;
+        }
+        return group;
+    }
+
+    private void checkAdjacent(Quantified previous, Quantified next) {
+        if (previous != null && overlap(previous.atom, next.atom)) {
+            risks.add("adjacent quantifiers " + previous.text + " and " + next.text + " can match the same text and can take polynomial time");
+        }
+    }
+
+    /**
+     * @return the parsed group or {@code null} if it only sets inline flags
+     */
+    private Group group() {
+        position++; // (
+        boolean atomic = false;
+        boolean lookaround = false;
+        if (regexp.startsWith("?", position)) {
+            if (regexp.startsWith("?:", position)) {
+                position += 2;
+            } else if (regexp.startsWith("?>", position)) {
+                position += 2;
+                atomic = true;
+            } else if (regexp.startsWith("?=", position) || regexp.startsWith("?!", position)) {
+                position += 2;
+                lookaround = true;
+            } else if (regexp.startsWith("?<=", position) || regexp.startsWith("?<!", position)) {
+                position += 3;
+                lookaround = true;
+            } else if (regexp.startsWith("?<", position)) {
+                position = regexp.indexOf('>', position) + 1;
+            } else {
+                // inline flags: (?flags) or (?flags:X)
+                while (position < regexp.length() && regexp.charAt(position) != ')' && regexp.charAt(position) != ':') {
+                    position++;
+                }
+                if (position >= regexp.length() || regexp.charAt(position) == ')') {
+                    position++;
+                    return null;
+                }
+                position++; // :
+            }
+        }
+        Group inner = sequence();
+        position++; // )
+        inner.atomic = atomic;
+        inner.lookaround = lookaround;
+        return inner;
+    }
+
+    private Quantifier quantifier() {
+        Quantifier quantifier = new Quantifier();
+        if (position >= regexp.length()) {
+            return quantifier;
+        }
+        switch (regexp.charAt(position)) {
+            case '*':
+                quantifier.min = 0;
+                quantifier.unbounded = true;
+                position++;
+                break;
+            case '+':
+                quantifier.unbounded = true;
+                position++;
+                break;
+            case '?':
+                quantifier.min = 0;
+                position++;
+                break;
+            case '{':
+                int end = regexp.indexOf('}', position);
+                if (end < 0) {
+                    return quantifier;
+                }
+                String bounds = regexp.substring(position + 1, end);
+                int comma = bounds.indexOf(',');
+                quantifier.min = Integer.parseInt((comma < 0 ? bounds : bounds.substring(0, comma)).trim());
+                quantifier.unbounded = comma >= 0 && bounds.substring(comma + 1).trim().isEmpty();
+                position = end + 1;
+                break;
+            default:
+                return quantifier;
+        }
+        if (position < regexp.length()) {
+            char mode = regexp.charAt(position);
+            if (mode == '?') {
+                position++;
+            } else if (mode == '+') {
+                quantifier.possessive = true;
+                position++;
+            }
+        }
+        return quantifier;
+    }
+
+    private void skipCharacterClass() {
+        position++; // [
+        if (regexp.startsWith("^", position)) {
+            position++;
+        }
+        if (regexp.startsWith("]", position)) {
+            // ']' is a literal at the start of the class
+            position++;
+        }
+        int depth = 1;
+        while (position < regexp.length() && depth > 0) {
+            char current = regexp.charAt(position);
+            if (current == '\\') {
+                skipEscape();
+                continue;
+            }
+            if (current == '[') {
+                depth++;
+            } else if (current == ']') {
+                depth--;
+            }
+            position++;
+        }
+    }
+
+    private void skipEscape() {
+        position++; // \
+        if (position >= regexp.length()) {
+            return;
+        }
+        char next = regexp.charAt(position++);
+        switch (next) {
+            case 'Q':
+                int end = regexp.indexOf("\\E", position);
+                position = end < 0 ? regexp.length() : end + 2;
+                break;
+            case 'p':
+            case 'P':
+            case 'x':
+            case 'N':
+            case 'k':
+                if (regexp.startsWith("{", position) || regexp.startsWith("<", position)) {
+                    // \p{Name}, \x{h...h}, \N{name}, \k<name>
+                    position = regexp.indexOf(regexp.charAt(position) == '{' ? '}' : '>', position) + 1;
+                } else if (next == 'x') {
+                    position += 2;
+                } else {
+                    position++;
+                }
+                break;
+            case 'u':
+                position += 4;
+                break;
+            case 'c':
+                position++;
+                break;
+            default:
+                if (Character.isDigit(next)) {
+                    // octal escape or back reference
+                    while (position < regexp.length() && Character.isDigit(regexp.charAt(position))) {
+                        position++;
+                    }
+                }
+        }
+        position = Math.min(position, regexp.length());
+    }
+
+    private static boolean isAnchor(String atom) {
+        return "^".equals(atom) || "$".equals(atom) || "\\b".equals(atom) || "\\B".equals(atom)
+                || "\\A".equals(atom) || "\\z".equals(atom) || "\\Z".equals(atom) || "\\G".equals(atom);
+    }
+
+    /**
+     * @return {@code true} if the atoms can obviously match the same character
+     */
+    private static boolean overlap(String previous, String next) {
+        return previous.equals(next) || isBroad(next) || isBroad(previous);
+    }
+
+    private static boolean isBroad(String atom) {
+        return atom.startsWith(".") || atom.startsWith("\\S") || atom.startsWith("[^");
+    }
+
+    private static final class Group {
+        private final List<String> branches = new ArrayList<>();
+        /**
+         * The group contains an atom with an unbounded quantifier
+         */
+        private boolean unbounded;
+        /**
+         * The group always consumes a character
+         */
+        private boolean required;
+        /**
+         * The first quantified atom if the group can start with it. Only for the groups without alternation
+         */
+        private Quantified leading;
+        /**
+         * The last quantified atom if the group can end with it. Only for the groups without alternation
+         */
+        private Quantified trailing;
+        private boolean atomic;
+        private boolean lookaround;
+
+        private boolean hasOverlappingBranches() {
+            if (branches.size() < 2) {
+                return false;
+            }
+            for (int i = 0; i < branches.size(); i++) {
+                String branch = branches.get(i);
+                if (isBroad(branch)) {
+                    return true;
+                }
+                for (int j = 0; j < branches.size(); j++) {
+                    if (i != j && !branch.isEmpty() && branches.get(j).startsWith(branch)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Quantified {
+        private final String atom;
+        /**
+         * The atom with its quantifier
+         */
+        private final String text;
+
+        private Quantified(String atom, String text) {
+            this.atom = atom;
+            this.text = text;
+        }
+    }
+
+    private static final class Quantifier {
+        private int min = 1;
+        private boolean unbounded;
+        private boolean possessive;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.th2.readlog.regex;
+
+/**
+ * The subset of {@link java.util.regex.Matcher} operations supported by all {@link RegexEngine engines}
+ */
+public interface LineMatcher {
+    boolean find();
+
+    /**
+     * @return the start index of the group or {@code -1} if the group did not participate in the match
+     */
+    int start(int group);
+
+    int end(int group);
+
+    /**
+     * @return the start index of the named group or {@code -1} if the group did not participate in the match
+     */
+    int start(String group);
+
+    int end(String group);
+
+    String group(int group);
+}
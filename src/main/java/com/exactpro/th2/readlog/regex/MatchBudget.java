@@ -0,0 +1,130 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.regex;
+
+import java.time.Duration;
+
+import javax.annotation.Nullable;
+
+/**
+ * Limits the work the regex engines can do for a single line.
+ * <p>
+ * The line is wrapped into a {@link CharSequence} that counts the characters the engines read.
+ * When the count exceeds the step limit or the deadline has passed the wrapper throws {@link MatchBudgetExceededException},
+ * so even a catastrophically backtracking regexp is aborted.
+ * The budget is shared by all regexps executed for the line.
+ */
+public final class MatchBudget {
+    public static final MatchBudget UNLIMITED = new MatchBudget(0, null);
+
+    /**
+     * The deadline is checked once per this number of steps, so the clock is not read for every character
+     */
+    private static final int CLOCK_CHECK_MASK = 0x3FF;
+
+    private final long stepLimit;
+    private final long timeoutNanos;
+
+    private MatchBudget(long stepLimit, @Nullable Duration timeout) {
+        this.stepLimit = stepLimit;
+        this.timeoutNanos = timeout == null ? 0 : timeout.toNanos();
+    }
+
+    /**
+     * @param stepLimit the maximum number of characters the engines can read for a line. {@code 0} means there is no limit
+     * @param timeout the maximum time of matching a line. {@code null} means there is no limit
+     */
+    public static MatchBudget create(long stepLimit, @Nullable Duration timeout) {
+        if (stepLimit < 0) {
+            throw new IllegalArgumentException("step limit " + stepLimit + " must not be negative");
+        }
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("timeout " + timeout + " must be positive");
+        }
+        return stepLimit == 0 && timeout == null ? UNLIMITED : new MatchBudget(stepLimit, timeout);
+    }
+
+    public boolean isUnlimited() {
+        return this == UNLIMITED;
+    }
+
+    /**
+     * Starts the budget for the {@code line}. The deadline is counted from this call.
+     *
+     * @return the sequence the regexps must be executed on. It is the {@code line} itself if the budget is unlimited
+     */
+    public CharSequence start(CharSequence line) {
+        if (isUnlimited()) {
+            return line;
+        }
+        return new BudgetedSequence(line, timeoutNanos == 0 ? 0 : System.nanoTime() + timeoutNanos);
+    }
+
+    @Override
+    public String toString() {
+        if (isUnlimited()) {
+            return "unlimited";
+        }
+        return (stepLimit == 0 ? "" : stepLimit + " steps")
+                + (stepLimit != 0 && timeoutNanos != 0 ? ", " : "")
+                + (timeoutNanos == 0 ? "" : Duration.ofNanos(timeoutNanos).toString());
+    }
+
+    /**
+     * Is used by a single thread. The sub-sequences are not budgeted: the engines create them only for the found groups
+     */
+    private final class BudgetedSequence implements CharSequence {
+        private final CharSequence line;
+        /**
+         * {@link System#nanoTime()} to abort the matching at or {@code 0} if there is no deadline
+         */
+        private final long deadline;
+        private long steps;
+
+        private BudgetedSequence(CharSequence line, long deadline) {
+            this.line = line;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int length() {
+            return line.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            long current = ++steps;
+            if (stepLimit != 0 && current > stepLimit) {
+                throw new MatchBudgetExceededException("the matching takes more than " + stepLimit + " steps");
+            }
+            if (deadline != 0 && (current & CLOCK_CHECK_MASK) == 0 && System.nanoTime() - deadline > 0) {
+                throw new MatchBudgetExceededException("the matching takes longer than " + Duration.ofNanos(timeoutNanos));
+            }
+            return line.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return line.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return line.toString();
+        }
+    }
+}
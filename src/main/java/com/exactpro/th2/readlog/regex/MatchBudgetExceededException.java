@@ -0,0 +1,29 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.regex;
+
+/**
+ * Aborts the matching of a line that exceeded its {@link MatchBudget}.
+ * The stack trace is not filled: the exception is expected and is thrown from deep inside the regex engine
+ */
+public final class MatchBudgetExceededException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public MatchBudgetExceededException(String message) {
+        super(message, null, false, false);
+    }
+}
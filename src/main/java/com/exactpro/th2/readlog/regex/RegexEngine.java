@@ -0,0 +1,245 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.exactpro.th2.readlog.regex;
+
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The engine that executes the alias regexps
+ */
+public enum RegexEngine {
+    /**
+     * {@link java.util.regex.Pattern}. Supports all constructs but uses backtracking,
+     * so some regexps take super-linear time on long lines
+     */
+    JDK {
+        @Override
+        LineRegex doCompile(Pattern pattern) {
+            return new JdkRegex(pattern);
+        }
+    },
+    /**
+     * RE2/J. Takes linear time in the length of the line but does not support
+     * back references, lookarounds, atomic groups and possessive quantifiers
+     */
+    RE2J {
+        @Override
+        LineRegex doCompile(Pattern pattern) {
+            if (pattern.flags() != 0) {
+                throw new UnsupportedRegexException("flags " + pattern.flags() + " are not supported");
+            }
+            String regexp = pattern.pattern();
+            checkSameMeaning(regexp);
+            try {
+                return new Re2jRegex(com.google.re2j.Pattern.compile(regexp));
+            } catch (com.google.re2j.PatternSyntaxException e) {
+                throw new UnsupportedRegexException(e.getMessage());
+            }
+        }
+    };
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegexEngine.class);
+
+    /**
+     * Compiles the {@code pattern} with this engine.
+     * If the engine does not support the constructs used in the pattern the {@link #JDK} engine is used instead.
+     * The actual engine is available via {@link LineRegex#engine()}
+     */
+    public LineRegex compile(Pattern pattern) {
+        Objects.requireNonNull(pattern, "'Pattern' parameter");
+        try {
+            return doCompile(pattern);
+        } catch (UnsupportedRegexException e) {
+            LOGGER.warn("The regexp '{}' cannot be executed by {} engine ({}). {} engine is used instead",
+                    pattern.pattern(), this, e.getMessage(), JDK);
+            return JDK.doCompile(pattern);
+        }
+    }
+
+    abstract LineRegex doCompile(Pattern pattern);
+
+    /**
+     * RE2/J accepts some constructs that have a different meaning in {@link java.util.regex.Pattern}
+     */
+    private static void checkSameMeaning(String regexp) {
+        boolean inClass = false;
+        for (int i = 0; i < regexp.length(); i++) {
+            char current = regexp.charAt(i);
+            if (current == '\\' && i + 1 < regexp.length()) {
+                char next = regexp.charAt(++i);
+                if (next == 'Q') {
+                    int end = regexp.indexOf("\\E", i);
+                    i = end < 0 ? regexp.length() : end + 1;
+                } else if (next == 'v') {
+                    throw new UnsupportedRegexException("\\v is a vertical whitespace class in JDK but a single character in RE2/J");
+                }
+                continue;
+            }
+            if (current == '[') {
+                inClass = true;
+            } else if (current == ']') {
+                inClass = false;
+            } else if (inClass && current == '&' && regexp.startsWith("&&", i)) {
+                throw new UnsupportedRegexException("character class intersection is not supported");
+            }
+        }
+    }
+
+    private static final class UnsupportedRegexException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private UnsupportedRegexException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private static final class JdkRegex implements LineRegex {
+        private final Pattern pattern;
+        private final int groupCount;
+
+        private JdkRegex(Pattern pattern) {
+            this.pattern = pattern;
+            groupCount = pattern.matcher("").groupCount();
+        }
+
+        @Override
+        public String pattern() {
+            return pattern.pattern();
+        }
+
+        @Override
+        public int groupCount() {
+            return groupCount;
+        }
+
+        @Override
+        public RegexEngine engine() {
+            return JDK;
+        }
+
+        @Override
+        public LineMatcher matcher(CharSequence input) {
+            Matcher matcher = pattern.matcher(input);
+            return new LineMatcher() {
+                @Override
+                public boolean find() {
+                    return matcher.find();
+                }
+
+                @Override
+                public int start(int group) {
+                    return matcher.start(group);
+                }
+
+                @Override
+                public int end(int group) {
+                    return matcher.end(group);
+                }
+
+                @Override
+                public int start(String group) {
+                    return matcher.start(group);
+                }
+
+                @Override
+                public int end(String group) {
+                    return matcher.end(group);
+                }
+
+                @Override
+                public String group(int group) {
+                    return matcher.group(group);
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return pattern.pattern();
+        }
+    }
+
+    private static final class Re2jRegex implements LineRegex {
+        private final com.google.re2j.Pattern pattern;
+        private final int groupCount;
+
+        private Re2jRegex(com.google.re2j.Pattern pattern) {
+            this.pattern = pattern;
+            groupCount = pattern.groupCount();
+        }
+
+        @Override
+        public String pattern() {
+            return pattern.pattern();
+        }
+
+        @Override
+        public int groupCount() {
+            return groupCount;
+        }
+
+        @Override
+        public RegexEngine engine() {
+            return RE2J;
+        }
+
+        @Override
+        public LineMatcher matcher(CharSequence input) {
+            com.google.re2j.Matcher matcher = pattern.matcher(input);
+            return new LineMatcher() {
+                @Override
+                public boolean find() {
+                    return matcher.find();
+                }
+
+                @Override
+                public int start(int group) {
+                    return matcher.start(group);
+                }
+
+                @Override
+                public int end(int group) {
+                    return matcher.end(group);
+                }
+
+                @Override
+                public int start(String group) {
+                    return matcher.start(group);
+                }
+
+                @Override
+                public int end(String group) {
+                    return matcher.end(group);
+                }
+
+                @Override
+                public String group(int group) {
+                    return matcher.group(group);
+                }
+            };
+        }
+
+        @Override
+        public String toString() {
+            return pattern.pattern();
+        }
+    }
+}
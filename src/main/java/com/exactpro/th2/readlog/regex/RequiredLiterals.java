@@ -0,0 +1,375 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.regex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.annotation.Nullable;
+
+/**
+ * Extracts the literal substrings that must be present in any string the regexp can find a match in.
+ * <p>
+ * The analysis is conservative: if the regexp uses a construct that is not understood
+ * (alternation at the top level, case-insensitive flags, etc.) no literals are reported.
+ * It is always safe to reject a line that does not contain any of the reported literals.
+ */
+public final class RequiredLiterals {
+    /**
+     * Shorter literals are not selective enough to be worth an extra scan of the line
+     */
+    private static final int MIN_LITERAL_LENGTH = 2;
+    private static final String ANCHORS_AND_CLASSES = "dDsSwWbBAGzZhHvVRXN";
+    private static final int UNSUPPORTED_FLAGS = Pattern.CASE_INSENSITIVE | Pattern.COMMENTS
+            | Pattern.LITERAL | Pattern.CANON_EQ | Pattern.UNICODE_CASE;
+
+    private final String regexp;
+    private int position;
+
+    private RequiredLiterals(String regexp) {
+        this.regexp = regexp;
+    }
+
+    /**
+     * @return the longest literal that must be present in the line to be matched by the {@code pattern}
+     * or {@code null} if there is no such literal
+     */
+    @Nullable
+    public static String longest(Pattern pattern) {
+        return all(pattern).stream()
+                .max(Comparator.comparingInt(String::length))
+                .filter(literal -> literal.length() >= MIN_LITERAL_LENGTH)
+                .orElse(null);
+    }
+
+    /**
+     * @return all literals that must be present in the line to be matched by the {@code pattern}
+     */
+    public static List<String> all(Pattern pattern) {
+        if ((pattern.flags() & UNSUPPORTED_FLAGS) != 0) {
+            return Collections.emptyList();
+        }
+        try {
+            RequiredLiterals analyzer = new RequiredLiterals(pattern.pattern());
+            Sequence sequence = analyzer.sequence();
+            return sequence.alternation ? Collections.emptyList() : sequence.literals;
+        } catch (UnsupportedConstructException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * @return {@code true} if the {@code literal} is {@code null} or the {@code text} contains it
+     */
+    public static boolean contains(CharSequence text, @Nullable String literal) {
+        if (literal == null) {
+            return true;
+        }
+        if (text instanceof String) {
+            // String.indexOf is an intrinsic and uses vectorized search
+            return ((String) text).contains(literal);
+        }
+        return indexOf(text, literal) >= 0;
+    }
+
+    /**
+     * Searches the {@code literal} without converting the {@code text} to {@link String}
+     */
+    private static int indexOf(CharSequence text, String literal) {
+        char first = literal.charAt(0);
+        int last = text.length() - literal.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.charAt(i) != first) {
+                continue;
+            }
+            int matched = 1;
+            while (matched < literal.length() && text.charAt(i + matched) == literal.charAt(matched)) {
+                matched++;
+            }
+            if (matched == literal.length()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses the sequence until the end of the regexp or the end of the current group
+     */
+    private Sequence sequence() {
+        Sequence sequence = new Sequence();
+        StringBuilder run = new StringBuilder();
+        while (position < regexp.length()) {
+            char current = regexp.charAt(position);
+            switch (current) {
+                case '|':
+                    sequence.alternation = true;
+                    position++;
+                    sequence.flush(run);
+                    break;
+                case ')':
+                    sequence.flush(run);
+                    return sequence;
+                case '(':
+                    sequence.flush(run);
+                    group(sequence);
+                    break;
+                case '[':
+                    sequence.flush(run);
+                    skipCharacterClass();
+                    skipQuantifier();
+                    break;
+                case '.':
+                case '^':
+                case '$':
+                    sequence.flush(run);
+                    position++;
+                    skipQuantifier();
+                    break;
+                case '\\':
+                    escape(sequence, run);
+                    break;
+                default:
+                    position++;
+                    literal(current, sequence, run);
+            }
+        }
+        sequence.flush(run);
+        return sequence;
+    }
+
+    private void group(Sequence outer) {
+        position++; // (
+        boolean required = true;
+        boolean opaque = false;
+        if (regexp.startsWith("?", position)) {
+            if (regexp.startsWith("?:", position) || regexp.startsWith("?>", position) || regexp.startsWith("?=", position)) {
+                position += 2;
+            } else if (regexp.startsWith("?<=", position)) {
+                position += 3;
+            } else if (regexp.startsWith("?!", position)) {
+                position += 2;
+                opaque = true;
+            } else if (regexp.startsWith("?<!", position)) {
+                position += 3;
+                opaque = true;
+            } else if (regexp.startsWith("?<", position)) {
+                position = regexp.indexOf('>', position) + 1;
+            } else {
+                // inline flags: (?flags) or (?flags:X)
+                int end = position + 1;
+                while (end < regexp.length() && regexp.charAt(end) != ')' && regexp.charAt(end) != ':') {
+                    end++;
+                }
+                String flags = regexp.substring(position + 1, Math.min(end, regexp.length()));
+                int dash = flags.indexOf('-');
+                String enabled = dash < 0 ? flags : flags.substring(0, dash);
+                boolean changesMatching = enabled.indexOf('i') >= 0 || enabled.indexOf('x') >= 0;
+                if (end >= regexp.length() || regexp.charAt(end) == ')') {
+                    if (changesMatching) {
+                        throw new UnsupportedConstructException();
+                    }
+                    position = end + 1;
+                    return;
+                }
+                position = end + 1;
+                opaque = changesMatching;
+            }
+        }
+        Sequence inner = sequence();
+        if (position >= regexp.length() || regexp.charAt(position) != ')') {
+            throw new UnsupportedConstructException();
+        }
+        position++; // )
+        int min = skipQuantifier();
+        if (min == 0) {
+            required = false;
+        }
+        if (required && !opaque && !inner.alternation) {
+            outer.literals.addAll(inner.literals);
+        }
+    }
+
+    private void escape(Sequence sequence, StringBuilder run) {
+        if (position + 1 >= regexp.length()) {
+            throw new UnsupportedConstructException();
+        }
+        char next = regexp.charAt(position + 1);
+        position += 2;
+        if (next == 'Q') {
+            int end = regexp.indexOf("\\E", position);
+            String quoted = regexp.substring(position, end < 0 ? regexp.length() : end);
+            position = end < 0 ? regexp.length() : end + 2;
+            for (int i = 0; i < quoted.length() - 1; i++) {
+                run.append(quoted.charAt(i));
+            }
+            if (!quoted.isEmpty()) {
+                literal(quoted.charAt(quoted.length() - 1), sequence, run);
+            }
+            return;
+        }
+        if (Character.isLetterOrDigit(next)) {
+            switch (next) {
+                case 't':
+                    literal('\t', sequence, run);
+                    return;
+                case 'n':
+                    literal('\n', sequence, run);
+                    return;
+                case 'r':
+                    literal('\r', sequence, run);
+                    return;
+                case 'f':
+                    literal('\f', sequence, run);
+                    return;
+                case 'a':
+                    literal('\u0007', sequence, run);
+                    return;
+                case 'e':
+                    literal('\u001B', sequence, run);
+                    return;
+                default:
+                    if (ANCHORS_AND_CLASSES.indexOf(next) < 0 && next != 'p' && next != 'P' && next != 'k'
+                            && next != 'x' && next != 'u' && next != 'c' && next != '0' && !Character.isDigit(next)) {
+                        throw new UnsupportedConstructException();
+                    }
+                    sequence.flush(run);
+                    if (regexp.startsWith("{", position) || regexp.startsWith("<", position)) {
+                        // \p{Name}, \x{h...h}, \N{name}, \k<name>
+                        position = regexp.indexOf(regexp.charAt(position) == '{' ? '}' : '>', position) + 1;
+                    } else if (next == 'c' || next == 'p' || next == 'P') {
+                        position++;
+                    } else if (Character.isDigit(next)) {
+                        // back reference to the group with any number
+                        while (position < regexp.length() && Character.isDigit(regexp.charAt(position))) {
+                            position++;
+                        }
+                    } else {
+                        while (position < regexp.length() && isHexDigit(regexp.charAt(position))
+                                && (next == 'x' || next == 'u' || next == '0')) {
+                            position++;
+                        }
+                    }
+                    skipQuantifier();
+                    return;
+            }
+        }
+        literal(next, sequence, run);
+    }
+
+    private void literal(char value, Sequence sequence, StringBuilder run) {
+        int min = skipQuantifier();
+        if (min == 0) {
+            sequence.flush(run);
+            return;
+        }
+        run.append(value);
+        if (min > 0) {
+            // the repeated character may be followed by itself
+            sequence.flush(run);
+        }
+    }
+
+    /**
+     * @return -1 if there is no quantifier, otherwise the minimal number of repetitions
+     */
+    private int skipQuantifier() {
+        if (position >= regexp.length()) {
+            return -1;
+        }
+        int min;
+        char current = regexp.charAt(position);
+        switch (current) {
+            case '?':
+            case '*':
+                min = 0;
+                position++;
+                break;
+            case '+':
+                min = 1;
+                position++;
+                break;
+            case '{':
+                int end = regexp.indexOf('}', position);
+                String bounds = regexp.substring(position + 1, end);
+                int comma = bounds.indexOf(',');
+                min = Integer.parseInt((comma < 0 ? bounds : bounds.substring(0, comma)).trim());
+                position = end + 1;
+                break;
+            default:
+                return -1;
+        }
+        if (position < regexp.length() && (regexp.charAt(position) == '?' || regexp.charAt(position) == '+')) {
+            position++; // lazy or possessive
+        }
+        return min;
+    }
+
+    private void skipCharacterClass() {
+        int depth = 0;
+        while (position < regexp.length()) {
+            char current = regexp.charAt(position);
+            if (current == '\\') {
+                position += 2;
+                continue;
+            }
+            if (current == '[') {
+                depth++;
+                if (regexp.startsWith("^]", position + 1)) {
+                    position += 2;
+                } else if (regexp.startsWith("]", position + 1)) {
+                    position++;
+                }
+            } else if (current == ']') {
+                depth--;
+                if (depth == 0) {
+                    position++;
+                    return;
+                }
+            }
+            position++;
+        }
+        throw new UnsupportedConstructException();
+    }
+
+    private static boolean isHexDigit(char value) {
+        return Character.digit(value, 16) >= 0;
+    }
+
+    private static final class Sequence {
+        private final List<String> literals = new ArrayList<>();
+        private boolean alternation;
+
+        private void flush(StringBuilder run) {
+            if (run.length() > 0) {
+                literals.add(run.toString());
+                run.setLength(0);
+            }
+        }
+    }
+
+    private static final class UnsupportedConstructException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private UnsupportedConstructException() {
+            super(null, null, false, false);
+        }
+    }
+}
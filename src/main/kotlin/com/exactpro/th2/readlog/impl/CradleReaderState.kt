@@ -30,30 +30,23 @@ import com.exactpro.th2.read.file.common.state.impl.InMemoryReaderState
 import com.google.protobuf.ByteString
 import com.google.protobuf.UnsafeByteOperations
 import io.netty.buffer.Unpooled
-import java.time.Instant
 
-class CradleReaderState @JvmOverloads constructor(
-    private val cradleStorage: CradleStorage,
-    private val delegate: ReaderState = InMemoryReaderState(),
-    private val bookSupplier: (StreamId) -> String,
-    private val wrapContent: (ByteArray) -> Content
+/**
+ * Takes the last sequence and timestamp of the stream from Cradle if the [delegate] does not have them
+ */
+class CradleReaderState(
+    private val delegate: ReaderState,
+    private val lookup: StreamDataLookup,
 ): ReaderState by delegate {
+    @JvmOverloads constructor(
+        cradleStorage: CradleStorage,
+        delegate: ReaderState = InMemoryReaderState(),
+        bookSupplier: (StreamId) -> String,
+        wrapContent: (ByteArray) -> Content
+    ) : this(delegate, ProbingLookup(cradleQuery(cradleStorage, bookSupplier, wrapContent)))
+
     override fun get(streamId: StreamId): StreamData? {
-        return delegate[streamId] ?: cradleStorage.getGroupedMessageBatches(
-            GroupedMessageFilter.builder()
-                .groupName(streamId.sessionAlias)
-                .bookId(BookId(bookSupplier(streamId)))
-                .timestampTo().isLessThanOrEqualTo(Instant.now())
-                .limit(1)
-                .order(Order.REVERSE)
-                .build()
-        ).asSequence().firstOrNull()?.lastMessage?.run {
-            StreamData(
-                timestamp,
-                sequence,
-                wrapContent(content)
-            )
-        }
+        return delegate[streamId] ?: lookup.find(streamId)
     }
 
     companion object {
@@ -62,5 +55,34 @@ class CradleReaderState @JvmOverloads constructor(
 
         @JvmField
         val WRAP_TRANSPORT:  (ByteArray?) -> Content = { TransportContent(it?.let(Unpooled::wrappedBuffer) ?: Unpooled.EMPTY_BUFFER) }
+
+        /**
+         * Finds the last message of the stream's group in the time window
+         */
+        @JvmStatic
+        fun cradleQuery(
+            cradleStorage: CradleStorage,
+            bookSupplier: (StreamId) -> String,
+            wrapContent: (ByteArray) -> Content
+        ): ProbingLookup.WindowQuery = ProbingLookup.WindowQuery { streamId, from, to ->
+            val filter = GroupedMessageFilter.builder()
+                .groupName(streamId.sessionAlias)
+                .bookId(BookId(bookSupplier(streamId)))
+            if (from != null) {
+                filter.timestampFrom().isGreaterThanOrEqualTo(from)
+            }
+            cradleStorage.getGroupedMessageBatches(
+                filter.timestampTo().isLessThanOrEqualTo(to)
+                    .limit(1)
+                    .order(Order.REVERSE)
+                    .build()
+            ).asSequence().firstOrNull()?.lastMessage?.run {
+                StreamData(
+                    timestamp,
+                    sequence,
+                    wrapContent(content)
+                )
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl
+
+import com.exactpro.th2.read.file.common.StreamId
+import com.exactpro.th2.read.file.common.state.Content
+import com.exactpro.th2.read.file.common.state.ReaderState
+import com.exactpro.th2.read.file.common.state.StreamData
+import com.exactpro.th2.read.file.common.state.impl.InMemoryReaderState
+
+/**
+ * Records the last sequence and timestamp of the stream into the [journal] when they are set
+ * and takes them from the [journal] if the [delegate] does not have them (e.g. after the restart).
+ * The journal saves them when the batch is sent, so the sender must report it by [StateJournal.sent].
+ * The content of the last message is not saved, so the restored [StreamData] has empty content
+ */
+class DurableReaderState @JvmOverloads constructor(
+    private val journal: StateJournal,
+    private val wrapContent: (ByteArray) -> Content,
+    private val delegate: ReaderState = InMemoryReaderState(),
+): ReaderState by delegate {
+    override fun get(streamId: StreamId): StreamData? {
+        return delegate[streamId] ?: journal.get(streamId)?.run {
+            StreamData(timestamp, sequence, wrapContent(EMPTY))
+        }
+    }
+
+    override fun set(streamId: StreamId, data: StreamData) {
+        delegate[streamId] = data
+        val (timestamp, sequence) = data
+        journal.record(streamId, timestamp, sequence)
+    }
+
+    private companion object {
+        private val EMPTY = ByteArray(0)
+    }
+}
@@ -0,0 +1,410 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import com.exactpro.th2.common.grpc.MessageID;
+import com.exactpro.th2.common.grpc.RawMessageBatch;
+import com.exactpro.th2.common.schema.message.impl.rabbitmq.transport.GroupBatch;
+import com.exactpro.th2.common.schema.message.impl.rabbitmq.transport.MessageId;
+import com.exactpro.th2.read.file.common.AbstractFileReader;
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
+import com.exactpro.th2.readlog.cfg.LogReaderConfiguration;
+import com.exactpro.th2.readlog.impl.CradleReaderState;
+import com.exactpro.th2.readlog.impl.InMemoryStreamStore;
+import com.exactpro.th2.readlog.impl.LogFileReader;
+import com.exactpro.th2.readlog.impl.PrefetchingLookup;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import kotlin.Unit;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the readers against the files written by {@link LogGenerator} in a temporary directory.
+ * The batches are sent to {@link StubRouter}s, so no external services are required.
+ * <p>
+ * Reports the sustained throughput, the end-to-end latency percentiles and the heap usage.
+ * The arguments have the {@code --name=value} form, see {@link Options}.
+ */
+public final class LoadTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadTest.class);
+    private static final String BOOK = "load-test";
+    private static final String ALIAS_TEMPLATE = "aliasTemplate";
+    private static final double MIB = 1024 * 1024;
+    private static final double NANOS_PER_MILLI = 1_000_000;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        Path directory = options.directory == null
+                ? Files.createTempDirectory("read-log-load-test")
+                : Files.createDirectories(options.directory);
+        try {
+            run(options, directory);
+        } finally {
+            if (options.directory == null) {
+                deleteRecursively(directory);
+            }
+        }
+    }
+
+    private static void run(Options options, Path directory) throws Exception {
+        List<String> aliases = IntStream.range(0, options.aliases)
+                .mapToObj(index -> "alias" + index)
+                .collect(Collectors.toList());
+        LogReaderConfiguration configuration = readConfiguration(options.config, directory, aliases);
+        long origin = System.nanoTime();
+        MessageRecorder recorder = new MessageRecorder(origin);
+
+        Deque<AutoCloseable> toDispose = new ArrayDeque<>();
+        List<UpdatesLoop> loops = new ArrayList<>();
+        try {
+            List<Map<String, AliasConfiguration>> partitions = LogFileReader.partitionAliases(configuration.getAliases(), configuration.getWorkers());
+            ScheduledExecutorService executorService = Executors.newScheduledThreadPool(partitions.size());
+            AsyncPublisher publisher = new AsyncPublisher(configuration.getPublishThreads(), configuration.getPublishQueueSize());
+            toDispose.add(publisher);
+            ExecutorService parsingExecutor = Main.createParsingExecutor(configuration);
+            if (parsingExecutor != null) {
+                toDispose.add(() -> Main.shutdown(parsingExecutor));
+            }
+            ExecutorService decompressionExecutor = Main.createDecompressionExecutor(configuration);
+            if (decompressionExecutor != null) {
+                toDispose.add(() -> Main.shutdown(decompressionExecutor));
+            }
+            InMemoryStreamStore store = options.storageLatency == null ? null : new InMemoryStreamStore(options.storageLatency);
+            PrefetchingLookup streamLookup = store == null ? null : Main.createStreamLookup(configuration, store);
+            List<Runnable> processUpdates = new ArrayList<>(partitions.size());
+            // the readers are created in the same way as in Main
+            for (Map<String, AliasConfiguration> partition : partitions) {
+                UpdatesLoop loop = new UpdatesLoop(executorService, configuration.getMinPullingInterval(), configuration.getPullingInterval());
+                loops.add(loop);
+                AbstractFileReader<?, ?, ?> reader;
+                if (configuration.isUseTransport()) {
+                    StubRouter<GroupBatch> router = new StubRouter<>(options.routerLatency, recorder::recordTransport);
+                    reader = LogFileReader.getTransportLogFileReader(
+                            configuration,
+                            partition,
+                            parsingExecutor,
+                            decompressionExecutor,
+                            null,
+                            Main.createReaderState(streamLookup, null, CradleReaderState.WRAP_TRANSPORT),
+                            streamId -> MessageId.builder(),
+                            (streamId, builders) -> {
+                                loop.markActive();
+                                return Main.publishTransportMessages(router, publisher, streamId, builders, BOOK, partition.get(streamId.getSessionAlias()), null);
+                            },
+                            LoadTest::onError,
+                            LoadTest::onSourceCorrupted
+                    );
+                } else {
+                    StubRouter<RawMessageBatch> router = new StubRouter<>(options.routerLatency, recorder::recordProto);
+                    reader = LogFileReader.getProtoLogFileReader(
+                            configuration,
+                            partition,
+                            parsingExecutor,
+                            decompressionExecutor,
+                            null,
+                            Main.createReaderState(streamLookup, null, CradleReaderState.WRAP_PROTO),
+                            streamId -> MessageID.newBuilder().setBookName(BOOK).build(),
+                            (streamId, builders) -> {
+                                loop.markActive();
+                                return Main.publishProtoMessages(router, publisher, streamId, builders, null);
+                            },
+                            LoadTest::onError,
+                            LoadTest::onSourceCorrupted
+                    );
+                }
+                processUpdates.add(reader::processUpdates);
+                toDispose.add(reader);
+            }
+            toDispose.add(() -> Main.shutdown(executorService));
+
+            for (int i = 0; i < loops.size(); i++) {
+                loops.get(i).start(processUpdates.get(i));
+            }
+            if (configuration.isWatchDirectory()) {
+                DirectoryWatcher watcher = DirectoryWatcher.start(directory,
+                        loops.stream().<Runnable>map(loop -> loop::wakeUp).collect(Collectors.toList()));
+                if (watcher != null) {
+                    toDispose.add(watcher);
+                }
+            }
+
+            LogGenerator generator = new LogGenerator(directory, aliases, options.rate, options.lineLength, options.linesPerFile,
+                    origin, options.duration.toNanos());
+            Thread generatorThread = new Thread(generator, "generator");
+            generatorThread.start();
+            try {
+                report(options, origin, generator, generatorThread, recorder);
+            } finally {
+                generator.stop();
+                generatorThread.join();
+            }
+        } finally {
+            loops.forEach(UpdatesLoop::close);
+            toDispose.descendingIterator().forEachRemaining(resource -> {
+                try {
+                    resource.close();
+                } catch (Exception e) {
+                    LOGGER.error("Cannot close resource {}", resource.getClass(), e);
+                }
+            });
+        }
+    }
+
+    private static void report(Options options, long origin, LogGenerator generator, Thread generatorThread, MessageRecorder recorder)
+            throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        Histogram total = new Histogram(3);
+        Histogram interval = null;
+        long intervalNanos = options.reportInterval.toNanos();
+        double intervalSeconds = intervalNanos / 1e9;
+        long drainDeadline = Long.MAX_VALUE;
+        long previousLines = 0;
+        long previousMessages = 0;
+        long previousBytes = 0;
+        long maxHeap = 0;
+        for (long next = origin + intervalNanos; ; next += intervalNanos) {
+            long delay;
+            while ((delay = next - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            }
+            interval = recorder.intervalLatencies(interval);
+            total.add(interval);
+            long heap = memory.getHeapMemoryUsage().getUsed();
+            maxHeap = Math.max(maxHeap, heap);
+            long lines = generator.getLines();
+            long messages = recorder.getMessages();
+            long bytes = recorder.getBytes();
+            System.out.printf("%7.1f s | written %9.0f lines/s | read %9.0f lines/s %8.2f MiB/s"
+                            + " | latency ms p50 %9.2f p99 %9.2f p99.9 %9.2f max %9.2f | heap %6.0f MiB%n",
+                    (next - origin) / 1e9,
+                    (lines - previousLines) / intervalSeconds,
+                    (messages - previousMessages) / intervalSeconds,
+                    (bytes - previousBytes) / intervalSeconds / MIB,
+                    interval.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                    interval.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                    interval.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                    interval.getMaxValue() / NANOS_PER_MILLI,
+                    heap / MIB);
+            previousLines = lines;
+            previousMessages = messages;
+            previousBytes = bytes;
+
+            if (!generatorThread.isAlive()) {
+                if (messages >= lines) {
+                    break;
+                }
+                if (drainDeadline == Long.MAX_VALUE) {
+                    drainDeadline = next + options.drainTimeout.toNanos();
+                } else if (next >= drainDeadline) {
+                    LOGGER.warn("Not all lines are read in {}", options.drainTimeout);
+                    break;
+                }
+            }
+        }
+
+        long lines = generator.getLines();
+        long messages = recorder.getMessages();
+        double readSeconds = Math.max(1, recorder.getLastReceived() - origin) / 1e9;
+        System.out.println();
+        System.out.printf("Lines written: %d (%.2f MiB), read: %d, not read: %d%n",
+                lines, generator.getBytes() / MIB, messages, lines - messages);
+        System.out.printf("Sustained throughput: %.0f lines/s, %.2f MiB/s%n",
+                messages / readSeconds, recorder.getBytes() / readSeconds / MIB);
+        System.out.printf("Latency ms: p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, p99.99 %.2f, max %.2f%n",
+                total.getValueAtPercentile(50) / NANOS_PER_MILLI,
+                total.getValueAtPercentile(90) / NANOS_PER_MILLI,
+                total.getValueAtPercentile(99) / NANOS_PER_MILLI,
+                total.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+                total.getValueAtPercentile(99.99) / NANOS_PER_MILLI,
+                total.getMaxValue() / NANOS_PER_MILLI);
+        System.out.printf("Max heap used: %.0f MiB of %.0f MiB%n", maxHeap / MIB, memory.getHeapMemoryUsage().getMax() / MIB);
+    }
+
+    /**
+     * Reads the reader configuration from the {@code config} or the default one from the {@code load-test.json} resource.
+     * The {@code aliasTemplate} of the configuration is used for each of the {@code aliases}
+     */
+    private static LogReaderConfiguration readConfiguration(Path config, Path directory, List<String> aliases) throws IOException {
+        ObjectNode node;
+        if (config == null) {
+            try (InputStream resource = LoadTest.class.getResourceAsStream("/load-test.json")) {
+                node = (ObjectNode) LogReaderConfiguration.MAPPER.readTree(resource);
+            }
+        } else {
+            node = (ObjectNode) LogReaderConfiguration.MAPPER.readTree(config.toFile());
+        }
+        ObjectNode template = (ObjectNode) node.remove(ALIAS_TEMPLATE);
+        if (template == null) {
+            throw new IllegalArgumentException("The configuration does not have '" + ALIAS_TEMPLATE + "'");
+        }
+        ObjectNode aliasesNode = node.putObject("aliases");
+        for (String alias : aliases) {
+            ObjectNode aliasNode = template.deepCopy();
+            aliasNode.put("pathFilter", LogGenerator.pathFilter(alias));
+            aliasesNode.set(alias, aliasNode);
+        }
+        node.put("logDirectory", directory.toString());
+        // the stored state is not required, all files are new
+        node.put("syncWithCradle", false);
+        return LogReaderConfiguration.MAPPER.treeToValue(node, LogReaderConfiguration.class);
+    }
+
+    private static Unit onError(StreamId streamId, String message, Exception ex) {
+        LOGGER.error("Error for {}: {}", streamId, message, ex);
+        return Unit.INSTANCE;
+    }
+
+    private static Unit onSourceCorrupted(StreamId streamId, Path path, Exception ex) {
+        LOGGER.error("Corrupted source {} for {}", path, streamId, ex);
+        return Unit.INSTANCE;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * The arguments of the load test
+     */
+    private static final class Options {
+        /**
+         * The number of lines written per second to all files
+         */
+        private long rate = 10_000;
+        /**
+         * How long the lines are written
+         */
+        private Duration duration = Duration.ofMinutes(1);
+        /**
+         * The approximate length of each line
+         */
+        private int lineLength = 256;
+        /**
+         * The number of aliases. Each alias has its own files
+         */
+        private int aliases = 1;
+        /**
+         * The number of lines in a file before the generator starts the next one
+         */
+        private long linesPerFile = 100_000;
+        /**
+         * How long the stub router blocks on sending each batch
+         */
+        private Duration routerLatency = Duration.ZERO;
+        /**
+         * The latency of each query to the in-memory storage that replaces Cradle.
+         * If it is not set the readers do not synchronize with the storage
+         */
+        private Duration storageLatency;
+        private Duration reportInterval = Duration.ofSeconds(1);
+        /**
+         * How long to wait for the remaining lines to be read after the generator stops
+         */
+        private Duration drainTimeout = Duration.ofSeconds(30);
+        /**
+         * The reader configuration. The {@code load-test.json} resource is used if it is not set
+         */
+        private Path config;
+        /**
+         * The directory for the files. A temporary directory is created and removed if it is not set
+         */
+        private Path directory;
+
+        private static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (!arg.startsWith("--") || separator < 0) {
+                    throw new IllegalArgumentException("Argument '" + arg + "' must have the --name=value form");
+                }
+                String value = arg.substring(separator + 1);
+                switch (arg.substring(2, separator)) {
+                    case "rate":
+                        options.rate = Long.parseLong(value);
+                        break;
+                    case "duration":
+                        options.duration = Duration.parse(value);
+                        break;
+                    case "lineLength":
+                        options.lineLength = Integer.parseInt(value);
+                        break;
+                    case "aliases":
+                        options.aliases = Integer.parseInt(value);
+                        break;
+                    case "linesPerFile":
+                        options.linesPerFile = Long.parseLong(value);
+                        break;
+                    case "routerLatency":
+                        options.routerLatency = Duration.parse(value);
+                        break;
+                    case "storageLatency":
+                        options.storageLatency = Duration.parse(value);
+                        break;
+                    case "reportInterval":
+                        options.reportInterval = Duration.parse(value);
+                        break;
+                    case "drainTimeout":
+                        options.drainTimeout = Duration.parse(value);
+                        break;
+                    case "config":
+                        options.config = Paths.get(value);
+                        break;
+                    case "directory":
+                        options.directory = Paths.get(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown argument '" + arg + "'");
+                }
+            }
+            if (options.rate <= 0 || options.aliases <= 0 || options.linesPerFile <= 0 || options.reportInterval.isZero() || options.reportInterval.isNegative()) {
+                throw new IllegalArgumentException("rate, aliases, linesPerFile and reportInterval must be positive");
+            }
+            return options;
+        }
+    }
+}
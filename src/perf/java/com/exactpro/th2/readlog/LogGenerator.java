@@ -0,0 +1,223 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Appends FIX-like lines to the files of the aliases at the target rate and rotates the files.
+ * <p>
+ * The lines are written according to a fixed schedule. Each line contains the time it was scheduled for
+ * in the {@link #INTENDED_TIME_TAG} tag, so the latency is measured from that time even if the generator falls behind.
+ */
+final class LogGenerator implements Runnable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogGenerator.class);
+    static final String INTENDED_TIME_TAG = "5999";
+    static final String INCOMING = "received";
+    static final String OUTGOING = "sent";
+    private static final char SOH = '\u0001';
+    private static final DateTimeFormatter SECONDS_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    /**
+     * The buffered lines are flushed at least this often if the generator cannot keep up with the rate
+     */
+    private static final int MAX_UNFLUSHED_LINES = 1_000;
+
+    private final Path directory;
+    private final List<String> aliases;
+    private final long rate;
+    private final int lineLength;
+    private final long linesPerFile;
+    private final long origin;
+    private final long durationNanos;
+    private final AtomicLong lines = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private volatile boolean stopped;
+
+    private long currentSecond = -1;
+    private String secondPrefix;
+
+    /**
+     * @param origin the {@link System#nanoTime()} the intended times are counted from
+     */
+    LogGenerator(Path directory, List<String> aliases, long rate, int lineLength, long linesPerFile, long origin, long durationNanos) {
+        this.directory = directory;
+        this.aliases = List.copyOf(aliases);
+        this.rate = rate;
+        this.lineLength = lineLength;
+        this.linesPerFile = linesPerFile;
+        this.origin = origin;
+        this.durationNanos = durationNanos;
+    }
+
+    static String fileName(String alias, int index) {
+        return String.format("%s-%05d.log", alias, index);
+    }
+
+    static String pathFilter(String alias) {
+        return alias + "-\\d+\\.log";
+    }
+
+    long getLines() {
+        return lines.get();
+    }
+
+    long getBytes() {
+        return bytes.get();
+    }
+
+    void stop() {
+        stopped = true;
+    }
+
+    @Override
+    public void run() {
+        Output[] outputs = new Output[aliases.size()];
+        try {
+            for (int i = 0; i < outputs.length; i++) {
+                outputs[i] = new Output(aliases.get(i));
+            }
+            StringBuilder line = new StringBuilder(lineLength + 64);
+            int unflushed = 0;
+            for (long index = 0; !stopped; index++) {
+                long intended = (long) (index * 1_000_000_000.0 / rate);
+                if (intended >= durationNanos) {
+                    break;
+                }
+                if (origin + intended > System.nanoTime()) {
+                    flush(outputs);
+                    unflushed = 0;
+                    long delay;
+                    while ((delay = origin + intended - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(delay);
+                    }
+                } else if (++unflushed >= MAX_UNFLUSHED_LINES) {
+                    flush(outputs);
+                    unflushed = 0;
+                }
+                Output output = outputs[(int) (index % outputs.length)];
+                line.setLength(0);
+                appendLine(line, index, intended);
+                output.write(line);
+                lines.incrementAndGet();
+                bytes.addAndGet(line.length());
+            }
+        } catch (IOException e) {
+            LOGGER.error("Cannot write lines to {}", directory, e);
+        } finally {
+            for (Output output : outputs) {
+                if (output != null) {
+                    try {
+                        output.close();
+                    } catch (IOException e) {
+                        LOGGER.error("Cannot close file for {}", output.alias, e);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void flush(Output[] outputs) throws IOException {
+        for (Output output : outputs) {
+            output.writer.flush();
+        }
+    }
+
+    private void appendLine(StringBuilder line, long index, long intended) {
+        long millis = System.currentTimeMillis();
+        long second = millis / 1_000;
+        if (second != currentSecond) {
+            currentSecond = second;
+            secondPrefix = SECONDS_FORMAT.format(LocalDateTime.ofEpochSecond(second, 0, ZoneOffset.UTC));
+        }
+        line.append(secondPrefix).append('.');
+        appendPadded(line, millis % 1_000);
+        line.append(' ').append(index % 2 == 0 ? INCOMING : OUTGOING).append(" [");
+
+        int bodyStart = line.length();
+        line.append("35=D").append(SOH)
+                .append("34=").append(index + 1).append(SOH)
+                .append("49=DEMO-CONN1").append(SOH)
+                .append("56=FGW").append(SOH)
+                .append("11=").append(1_000_000 + index).append(SOH)
+                .append(INTENDED_TIME_TAG).append('=').append(intended).append(SOH)
+                .append("58=");
+        while (line.length() < lineLength - 32) {
+            line.append((char) ('A' + line.length() % 26));
+        }
+        line.append(SOH);
+        String body = line.substring(bodyStart);
+        line.setLength(bodyStart);
+        line.append("8=FIXT.1.1").append(SOH).append("9=").append(body.length()).append(SOH).append(body)
+                .append("10=");
+        appendPadded(line, index % 1_000);
+        line.append(SOH).append(']').append('\n');
+    }
+
+    private static void appendPadded(StringBuilder line, long value) {
+        if (value < 100) {
+            line.append('0');
+        }
+        if (value < 10) {
+            line.append('0');
+        }
+        line.append(value);
+    }
+
+    private final class Output {
+        private final String alias;
+        private Writer writer;
+        private int fileIndex;
+        private long fileLines;
+
+        private Output(String alias) throws IOException {
+            this.alias = alias;
+            writer = open();
+        }
+
+        private void write(CharSequence line) throws IOException {
+            if (fileLines == linesPerFile) {
+                writer.close();
+                fileIndex++;
+                fileLines = 0;
+                writer = open();
+            }
+            writer.append(line);
+            fileLines++;
+        }
+
+        private Writer open() throws IOException {
+            return Files.newBufferedWriter(directory.resolve(fileName(alias, fileIndex)), StandardCharsets.US_ASCII);
+        }
+
+        private void close() throws IOException {
+            writer.close();
+        }
+    }
+}
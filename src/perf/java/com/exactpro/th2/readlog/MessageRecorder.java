@@ -0,0 +1,132 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.exactpro.th2.common.grpc.RawMessageBatch;
+import com.exactpro.th2.common.schema.message.impl.rabbitmq.transport.GroupBatch;
+import com.exactpro.th2.common.schema.message.impl.rabbitmq.transport.Message;
+import com.exactpro.th2.common.schema.message.impl.rabbitmq.transport.MessageGroup;
+import com.exactpro.th2.common.schema.message.impl.rabbitmq.transport.RawMessage;
+import com.google.protobuf.ByteString;
+import io.netty.buffer.ByteBuf;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Counts the messages received by {@link StubRouter} and records their end-to-end latency.
+ * The latency is the time from the moment the line was scheduled to be written by {@link LogGenerator}
+ */
+final class MessageRecorder {
+    private static final byte[] INTENDED_TIME_PREFIX = ("\u0001" + LogGenerator.INTENDED_TIME_TAG + '=').getBytes(StandardCharsets.US_ASCII);
+
+    private final long origin;
+    private final Recorder latencies = new Recorder(3);
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong lastReceived = new AtomicLong();
+
+    /**
+     * @param origin the {@link System#nanoTime()} the intended times are counted from
+     */
+    MessageRecorder(long origin) {
+        this.origin = origin;
+    }
+
+    void recordProto(RawMessageBatch batch) {
+        long now = System.nanoTime();
+        for (com.exactpro.th2.common.grpc.RawMessage message : batch.getMessagesList()) {
+            ByteString body = message.getBody();
+            record(now, body.size(), intendedTime(body::byteAt, body.size()));
+        }
+    }
+
+    void recordTransport(GroupBatch batch) {
+        long now = System.nanoTime();
+        for (MessageGroup group : batch.getGroups()) {
+            for (Message<?> message : group.getMessages()) {
+                if (message instanceof RawMessage) {
+                    ByteBuf body = ((RawMessage) message).getBody();
+                    int start = body.readerIndex();
+                    record(now, body.readableBytes(), intendedTime(index -> body.getByte(start + index), body.readableBytes()));
+                }
+            }
+        }
+    }
+
+    long getMessages() {
+        return messages.get();
+    }
+
+    long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * @return the {@link System#nanoTime()} the last message was received at
+     */
+    long getLastReceived() {
+        return lastReceived.get();
+    }
+
+    /**
+     * @param recycle the histogram returned by the previous call or {@code null}
+     * @return the latencies in nanoseconds recorded since the previous call
+     */
+    Histogram intervalLatencies(Histogram recycle) {
+        return latencies.getIntervalHistogram(recycle);
+    }
+
+    private void record(long now, int size, long intended) {
+        if (intended >= 0) {
+            latencies.recordValue(Math.max(0, now - origin - intended));
+        }
+        messages.incrementAndGet();
+        bytes.addAndGet(size);
+        lastReceived.set(now);
+    }
+
+    /**
+     * @return the value of the {@link LogGenerator#INTENDED_TIME_TAG} or {@code -1} if the body does not have it
+     */
+    private static long intendedTime(ByteAt body, int size) {
+        int matched = 0;
+        for (int i = 0; i < size; i++) {
+            byte current = body.get(i);
+            if (matched == INTENDED_TIME_PREFIX.length) {
+                long value = 0;
+                for (; i < size && (current = body.get(i)) >= '0' && current <= '9'; i++) {
+                    value = value * 10 + (current - '0');
+                }
+                return value;
+            }
+            if (current == INTENDED_TIME_PREFIX[matched]) {
+                matched++;
+            } else {
+                matched = current == INTENDED_TIME_PREFIX[0] ? 1 : 0;
+            }
+        }
+        return -1;
+    }
+
+    @FunctionalInterface
+    private interface ByteAt {
+        byte get(int index);
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Replaces the message router in the load test. Records the batches instead of sending them
+ * and can block for the configured time to simulate a slow broker
+ */
+final class StubRouter<T> implements Main.BatchSender<T> {
+    private final long latencyNanos;
+    private final Consumer<T> recorder;
+
+    StubRouter(Duration latency, Consumer<T> recorder) {
+        this.latencyNanos = latency.toNanos();
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void sendAll(T batch, String... attributes) throws InterruptedException {
+        if (latencyNanos > 0) {
+            Thread.sleep(latencyNanos / 1_000_000, (int) (latencyNanos % 1_000_000));
+        }
+        recorder.accept(batch);
+    }
+}
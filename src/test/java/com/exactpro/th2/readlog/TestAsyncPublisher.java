@@ -0,0 +1,140 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.readlog.impl.StateJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestAsyncPublisher {
+    @TempDir
+    Path directory;
+
+    @Test
+    void keepsOrderForEachAlias() throws InterruptedException {
+        Map<String, List<Integer>> sent = new ConcurrentHashMap<>();
+        AsyncPublisher publisher = new AsyncPublisher(3, 2);
+        for (int i = 0; i < 500; i++) {
+            String alias = "alias" + i % 7;
+            int index = i;
+            publisher.publish(new StreamId(alias), () -> sent.computeIfAbsent(alias, it -> Collections.synchronizedList(new ArrayList<>())).add(index));
+        }
+        publisher.close();
+
+        assertEquals(7, sent.size());
+        sent.forEach((alias, indexes) -> {
+            List<Integer> sorted = new ArrayList<>(indexes);
+            Collections.sort(sorted);
+            assertEquals(sorted, indexes, () -> "order for " + alias);
+        });
+        assertEquals(500, sent.values().stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    void blocksWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AsyncPublisher publisher = new AsyncPublisher(1, 1);
+        StreamId streamId = new StreamId("test");
+        publisher.publish(streamId, release::await);
+        // waits in the queue
+        publisher.publish(streamId, () -> {});
+
+        AtomicBoolean published = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            publisher.publish(streamId, () -> {});
+            published.set(true);
+        });
+        reader.start();
+        reader.join(200);
+        assertFalse(published.get(), "publishing must wait for free space in the queue");
+
+        release.countDown();
+        reader.join(TimeUnit.SECONDS.toMillis(5));
+        assertTrue(published.get());
+        publisher.close();
+    }
+
+    @Test
+    void continuesAfterFailure() throws InterruptedException {
+        List<Integer> sent = Collections.synchronizedList(new ArrayList<>());
+        AsyncPublisher publisher = new AsyncPublisher(1, 4);
+        StreamId streamId = new StreamId("test");
+        publisher.publish(streamId, () -> sent.add(1));
+        publisher.publish(streamId, () -> {
+            throw new IllegalStateException("broker is not available");
+        });
+        publisher.publish(streamId, () -> sent.add(3));
+        publisher.close();
+
+        assertEquals(List.of(1, 3), sent);
+    }
+
+    @Test
+    void sendsByCallingThreadWithoutSenders() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        AsyncPublisher publisher = new AsyncPublisher(0, 1);
+        publisher.publish(new StreamId("test"), () -> threads.add(Thread.currentThread()));
+        publisher.close();
+
+        assertSame(Thread.currentThread(), threads.get(0));
+    }
+
+    @Test
+    void savesCheckpointsOfQueuedBatchesWhenClosedBeforeJournal() throws InterruptedException, IOException {
+        Path file = directory.resolve("journal");
+        StreamId streamId = new StreamId("test");
+        CountDownLatch release = new CountDownLatch(1);
+        StateJournal journal = StateJournal.open(file);
+        AsyncPublisher publisher = new AsyncPublisher(1, 4);
+        publisher.publish(streamId, release::await);
+        for (long sequence = 1; sequence <= 3; sequence++) {
+            long sent = sequence;
+            journal.record(streamId, Instant.EPOCH.plusSeconds(sequence), sequence);
+            // waits in the queue
+            publisher.publish(streamId, () -> journal.sent(streamId, sent));
+        }
+        assertNull(journal.get(streamId), "the batches wait for sending");
+
+        release.countDown();
+        // the same order as on the shutdown
+        publisher.close();
+        journal.close();
+
+        try (StateJournal reopened = StateJournal.open(file)) {
+            assertEquals(3, reopened.get(streamId).getSequence());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import com.exactpro.th2.readlog.regex.LineMatcher;
+import com.exactpro.th2.readlog.regex.RegexEngine;
+import com.opencsv.CSVWriter;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static com.opencsv.ICSVWriter.DEFAULT_ESCAPE_CHARACTER;
+import static com.opencsv.ICSVWriter.DEFAULT_LINE_END;
+import static com.opencsv.ICSVWriter.DEFAULT_QUOTE_CHARACTER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class TestCsvJoinWriter {
+
+    @ParameterizedTest
+    @MethodSource("values")
+    void producesTheSameOutputAsOpenCsv(char delimiter, String value) {
+        String[] headers = {"Header \"A\"", "Header,B"};
+        LineMatcher matcher = RegexEngine.JDK.compile(Pattern.compile("(.*)")).matcher(value);
+        HeaderTemplate[] templates = {
+                HeaderTemplate.compile("${1}", 1, Set.of()),
+                HeaderTemplate.compile("const \"${0}\"", 1, Set.of()),
+        };
+        CsvJoinWriter writer = new CsvJoinWriter(headers, delimiter);
+        StringBuilder actual = writer.begin();
+        List<String[]> expectedRows = new ArrayList<>();
+        expectedRows.add(headers);
+        while (matcher.find()) {
+            writer.appendRow(actual, matcher, value, templates);
+            expectedRows.add(new String[]{matcher.group(1), "const \"" + matcher.group(0) + "\""});
+        }
+
+        assertEquals(openCsv(expectedRows, delimiter), actual.toString());
+    }
+
+    static List<Arguments> values() {
+        return List.of(
+                arguments(',', "simple"),
+                arguments(',', "with, delimiter"),
+                arguments('\t', "with\ttab"),
+                arguments(',', "with \"quotes\" inside"),
+                arguments(',', "\"\""),
+                arguments(',', "\"quoted\" at start and \"end\""),
+                arguments(',', "caf\u00e9 \"\u20ac\""),
+                arguments(';', "")
+        );
+    }
+
+    private static String openCsv(List<String[]> rows, char delimiter) {
+        var writer = new StringWriter();
+        var csvWriter = new CSVWriter(writer, delimiter, DEFAULT_QUOTE_CHARACTER, DEFAULT_ESCAPE_CHARACTER, DEFAULT_LINE_END);
+        rows.forEach(csvWriter::writeNext);
+        return writer.toString().trim();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import com.exactpro.th2.common.grpc.Direction;
+import com.exactpro.th2.readlog.regex.RequiredLiterals;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class TestDirectionClassifier {
+    private static final Direction[] DIRECTIONS = {Direction.FIRST, Direction.SECOND};
+    private static final List<String> LINES = List.of(
+            "",
+            "incoming message",
+            "outgoing message",
+            "outgoing reply for incoming message",
+            "incoming reply for outgoing message",
+            "abcabc 123",
+            "no direction here"
+    );
+
+    @ParameterizedTest
+    @MethodSource("patterns")
+    void classifiesAsPatternsCheckedInOrder(String first, String second) {
+        Pattern[] patterns = {Pattern.compile(first), Pattern.compile(second)};
+        String[] literals = {RequiredLiterals.longest(patterns[0]), RequiredLiterals.longest(patterns[1])};
+        DirectionClassifier classifier = DirectionClassifier.create(DIRECTIONS, patterns, literals);
+        for (int i = 0; i < 3000; i++) {
+            for (String line : LINES) {
+                assertEquals(sequential(patterns, line), classifier.classify(line), () -> "unexpected direction for '" + line + "'");
+            }
+        }
+    }
+
+    static List<Arguments> patterns() {
+        return List.of(
+                arguments("incoming", "outgoing"),
+                arguments("in(com)ing", "(out)going"),
+                arguments("message$", "^outgoing"),
+                arguments("(abc)\\1", "\\d+"),
+                arguments("(?<name>reply)", "(?<name>message)"),
+                arguments("outgoing", ".*"),
+                arguments(".*", "outgoing"),
+                arguments("(?i)INCOMING", "(?i)OUTGOING")
+        );
+    }
+
+    @Test
+    void classifiesFromSeveralThreads() throws InterruptedException {
+        // the back reference prevents combining, so the patterns are checked one by one
+        Pattern[] patterns = {Pattern.compile("(abc)\\1"), Pattern.compile("message")};
+        DirectionClassifier classifier = DirectionClassifier.create(DIRECTIONS, patterns, new String[2]);
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int thread = 0; thread < 4; thread++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < 5000; i++) {
+                        for (String line : LINES) {
+                            assertEquals(sequential(patterns, line), classifier.classify(line), () -> "unexpected direction for '" + line + "'");
+                        }
+                    }
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(List.of(), errors);
+    }
+
+    @Test
+    void doesNotExecuteAcceptAnyPattern() {
+        assertTrue(DirectionClassifier.isAcceptAny(Pattern.compile(".*")));
+        assertTrue(DirectionClassifier.isAcceptAny(Pattern.compile("")));
+        DirectionClassifier classifier = DirectionClassifier.create(new Direction[]{Direction.FIRST}, new Pattern[]{Pattern.compile(".*")}, new String[1]);
+        assertEquals(Direction.FIRST, classifier.classify("any line"));
+    }
+
+    private static Direction sequential(Pattern[] patterns, String line) {
+        for (int i = 0; i < patterns.length; i++) {
+            if (patterns[i].matcher(line).find()) {
+                return DIRECTIONS[i];
+            }
+        }
+        return null;
+    }
+}
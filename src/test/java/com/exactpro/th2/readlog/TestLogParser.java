@@ -29,6 +29,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import kotlin.Unit;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -124,6 +125,46 @@ public class TestLogParser {
         );
     }
 
+    @Test
+    void classifiesDirectionOfLineWithoutRequiredLiteral() {
+        AliasConfiguration cfg = new AliasConfiguration("body=(\\S+)", ".*",
+                Map.of(Direction.FIRST, "incoming", Direction.SECOND, "outgoing"), null, null);
+        cfg.setGroups(List.of(1));
+        RegexLogParser parser = new RegexLogParser(Map.of("literal", cfg));
+
+        LogData withoutBody = parser.parse(new StreamId("literal"), "outgoing heartbeat");
+        LogData withBody = parser.parse(new StreamId("literal"), "incoming body=42");
+
+        assertAll(
+                () -> assertEquals(Direction.SECOND, TransportUtilsKt.getProto(withoutBody.getDirection()), "the direction is classified before the literal check"),
+                () -> assertEquals(List.of(), withoutBody.getBody()),
+                () -> assertEquals(Direction.FIRST, TransportUtilsKt.getProto(withBody.getDirection())),
+                () -> assertEquals(List.of("42"), withBody.getBody())
+        );
+    }
+
+    @Test
+    void skipsLineExceedingMatchBudget() {
+        AliasConfiguration cfg = new AliasConfiguration("(.*x){10}y|(\\d+)", ".*", Map.of(), null, null);
+        cfg.setGroups(List.of(2));
+        cfg.setMatchStepLimit(100_000);
+        List<String> reported = new ArrayList<>();
+        RegexLogParser parser = new RegexLogParser(Map.of("test", cfg), (streamId, message, ex) -> {
+            reported.add(streamId.getSessionAlias() + ": " + message + " - " + ex.getMessage());
+            return Unit.INSTANCE;
+        });
+
+        LogData runaway = parser.parse(new StreamId("test"), "x".repeat(40));
+        LogData next = parser.parse(new StreamId("test"), "42");
+
+        assertAll(
+                () -> assertEquals(List.of(), runaway.getBody(), "the line must be skipped"),
+                () -> assertEquals(List.of("test: The line of 40 character(s) exceeded the match budget (100000 steps) and was skipped: "
+                        + "x".repeat(40) + " - the matching takes more than 100000 steps"), reported),
+                () -> assertEquals(List.of("42"), next.getBody(), "the next line must be parsed")
+        );
+    }
+
     private Map<String, AliasConfiguration> getConfiguration() {
         String regexp = "fix ([A-Za-z]+[=][\\{].*[\\}])";
         String timextampRegexp = "^202.+?(?= QUICK)";
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import com.exactpro.th2.common.grpc.Direction;
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
+import org.junit.jupiter.api.Test;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestParseResult {
+    private static final StreamId STREAM_ID = new StreamId("test");
+
+    @Test
+    void reusedResultMatchesLogData() {
+        AliasConfiguration cfg = new AliasConfiguration(
+                "(IN|OUT) (\\S+)",
+                ".*",
+                Map.of(Direction.FIRST, "IN", Direction.SECOND, "OUT"),
+                "^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}",
+                "yyyy-MM-dd HH:mm:ss"
+        );
+        cfg.setTimestampZone(ZoneOffset.UTC);
+        cfg.setGroups(List.of(2));
+        RegexLogParser parser = new RegexLogParser(Map.of(STREAM_ID.getSessionAlias(), cfg));
+        ParseResult result = new ParseResult();
+
+        for (String line : List.of(
+                "2024-01-01 10:00:00 IN first OUT été",
+                "no direction here",
+                "2024-01-01 10:00:01 OUT second"
+        )) {
+            boolean parsed = parser.parse(STREAM_ID, line, result);
+            LogData expected = parser.parse(STREAM_ID, line);
+            LogData actual = result.toLogData();
+            assertEquals(expected.getDirection() != null, parsed, line);
+            assertEquals(expected.getDirection(), actual.getDirection(), line);
+            assertEquals(expected.getBody(), actual.getBody(), line);
+            assertEquals(expected.getRawTimestamp(), actual.getRawTimestamp(), line);
+            assertEquals(expected.getParsedTimestamp(), actual.getParsedTimestamp(), line);
+            for (int i = 0; i < result.getBodyCount(); i++) {
+                assertArrayEquals(expected.getBody().get(i).getBytes(UTF_8), result.getBodyUtf8(i), line);
+            }
+        }
+        assertEquals(Instant.parse("2024-01-01T10:00:01Z"), result.getParsedTimestamp());
+    }
+
+    @Test
+    void joinedBody() {
+        AliasConfiguration cfg = new AliasConfiguration("(\\S+), (\\d+)", ".*", null, null, null);
+        cfg.setJoinGroups(true);
+        cfg.setHeadersFormat(Map.of("Header", "${1}"));
+        RegexLogParser parser = new RegexLogParser(Map.of(STREAM_ID.getSessionAlias(), cfg));
+        ParseResult result = new ParseResult();
+
+        assertTrue(parser.parse(STREAM_ID, "a, 1 b, 2", result));
+        assertEquals(1, result.getBodyCount());
+        assertEquals(parser.parse(STREAM_ID, "a, 1 b, 2").getBody().get(0), String.valueOf(result.getBody(0)));
+        assertNull(result.getRawTimestamp());
+    }
+
+    @Test
+    void skippedLineResetsResult() {
+        AliasConfiguration cfg = new AliasConfiguration(
+                ".+",
+                ".*",
+                Map.of(),
+                "^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}",
+                "yyyy-MM-dd HH:mm:ss"
+        );
+        cfg.setTimestampZone(ZoneOffset.UTC);
+        cfg.setSkipBefore(Instant.parse("2024-01-01T10:00:01Z"));
+        RegexLogParser parser = new RegexLogParser(Map.of(STREAM_ID.getSessionAlias(), cfg));
+        ParseResult result = new ParseResult();
+
+        assertTrue(parser.parse(STREAM_ID, "2024-01-01 10:00:02 second", result));
+        assertEquals(1, result.getBodyCount());
+        assertFalse(parser.parse(STREAM_ID, "2024-01-01 10:00:00 first", result));
+        assertEquals(0, result.getBodyCount());
+        assertNull(result.getDirection());
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import com.exactpro.th2.common.grpc.Direction;
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
+import io.prometheus.client.CollectorRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestReaderMetrics {
+    @Test
+    void countsLinesByOutcome() {
+        String alias = "metrics-lines";
+        AliasConfiguration cfg = new AliasConfiguration(
+                "(IN|OUT) (\\S+)",
+                ".*",
+                Map.of(Direction.FIRST, "IN", Direction.SECOND, "OUT"),
+                "^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}",
+                "yyyy-MM-dd HH:mm:ss"
+        );
+        cfg.setTimestampZone(ZoneOffset.UTC);
+        cfg.setSkipBefore(Instant.parse("2024-01-01T10:00:01Z"));
+        RegexLogParser parser = new RegexLogParser(Map.of(alias, cfg));
+        StreamId streamId = new StreamId(alias);
+
+        parser.parse(streamId, "2024-01-01 10:00:01 IN first");
+        parser.parse(streamId, "2024-01-01 10:00:02 OUT second");
+        parser.parse(streamId, "2024-01-01 10:00:00 IN skipped");
+        parser.parse(streamId, "2024-01-01 10:00:03 no direction");
+        // the line without the literal required by the regexp is still classified by the direction regexps
+        parser.parse(streamId, "2024-01-01 10:00:04 SKIP");
+
+        assertEquals(5, value("th2_read_log_lines_read_total", alias));
+        assertEquals(2, value("th2_read_log_lines_matched_total", alias));
+        assertEquals(1, value("th2_read_log_lines_skipped_before_total", alias));
+        assertEquals(2, value("th2_read_log_lines_skipped_by_direction_total", alias));
+        assertEquals(5, value("th2_read_log_parse_time_seconds_count", alias));
+        assertEquals(28 + 30 + 30 + 32 + 24, value("th2_read_log_bytes_read_total", alias));
+    }
+
+    @Test
+    void countsBytesOfNonAsciiLines() {
+        String alias = "metrics-bytes";
+        RegexLogParser parser = new RegexLogParser(Map.of(alias, new AliasConfiguration(".*", ".*", Map.of(Direction.FIRST, ".*"), null, null)));
+        StreamId streamId = new StreamId(alias);
+
+        parser.parse(streamId, "caf\u00e9 \u20ac \ud83d\ude00");
+
+        assertEquals(1, value("th2_read_log_lines_read_total", alias));
+        assertEquals(3 + 2 + 1 + 3 + 1 + 4, value("th2_read_log_bytes_read_total", alias));
+    }
+
+    @Test
+    void recordsPublishedBatches() {
+        String alias = "metrics-batches";
+        ReaderMetrics metrics = ReaderMetrics.forAlias(alias);
+
+        metrics.batchPublished(3, 1_000_000);
+        metrics.batchPublished(5, 3_000_000);
+
+        assertEquals(8, value("th2_read_log_messages_emitted_total", alias));
+        assertEquals(2, value("th2_read_log_publish_batch_size_count", alias));
+        assertEquals(8, value("th2_read_log_publish_batch_size_sum", alias));
+        assertEquals(0.004, value("th2_read_log_publish_latency_seconds_sum", alias), 1e-9);
+    }
+
+    private static double value(String name, String alias) {
+        Double value = CollectorRegistry.defaultRegistry.getSampleValue(name, new String[]{"session_alias"}, new String[]{alias});
+        return value == null ? 0 : value;
+    }
+}
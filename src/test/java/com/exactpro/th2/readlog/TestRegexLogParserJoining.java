@@ -18,6 +18,7 @@ package com.exactpro.th2.readlog;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.exactpro.th2.common.grpc.Direction;
 import com.exactpro.th2.read.file.common.StreamId;
@@ -180,4 +181,79 @@ public class TestRegexLogParserJoining {
                         + "\"B\",\"53\"",
                 body.get(0));
     }
+
+    @Test
+    void usesDefaultValueAndEscapedVariables() {
+        AliasConfiguration configuration = new AliasConfiguration(
+                "(\\S+),\\s+(\\d+)?",
+                ".*",
+                null,
+                null,
+                null
+        );
+        configuration.setJoinGroups(true);
+        configuration.setHeadersFormat(Map.of(
+                "HeaderA", "$${1} = ${1}",
+                "HeaderB", "${2:-none}"
+        ));
+        RegexLogParser parser = new RegexLogParser(Map.of("test", configuration));
+
+        LogData data = parser.parse(new StreamId("test"), "A, B, 53");
+        List<String> body = data.getBody();
+        Assertions.assertEquals(1, body.size(), () -> "Unexpected strings: " + body);
+        Assertions.assertEquals(
+                "\"HeaderA\",\"HeaderB\"\n"
+                        + "\"${1} = A\",\"none\"\n"
+                        + "\"${1} = B\",\"53\"",
+                body.get(0));
+    }
+
+    @Test
+    void reportsInvalidGroupIndexOnCreation() {
+        AliasConfiguration configuration = new AliasConfiguration(
+                "(\\S+),\\s+(\\d+)",
+                ".*",
+                null,
+                null,
+                null
+        );
+        configuration.setJoinGroups(true);
+        configuration.setHeadersFormat(Map.of(
+                "HeaderA", "${3}"
+        ));
+
+        var ex = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new RegexLogParser(Map.of("test", configuration)));
+        Assertions.assertTrue(ex.getMessage().startsWith("Invalid configuration for alias 'test'"),
+                () -> "Actual error: " + ex.getMessage());
+    }
+
+    @Test
+    void reportsUnknownGroupNameOnCreation() {
+        AliasConfiguration configuration = new AliasConfiguration(
+                "(?<A>\\S+),\\s+(?<B>\\d+)",
+                ".*",
+                null,
+                null,
+                null
+        );
+        configuration.setJoinGroups(true);
+        configuration.setHeadersFormat(Map.of(
+                "HeaderA", "${A}",
+                "HeaderC", "${C:-none}"
+        ));
+
+        var ex = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new RegexLogParser(Map.of("test", configuration)));
+        Assertions.assertTrue(ex.getMessage().startsWith("Invalid configuration for alias 'test'"),
+                () -> "Actual error: " + ex.getMessage());
+    }
+
+    @Test
+    void findsNamedGroups() {
+        Assertions.assertEquals(
+                Set.of("first", "second"),
+                HeaderTemplate.groupNames("(?<first>\\d+)(?<=a)(?<!b)\\(?<escaped>[(?<inClass>]\\Q(?<quoted>\\E(?P<second>x)")
+        );
+    }
 }
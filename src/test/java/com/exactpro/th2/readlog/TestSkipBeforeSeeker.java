@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestSkipBeforeSeeker {
+    private static final String ALIAS = "test";
+    private static final String FORMAT = "yyyy-MM-dd HH:mm:ss";
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int LINES = 10_000;
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest(name = "Skip before line: {0}")
+    @ValueSource(ints = {0, 1, 500, 5_000, 9_999, 10_000})
+    void startsFromLineBeforeSkipBefore(int skipBeforeLine) throws IOException {
+        Path file = writeLog("\n");
+        Instant skipBefore = timestamp(skipBeforeLine);
+        SkipBeforeSeeker seeker = new SkipBeforeSeeker(Map.of(ALIAS, configuration(skipBefore, true)), 1024);
+
+        long offset = seeker.startOffset(new StreamId(ALIAS), file);
+
+        String content = Files.readString(file);
+        assertTrue(offset == 0 || content.charAt((int) offset - 1) == '\n', "offset is not a line start: " + offset);
+        String skipped = content.substring(0, (int) offset);
+        String rest = content.substring((int) offset);
+        assertTrue(skipped.lines().allMatch(line -> parse(line).isBefore(skipBefore)), "lines after skip before are skipped");
+        assertTrue(rest.lines().limit(2_000).anyMatch(line -> !parse(line).isBefore(skipBefore)) || skipBeforeLine >= LINES,
+                "too many lines before skip before are read");
+    }
+
+    @Test
+    void handlesWindowsLineEnds() throws IOException {
+        Path file = writeLog("\r\n");
+        SkipBeforeSeeker seeker = new SkipBeforeSeeker(Map.of(ALIAS, configuration(timestamp(5_000), true)), 1024);
+
+        long offset = seeker.startOffset(new StreamId(ALIAS), file);
+
+        String content = Files.readString(file);
+        assertEquals('\n', content.charAt((int) offset - 1));
+        assertTrue(parse(content.substring((int) offset).lines().findFirst().orElseThrow()).isBefore(timestamp(5_000)));
+    }
+
+    @Test
+    void readsWholeFileWhenDisabled() throws IOException {
+        Path file = writeLog("\n");
+        AliasConfiguration disabled = configuration(timestamp(5_000), false);
+        AliasConfiguration noTimestamp = new AliasConfiguration(".*", ".*", Map.of(), null, null);
+        noTimestamp.setSkipBefore(timestamp(5_000));
+        SkipBeforeSeeker seeker = new SkipBeforeSeeker(Map.of(ALIAS, disabled, "other", noTimestamp), 1024);
+
+        assertEquals(0, seeker.startOffset(new StreamId(ALIAS), file));
+        assertEquals(0, seeker.startOffset(new StreamId("other"), file));
+        assertEquals(0, seeker.startOffset(new StreamId("unknown"), file));
+    }
+
+    @Test
+    void readsWholeFileByDefault() throws IOException {
+        Path file = writeLog("\n");
+        AliasConfiguration configuration = new AliasConfiguration(".*", ".*", Map.of(), "^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}", FORMAT);
+        configuration.setTimestampZone(ZoneOffset.UTC);
+        configuration.setSkipBefore(timestamp(5_000));
+        SkipBeforeSeeker seeker = new SkipBeforeSeeker(Map.of(ALIAS, configuration), 1024);
+
+        assertEquals(0, seeker.startOffset(new StreamId(ALIAS), file), "the timestamps may decrease unless seeking is enabled");
+    }
+
+    private Path writeLog(String lineEnd) throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < LINES; i++) {
+            content.append(START.plusSeconds(i).format(DateTimeFormatter.ofPattern(FORMAT)))
+                    .append(" line ").append(i).append(lineEnd);
+            if (i % 100 == 0) {
+                content.append("line without timestamp").append(lineEnd);
+            }
+        }
+        Path file = dir.resolve("test" + lineEnd.length() + ".log");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static AliasConfiguration configuration(Instant skipBefore, boolean seek) {
+        AliasConfiguration configuration = new AliasConfiguration(".*", ".*", Map.of(), "^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}", FORMAT);
+        configuration.setGroups(List.of(0));
+        configuration.setTimestampZone(ZoneOffset.UTC);
+        configuration.setSkipBefore(skipBefore);
+        configuration.setSeekToSkipBefore(seek);
+        return configuration;
+    }
+
+    private static Instant timestamp(int line) {
+        return START.plusSeconds(line).toInstant(ZoneOffset.UTC);
+    }
+
+    private static Instant parse(String line) {
+        if (!Character.isDigit(line.charAt(0))) {
+            return Instant.MIN;
+        }
+        return LocalDateTime.parse(line.substring(0, FORMAT.length()), DateTimeFormatter.ofPattern(FORMAT)).toInstant(ZoneOffset.UTC);
+    }
+}
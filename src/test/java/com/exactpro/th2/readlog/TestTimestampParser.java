@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class TestTimestampParser {
+    private static final ZoneId ZONE = ZoneId.of("Europe/London");
+
+    @ParameterizedTest(name = "{1} with {0}")
+    @MethodSource("timestamps")
+    void parsesSameAsFormatter(String pattern, String raw) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(pattern);
+        TimestampParser parser = TimestampParser.create(pattern, formatter, ZONE);
+
+        assertTrue(parser.hasFastPath(), "fast path is expected for " + pattern);
+        ZoneOffset offset = ZONE.getRules().getOffset(Instant.now());
+        try {
+            Instant expected = LocalDateTime.parse(raw, formatter).toInstant(offset);
+            assertEquals(expected, parser.parse(raw));
+        } catch (DateTimeException e) {
+            assertThrows(DateTimeException.class, () -> parser.parse(raw));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "yyyy-MM-dd HH:mm:ss a",
+            "yyyy-MMM-dd HH:mm:ss",
+            "yyyy-MM-dd[ HH:mm:ss]",
+            "dd.MM.yy HH:mm",
+            "yyyy-MM-dd",
+    })
+    void usesFormatterForUnsupportedLayouts(String pattern) {
+        assertFalse(TimestampParser.create(pattern, DateTimeFormatter.ofPattern(pattern), ZONE).hasFastPath());
+    }
+
+    @Test
+    void updatesOffsetAfterTransition() {
+        String pattern = "yyyy-MM-dd HH:mm:ss";
+        MutableClock clock = new MutableClock(Instant.parse("2024-03-31T00:59:59Z"));
+        TimestampParser parser = TimestampParser.create(pattern, DateTimeFormatter.ofPattern(pattern), ZONE, clock);
+
+        assertEquals(Instant.parse("2024-03-31T12:00:00Z"), parser.parse("2024-03-31 12:00:00"));
+        clock.now = Instant.parse("2024-03-31T01:00:00Z");
+        assertEquals(Instant.parse("2024-03-31T11:00:00Z"), parser.parse("2024-03-31 12:00:00"));
+    }
+
+    static List<Arguments> timestamps() {
+        return List.of(
+                arguments("yyyy-MM-dd HH:mm:ss.SSS", "2021-03-23 13:21:37.991"),
+                arguments("yyyy-MM-dd HH:mm:ss,SSS", "2021-03-23 13:21:37,991"),
+                arguments("yyyy-MM-dd HH:mm:ss.SSSSSSSSS", "2021-03-23 13:21:37.991337479"),
+                arguments("yyyyMMdd-HH:mm:ss.SSS", "20210323-13:21:37.001"),
+                arguments("uuuu-MM-dd'T'HH:mm:ss", "2024-02-29T23:59:59"),
+                arguments("yyyy-MM-dd HH:mm", "2024-12-31 00:00"),
+                arguments("yyyy-MM-dd HH:mm:ss", "2023-04-31 10:00:00"),
+                arguments("yyyy-MM-dd HH:mm:ss", "2023-02-30 10:00:00"),
+                arguments("yyyy-MM-dd HH:mm:ss", "2023-13-01 10:00:00"),
+                arguments("yyyy-MM-dd HH:mm:ss", "2023-01-01 24:00:00"),
+                arguments("yyyy-MM-dd HH:mm:ss", "2023-01-01T10:00:00"),
+                arguments("yyyy-MM-dd HH:mm:ss", "2023-01-01 10:00"),
+                arguments("yyyy-MM-dd HH:mm:ss", "2023-0a-01 10:00:00")
+        );
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestUpdatesLoop {
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void backsOffWhileIdle() {
+        assertEquals(20, UpdatesLoop.nextDelay(10, false, 10, 100));
+        assertEquals(100, UpdatesLoop.nextDelay(80, false, 10, 100));
+        assertEquals(10, UpdatesLoop.nextDelay(80, true, 10, 100));
+        assertEquals(2, UpdatesLoop.nextDelay(0, false, 0, 100));
+    }
+
+    @Test
+    void usesFixedDelayIfBoundsAreEqual() {
+        assertEquals(50, UpdatesLoop.nextDelay(50, false, 50, 50));
+        assertEquals(50, UpdatesLoop.nextDelay(50, true, 50, 50));
+    }
+
+    @Test
+    void rejectsMinDelayAboveMax() {
+        assertThrows(IllegalArgumentException.class, () -> new UpdatesLoop(executor, Duration.ofSeconds(2), Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void runsTaskOnWakeUp() throws InterruptedException {
+        CountDownLatch first = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(2);
+        try (UpdatesLoop loop = new UpdatesLoop(executor, Duration.ofMinutes(1), Duration.ofMinutes(1))) {
+            loop.start(() -> {
+                first.countDown();
+                second.countDown();
+            });
+            assertTrue(first.await(5, TimeUnit.SECONDS), "first run");
+            loop.wakeUp();
+            assertTrue(second.await(5, TimeUnit.SECONDS), "run after wake up");
+        }
+    }
+
+    @Test
+    void runsAgainIfWokenUpWhileRunning() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(2);
+        try (UpdatesLoop loop = new UpdatesLoop(executor, Duration.ofMinutes(1), Duration.ofMinutes(1))) {
+            loop.start(() -> {
+                if (runs.incrementAndGet() == 1) {
+                    // a file is changed while the directory is processed
+                    Thread watcher = new Thread(loop::wakeUp);
+                    watcher.start();
+                    try {
+                        watcher.join();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                done.countDown();
+            });
+            assertTrue(done.await(5, TimeUnit.SECONDS), "run after wake up during the previous run");
+        }
+    }
+}
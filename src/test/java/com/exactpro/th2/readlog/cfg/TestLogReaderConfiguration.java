@@ -21,15 +21,18 @@ import java.io.InputStream;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import com.exactpro.th2.common.grpc.Direction;
 import org.jetbrains.annotations.Nullable;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TestLogReaderConfiguration {
@@ -51,6 +54,13 @@ class TestLogReaderConfiguration {
                     aliasB.getSkipBefore(),
                     "unexpected 'skipBefore' value"
             );
+            assertEquals(List.of(SortingConfiguration.CompareAs.TIME, SortingConfiguration.CompareAs.NUMBER),
+                    aliasA.getSorting().stream().map(SortingConfiguration::getCompareAs).collect(Collectors.toList()));
+            SortingConfiguration.TimeSortingConfiguration time = (SortingConfiguration.TimeSortingConfiguration) aliasA.getSorting().get(0);
+            assertEquals("yyyy-MM-dd", time.getTimeFormat());
+            assertFalse(time.isReversed());
+            assertTrue(aliasA.getSorting().get(1).isReversed());
+            assertEquals(List.of(), aliasB.getSorting());
         }
     }
 
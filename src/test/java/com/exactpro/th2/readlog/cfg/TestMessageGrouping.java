@@ -0,0 +1,72 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.cfg;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TestMessageGrouping {
+    private static final List<String> MESSAGES = List.of("in1", "in2", "out3", "out4", "out5", "in6");
+    private static final Function<String, String> DIRECTION = message -> message.substring(0, message.length() - 1);
+
+    @Test
+    void putsEachMessageIntoOwnGroup() {
+        assertEquals(
+                List.of(List.of("in1"), List.of("in2"), List.of("out3"), List.of("out4"), List.of("out5"), List.of("in6")),
+                MessageGrouping.MESSAGE.split(MESSAGES, DIRECTION, 0)
+        );
+    }
+
+    @Test
+    void putsBatchIntoOneGroup() {
+        assertEquals(List.of(MESSAGES), MessageGrouping.BATCH.split(MESSAGES, DIRECTION, 0));
+    }
+
+    @Test
+    void splitsBatchBySize() {
+        assertEquals(
+                List.of(List.of("in1", "in2", "out3", "out4"), List.of("out5", "in6")),
+                MessageGrouping.BATCH.split(MESSAGES, DIRECTION, 4)
+        );
+    }
+
+    @Test
+    void splitsByDirection() {
+        assertEquals(
+                List.of(List.of("in1", "in2"), List.of("out3", "out4", "out5"), List.of("in6")),
+                MessageGrouping.DIRECTION.split(MESSAGES, DIRECTION, 0)
+        );
+    }
+
+    @Test
+    void splitsByDirectionAndSize() {
+        assertEquals(
+                List.of(List.of("in1", "in2"), List.of("out3", "out4"), List.of("out5"), List.of("in6")),
+                MessageGrouping.DIRECTION.split(MESSAGES, DIRECTION, 2)
+        );
+    }
+
+    @Test
+    void rejectsNegativeMaxGroupSize() {
+        assertThrows(IllegalArgumentException.class, () -> MessageGrouping.BATCH.split(MESSAGES, DIRECTION, -1));
+    }
+}
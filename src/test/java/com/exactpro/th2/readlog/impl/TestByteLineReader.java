@@ -0,0 +1,200 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.exactpro.th2.common.grpc.Direction;
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.readlog.LogData;
+import com.exactpro.th2.readlog.RegexLogParser;
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestByteLineReader {
+    private static final String[] PARTS = {"8=FIX.4.4", "|", " ", "\n", "\r", "\r\n", "\u00E4", "\u20AC", "\uD83D\uDE00", "10=123"};
+
+    @ParameterizedTest(name = "Buffer size: {0}")
+    @ValueSource(ints = {1, 2, 3, 7, 64, 1024})
+    void readsSameLinesAsLineNumberReader(int bufferSize) throws IOException {
+        Random random = new Random(bufferSize);
+        for (int attempt = 0; attempt < 200; attempt++) {
+            String content = randomContent(random);
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            LineNumberReader expected = new LineNumberReader(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+            ByteLineReader actual = new ArrayLineReader(bytes, bytes.length, bufferSize);
+
+            String expectedLine;
+            do {
+                expectedLine = expected.readLine();
+                CharSequence actualLine = actual.readLineSequence();
+                assertEquals(expectedLine, actualLine == null ? null : actualLine.toString(), () -> "content: " + content);
+                if (actualLine != null && actualLine.chars().allMatch(it -> it < 0x80)) {
+                    assertInstanceOf(ByteSlice.class, actualLine);
+                }
+                assertEquals(expected.getLineNumber(), actual.getLineNumber());
+            } while (expectedLine != null);
+        }
+    }
+
+    @ParameterizedTest(name = "Buffer size: {0}")
+    @ValueSource(ints = {1, 3, 1024})
+    void readsSameCharactersAsLineNumberReader(int bufferSize) throws IOException {
+        Random random = new Random(bufferSize);
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String content = randomContent(random);
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            LineNumberReader expected = new LineNumberReader(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8));
+            ByteLineReader actual = new ArrayLineReader(bytes, bytes.length, bufferSize);
+
+            int expectedChar;
+            do {
+                expectedChar = expected.read();
+                assertEquals(expectedChar, actual.read(), () -> "content: " + content);
+            } while (expectedChar >= 0);
+        }
+    }
+
+    @Test
+    void resetsToMarkAfterBufferIsShifted() throws IOException {
+        String content = IntStream.range(0, 100).mapToObj(it -> "line " + it).reduce("", (a, b) -> a + b + "\r\n");
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        ByteLineReader reader = new ArrayLineReader(bytes, bytes.length, 4);
+
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            reader.mark(1);
+            String first = reader.readLine();
+            reader.readLine();
+            reader.reset();
+            assertEquals(first, reader.readLine());
+            assertEquals(i + 1, reader.getLineNumber());
+            lines.add(first);
+        }
+        assertEquals(new BufferedReader(new InputStreamReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8)).lines().collect(Collectors.toList()), lines);
+        assertNull(reader.readLine());
+    }
+
+    @Test
+    void continuesReadingWhenSourceGrows() throws IOException {
+        byte[] bytes = "first\r\nsecond\nthi".getBytes(StandardCharsets.UTF_8);
+        byte[] appended = "first\r\nsecond\nthird\n".getBytes(StandardCharsets.UTF_8);
+        ArrayLineReader reader = new ArrayLineReader(appended, 7, 16);
+
+        assertEquals("first", reader.readLine());
+        assertFalse(reader.ready(), "the \\n after \\r is not available yet");
+        reader.available = bytes.length;
+        assertTrue(reader.ready());
+        assertEquals("second", reader.readLine());
+        reader.mark(1);
+        assertEquals("thi", reader.readLine(), "incomplete line at the end");
+        assertFalse(reader.ready());
+        reader.reset();
+        reader.available = appended.length;
+        assertEquals("third", reader.readLine());
+        assertFalse(reader.ready());
+        assertNull(reader.readLine());
+    }
+
+    @Test
+    void reportsMalformedInput() {
+        byte[] bytes = {'a', (byte) 0xC3, '\n'};
+        ByteLineReader reader = new ArrayLineReader(bytes, bytes.length, 16);
+
+        assertThrows(MalformedInputException.class, reader::readLine);
+    }
+
+    @Test
+    void extractsSameBodyFromSliceAndString() {
+        AliasConfiguration configuration = new AliasConfiguration("(8=FIX.+?)(10=\\d+)", ".*", Map.of(Direction.SECOND, "OUT"), "^\\d+", null);
+        configuration.setGroups(List.of(1, 2));
+        RegexLogParser parser = new RegexLogParser(Map.of("test", configuration));
+        String line = "123 OUT 8=FIX.4.4|35=A|10=001|8=FIX.4.4|35=0|10=002|";
+        byte[] bytes = ("prefix" + line).getBytes(StandardCharsets.US_ASCII);
+
+        LogData fromSlice = parser.parse(new StreamId("test"), new ByteSlice(bytes, "prefix".length(), line.length()));
+        LogData fromString = parser.parse(new StreamId("test"), line);
+
+        assertEquals(fromString.getBody(), fromSlice.getBody());
+        assertEquals(List.of("8=FIX.4.4|35=A|", "10=001", "8=FIX.4.4|35=0|", "10=002"), fromSlice.getBody());
+        assertTrue(fromSlice.getBodySequences().stream().allMatch(ByteSlice.class::isInstance), "body is copied");
+        assertEquals(fromString.getRawTimestamp(), fromSlice.getRawTimestamp());
+        assertEquals(fromString.getDirection(), fromSlice.getDirection());
+    }
+
+    private static String randomContent(Random random) {
+        StringBuilder content = new StringBuilder();
+        int parts = random.nextInt(30);
+        for (int i = 0; i < parts; i++) {
+            content.append(PARTS[random.nextInt(PARTS.length)]);
+        }
+        return content.toString();
+    }
+
+    private static final class ArrayLineReader extends ByteLineReader {
+        private final byte[] content;
+        private int available;
+        private int read;
+
+        private ArrayLineReader(byte[] content, int available, int bufferSize) {
+            super(bufferSize);
+            this.content = content;
+            this.available = available;
+        }
+
+        @Override
+        protected int readBytes(byte[] target, int offset, int length) {
+            int count = Math.min(length, available - read);
+            if (count <= 0) {
+                return -1;
+            }
+            System.arraycopy(content, read, target, offset, count);
+            read += count;
+            return count;
+        }
+
+        @Override
+        protected boolean hasAvailableBytes() {
+            return read < available;
+        }
+
+        @Override
+        protected void closeSource() {
+        }
+    }
+}
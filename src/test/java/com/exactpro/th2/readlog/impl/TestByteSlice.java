@@ -0,0 +1,62 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TestByteSlice {
+    private static final char[] CHARS = {'a', '|', '\u00E4', '\u07FF', '\u0800', '\u20AC', '\uFFFF', '\uD83D', '\uDE00'};
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "8=FIX.4.4|35=A", "\u00E4\u20AC", "\uD83D\uDE00", "unpaired \uD83D", "unpaired \uDE00 low", "\uDE00\uD83D"})
+    void encodesSameAsString(String value) {
+        assertArrayEquals(value.getBytes(StandardCharsets.UTF_8), ByteSlice.toUtf8(value));
+        assertArrayEquals(value.getBytes(StandardCharsets.UTF_8), ByteSlice.toUtf8(new StringBuilder(value)));
+        assertEquals(value.getBytes(StandardCharsets.UTF_8).length, ByteSlice.utf8Length(value));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3})
+    void encodesRandomCharactersSameAsString(int seed) {
+        Random random = new Random(seed);
+        for (int attempt = 0; attempt < 1000; attempt++) {
+            char[] value = new char[random.nextInt(10)];
+            for (int i = 0; i < value.length; i++) {
+                value[i] = CHARS[random.nextInt(CHARS.length)];
+            }
+            String string = new String(value);
+            assertArrayEquals(string.getBytes(StandardCharsets.UTF_8), ByteSlice.toUtf8(string), string);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "8=FIX.4.4|35=A"})
+    void copiesAsciiSlice(String value) {
+        byte[] bytes = ("prefix " + value + " suffix").getBytes(StandardCharsets.US_ASCII);
+        ByteSlice slice = new ByteSlice(bytes, "prefix ".length(), value.length());
+
+        assertArrayEquals(value.getBytes(StandardCharsets.US_ASCII), ByteSlice.toUtf8(slice));
+        assertEquals(value.length(), ByteSlice.utf8Length(slice));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TestCompression {
+    @TempDir
+    Path directory;
+
+    @Test
+    void detectsByExtension() throws IOException {
+        assertEquals(Compression.GZIP, detect("app.log.1.gz", new byte[0]));
+        assertEquals(Compression.GZIP, detect("APP.LOG.GZ", new byte[0]));
+        assertEquals(Compression.ZSTD, detect("app.log.zst", new byte[0]));
+    }
+
+    @Test
+    void detectsByMagicBytes() throws IOException {
+        Path gzip = directory.resolve("app.log.1");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzip))) {
+            out.write("line\n".getBytes());
+        }
+        Path zstd = directory.resolve("app.log.2");
+        try (OutputStream out = new ZstdOutputStream(Files.newOutputStream(zstd))) {
+            out.write("line\n".getBytes());
+        }
+
+        assertEquals(Compression.GZIP, Compression.detect(gzip));
+        assertEquals(Compression.ZSTD, Compression.detect(zstd));
+    }
+
+    @Test
+    void plainFileIsNotCompressed() throws IOException {
+        assertEquals(Compression.NONE, detect("app.log", "2024-01-01 line\n".getBytes()));
+        assertEquals(Compression.NONE, detect("empty.log", new byte[0]));
+        assertEquals(Compression.NONE, detect("short.log", new byte[] {0x1F}));
+    }
+
+    private Compression detect(String name, byte[] content) throws IOException {
+        Path file = directory.resolve(name);
+        Files.write(file, content);
+        return Compression.detect(file);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
+import com.exactpro.th2.readlog.cfg.SortingConfiguration;
+import com.exactpro.th2.readlog.cfg.SortingConfiguration.NumberSortingConfiguration;
+import com.exactpro.th2.readlog.cfg.SortingConfiguration.StringSortingConfiguration;
+import com.exactpro.th2.readlog.cfg.SortingConfiguration.TimeSortingConfiguration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TestFileSorter {
+    private static final Path DIRECTORY = Path.of("logs");
+
+    @Test
+    void sortsByNameWithoutSorting() {
+        FileSorter sorter = new FileSorter(Map.of("test", alias("(?i)app.*")));
+
+        assertEquals(List.of("app.log", "App.log.1", "app.log.10", "app.log.9"), sort(sorter, "app.log.9", "app.log.10", "App.log.1", "app.log"));
+    }
+
+    @Test
+    void sortsByNumber() {
+        FileSorter sorter = new FileSorter(Map.of("test", alias("app.*", new NumberSortingConfiguration("\\.(\\d+)$", false))));
+
+        assertEquals(List.of("app.log.1", "app.log.9", "app.log.10", "app.log"), sort(sorter, "app.log.10", "app.log", "app.log.9", "app.log.1"),
+                "the file without the number goes last");
+    }
+
+    @Test
+    void sortsByReversedNumber() {
+        FileSorter sorter = new FileSorter(Map.of("test", alias("app.*", new NumberSortingConfiguration("\\d+", true))));
+
+        assertEquals(List.of("app.log.10", "app.log.9", "app.log.1", "app.log"), sort(sorter, "app.log.1", "app.log", "app.log.9", "app.log.10"));
+    }
+
+    @Test
+    void sortsByTime() {
+        FileSorter sorter = new FileSorter(Map.of("test", alias("app.*",
+                new TimeSortingConfiguration("(\\d{2}-\\d{2}-\\d{4}_\\d{2})", false, "dd-MM-yyyy_HH"))));
+
+        assertEquals(
+                List.of("app-31-12-2023_23.log", "app-01-01-2024_00.log", "app-01-01-2024_13.log", "app-02-01-2024_01.log"),
+                sort(sorter, "app-01-01-2024_13.log", "app-02-01-2024_01.log", "app-31-12-2023_23.log", "app-01-01-2024_00.log")
+        );
+    }
+
+    @Test
+    void sortsBySeveralKeys() {
+        FileSorter sorter = new FileSorter(Map.of("test", alias(".*\\.log.*",
+                new StringSortingConfiguration("^[a-z]+", false),
+                new NumberSortingConfiguration("\\.(\\d+)$", true))));
+
+        assertEquals(
+                List.of("api.log.2", "api.log.1", "api.log", "web.log.3", "web.log"),
+                sort(sorter, "web.log", "api.log.1", "web.log.3", "api.log", "api.log.2")
+        );
+    }
+
+    @Test
+    void groupsFilesByAlias() {
+        FileSorter sorter = new FileSorter(Map.of(
+                "b", alias("b.*", new NumberSortingConfiguration("\\d+", true)),
+                "a", alias("a.*", new NumberSortingConfiguration("\\d+", false))
+        ));
+
+        assertEquals(
+                List.of("other.log", "a.2", "a.11", "b.11", "b.2"),
+                sort(sorter, "b.2", "a.11", "b.11", "other.log", "a.2")
+        );
+    }
+
+    @Test
+    void sortsFileWithInvalidKeyAsFileWithoutKey() {
+        FileSorter sorter = new FileSorter(Map.of("test", alias("app.*", new NumberSortingConfiguration("\\.(\\d+)$", false))));
+
+        assertEquals(List.of("app.log.1", "app.log.99999999999999999999"), sort(sorter, "app.log.99999999999999999999", "app.log.1"));
+    }
+
+    @Test
+    void removesKeysOfDeletedFiles() {
+        FileSorter sorter = new FileSorter(Map.of("test", alias("app.*", new NumberSortingConfiguration("\\d+", false))));
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            files.add(DIRECTORY.resolve("app.log." + i));
+        }
+        Collections.shuffle(files);
+        sorter.sort(files);
+        assertEquals(100, sorter.cachedKeys());
+
+        List<Path> rest = new ArrayList<>(files.subList(90, 100));
+        Collections.shuffle(rest);
+        sorter.sort(rest);
+
+        assertEquals(files.subList(90, 100), rest);
+        assertEquals(10, sorter.cachedKeys());
+    }
+
+    private static List<String> sort(FileSorter sorter, String... names) {
+        List<Path> files = new ArrayList<>();
+        for (String name : names) {
+            files.add(DIRECTORY.resolve(name));
+        }
+        sorter.sort(files);
+        return files.stream().map(path -> path.getFileName().toString()).collect(Collectors.toList());
+    }
+
+    private static AliasConfiguration alias(String pathFilter, SortingConfiguration... sorting) {
+        AliasConfiguration configuration = new AliasConfiguration(".*", pathFilter, null, null, null);
+        configuration.setSorting(List.of(sorting));
+        return configuration;
+    }
+}
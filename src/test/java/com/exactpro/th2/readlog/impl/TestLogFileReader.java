@@ -0,0 +1,63 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TestLogFileReader {
+    @Test
+    void partitionsAliasesByName() {
+        Map<String, AliasConfiguration> aliases = aliases("E", "A", "D", "C", "B");
+
+        List<Map<String, AliasConfiguration>> partitions = LogFileReader.partitionAliases(aliases, 2);
+
+        assertEquals(List.of(Set.of("A", "C", "E"), Set.of("B", "D")), keys(partitions));
+        partitions.forEach(partition -> partition.forEach((alias, cfg) -> assertEquals(aliases.get(alias), cfg)));
+    }
+
+    @Test
+    void createsPartitionForEachAliasIfWorkersAreMore() {
+        assertEquals(List.of(Set.of("A"), Set.of("B")), keys(LogFileReader.partitionAliases(aliases("B", "A"), 4)));
+    }
+
+    @Test
+    void rejectsNotPositiveWorkers() {
+        assertThrows(IllegalArgumentException.class, () -> LogFileReader.partitionAliases(aliases("A"), 0));
+    }
+
+    private static List<Set<String>> keys(List<Map<String, AliasConfiguration>> partitions) {
+        return partitions.stream().map(Map::keySet).collect(Collectors.toList());
+    }
+
+    private static Map<String, AliasConfiguration> aliases(String... names) {
+        Map<String, AliasConfiguration> aliases = new LinkedHashMap<>();
+        for (String name : names) {
+            aliases.put(name, new AliasConfiguration(".*", ".*", Map.of(), null, null));
+        }
+        return aliases;
+    }
+}
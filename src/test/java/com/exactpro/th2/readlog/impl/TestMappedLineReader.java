@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestMappedLineReader {
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest(name = "Window size: {0}")
+    @ValueSource(longs = {1, 5, 17, 1024})
+    void readsLinesAcrossWindows(long windowSize) throws IOException {
+        Path file = directory.resolve("test.log");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            lines.add("line " + i + (i % 7 == 0 ? " \u00E4\u20AC" : ""));
+        }
+        Files.write(file, lines, StandardCharsets.UTF_8);
+
+        try (MappedLineReader reader = MappedLineReader.open(file, 0, windowSize, 8)) {
+            assertEquals(lines, readAll(reader));
+            assertEquals(lines.size(), reader.getLineNumber());
+        }
+    }
+
+    @Test
+    void startsFromOffset() throws IOException {
+        Path file = directory.resolve("test.log");
+        Files.writeString(file, "first\nsecond\nthird\n");
+
+        try (MappedLineReader reader = MappedLineReader.open(file, "first\n".length(), 4, 4)) {
+            assertEquals(List.of("second", "third"), readAll(reader));
+        }
+    }
+
+    @Test
+    void readsAppendedData() throws IOException {
+        Path file = directory.resolve("test.log");
+        Files.writeString(file, "first\nsec");
+
+        try (MappedLineReader reader = MappedLineReader.open(file, 0, 1024, 4)) {
+            assertEquals("first", reader.readLine());
+            reader.mark(0);
+            assertEquals("sec", reader.readLine());
+            assertFalse(reader.ready());
+
+            // partial line is read again when the rest of it is appended
+            reader.reset();
+            Files.writeString(file, "ond\nthird\n", StandardOpenOption.APPEND);
+            assertTrue(reader.ready());
+            assertEquals(List.of("second", "third"), readAll(reader));
+            assertNull(reader.readLine());
+        }
+    }
+
+    private static List<String> readAll(MappedLineReader reader) throws IOException {
+        List<String> result = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            result.add(line);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import com.exactpro.th2.common.grpc.Direction;
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.readlog.LogData;
+import com.exactpro.th2.readlog.ParseResult;
+import com.exactpro.th2.readlog.RegexLogParser;
+import com.exactpro.th2.readlog.cfg.AliasConfiguration;
+import io.prometheus.client.CollectorRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestParsingPipeline {
+    private static final String ALIAS = "test";
+    private static final StreamId STREAM_ID = new StreamId(ALIAS);
+
+    private final RegexLogParser parser = new RegexLogParser(Map.of(ALIAS, new AliasConfiguration(
+            "(\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}) (.*)",
+            ".*",
+            Map.of(Direction.FIRST, "IN", Direction.SECOND, "OUT"),
+            "\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}",
+            "yyyy-MM-dd HH:mm:ss"
+    )));
+    private final ThreadPoolExecutor executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(3);
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void parsesSameAsSerially() throws IOException {
+        Path file = directory.resolve("test.log");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            content.append("2024-01-01 10:").append(String.format("%02d:%02d", i / 60, i % 60))
+                    .append(i % 2 == 0 ? " IN " : " OUT ")
+                    .append(i % 11 == 0 ? "\u00E4\u20AC" : "data")
+                    .append(i)
+                    .append(i % 3 == 0 ? "\r\n" : i % 5 == 0 ? "\r" : "\n");
+            if (i % 17 == 0) {
+                content.append("2024-13-45 10:00:00 IN wrong timestamp\n");
+            }
+            if (i % 19 == 0) {
+                content.append("no timestamp\n");
+            }
+        }
+        Files.writeString(file, content);
+
+        try (FileLineReader reader = FileLineReader.open(file, 0)) {
+            assertEquals(serial(file), pipelined(reader, pipeline()));
+        }
+        assertTrue(executor.getTaskCount() > 0, "lines are not parsed by the executor");
+    }
+
+    @Test
+    void parsesLinesAgainAfterReset() throws IOException {
+        Path file = directory.resolve("test.log");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            lines.add("2024-01-01 10:00:" + String.format("%02d", i) + " IN " + i);
+        }
+        Files.write(file, lines);
+        List<String> expected = serial(file);
+        ParsingPipeline pipeline = pipeline();
+
+        try (FileLineReader reader = FileLineReader.open(file, 0)) {
+            List<String> actual = new ArrayList<>();
+            actual.add(next(reader, pipeline));
+            reader.mark(0);
+            for (int i = 0; i < 7; i++) {
+                next(reader, pipeline);
+            }
+            reader.reset();
+            actual.addAll(pipelined(reader, pipeline));
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void keepsInlineResultWhenBufferIsCompacted() throws IOException {
+        Path file = directory.resolve("test.log");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            lines.add("2024-01-01 10:00:00 IN " + String.format("line-%06d-", i) + "x".repeat(i % 50));
+        }
+        Files.write(file, lines);
+        List<String> expected = serial(file);
+        // the lines are parsed by the reading thread but the following lines are still read ahead
+        executor.shutdown();
+        ParsingPipeline pipeline = pipeline();
+
+        try (FileLineReader reader = FileLineReader.open(file, 0)) {
+            List<String> actual = new ArrayList<>();
+            String parsed;
+            do {
+                // the reader keeps the line from the mark when the buffer is compacted
+                reader.mark(0);
+                parsed = next(reader, pipeline);
+                if (parsed != null) {
+                    actual.add(parsed);
+                }
+            } while (parsed != null);
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void countsMetricsOfReadLinesOnly() throws IOException, InterruptedException {
+        String alias = "pipeline-metrics";
+        StreamId streamId = new StreamId(alias);
+        RegexLogParser parser = new RegexLogParser(Map.of(alias, new AliasConfiguration("(.*)", ".*", Map.of(Direction.FIRST, "IN"), null, null)));
+        ParsingPipeline pipeline = new ParsingPipeline(parser, Set.of(alias), executor, 3, 64, 2);
+        Path file = directory.resolve("test.log");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            lines.add("IN " + i);
+        }
+        Files.write(file, lines);
+
+        try (FileLineReader reader = FileLineReader.open(file, 0)) {
+            long key = reader.streamPosition();
+            pipeline.parse(streamId, reader, key, reader.readLineSequence(), new ParseResult());
+        }
+        while (executor.getCompletedTaskCount() < executor.getTaskCount()) {
+            Thread.sleep(10);
+        }
+        assertTrue(executor.getCompletedTaskCount() > 0, "lines are not parsed ahead");
+        // the lines parsed ahead for the previous reader are discarded
+        try (FileLineReader reader = FileLineReader.open(file, 0)) {
+            long key = reader.streamPosition();
+            CharSequence line;
+            while ((line = reader.readLineSequence()) != null) {
+                pipeline.parse(streamId, reader, key, line, new ParseResult());
+                key = reader.streamPosition();
+            }
+        }
+
+        assertEquals(1 + 20, metric("th2_read_log_lines_read_total", alias));
+        assertEquals(1 + 20, metric("th2_read_log_lines_matched_total", alias));
+        assertEquals(1 + 20, metric("th2_read_log_parse_time_seconds_count", alias));
+    }
+
+    @Test
+    void parsesAppendedLines() throws IOException {
+        Path file = directory.resolve("test.log");
+        Files.writeString(file, "2024-01-01 10:00:00 IN first\n2024-01-01 10:00:01 OUT sec");
+        ParsingPipeline pipeline = pipeline();
+
+        try (FileLineReader reader = FileLineReader.open(file, 0)) {
+            assertEquals(describe(parser.parse(STREAM_ID, "2024-01-01 10:00:00 IN first")), next(reader, pipeline));
+            reader.mark(0);
+            assertEquals(describe(parser.parse(STREAM_ID, "2024-01-01 10:00:01 OUT sec")), next(reader, pipeline));
+
+            reader.reset();
+            Files.writeString(file, "ond\n2024-01-01 10:00:02 IN third\n", StandardOpenOption.APPEND);
+            assertEquals(List.of(
+                    describe(parser.parse(STREAM_ID, "2024-01-01 10:00:01 OUT second")),
+                    describe(parser.parse(STREAM_ID, "2024-01-01 10:00:02 IN third"))
+            ), pipelined(reader, pipeline));
+        }
+    }
+
+    private ParsingPipeline pipeline() {
+        return new ParsingPipeline(parser, Set.of(ALIAS), executor, 3, 64, 2);
+    }
+
+    private List<String> serial(Path file) throws IOException {
+        List<String> result = new ArrayList<>();
+        for (String line : new String(Files.readAllBytes(file), StandardCharsets.UTF_8).split("\r\n|\r|\n")) {
+            result.add(parse(line));
+        }
+        return result;
+    }
+
+    private static List<String> pipelined(FileLineReader reader, ParsingPipeline pipeline) throws IOException {
+        List<String> result = new ArrayList<>();
+        String parsed;
+        while ((parsed = next(reader, pipeline)) != null) {
+            result.add(parsed);
+        }
+        assertNull(reader.readLineSequence());
+        return result;
+    }
+
+    private static String next(FileLineReader reader, ParsingPipeline pipeline) throws IOException {
+        long key = reader.streamPosition();
+        CharSequence line = reader.readLineSequence();
+        if (line == null) {
+            return null;
+        }
+        try {
+            return describe(pipeline.parse(STREAM_ID, reader, key, line, new ParseResult()).toLogData());
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    private String parse(String line) {
+        try {
+            return describe(parser.parse(STREAM_ID, line));
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    private static double metric(String name, String alias) {
+        Double value = CollectorRegistry.defaultRegistry.getSampleValue(name, new String[]{"session_alias"}, new String[]{alias});
+        return value == null ? 0 : value;
+    }
+
+    private static String describe(LogData data) {
+        return data.getDirection() + " " + data.getRawTimestamp() + " " + data.getParsedTimestamp() + " " + data.getBody();
+    }
+}
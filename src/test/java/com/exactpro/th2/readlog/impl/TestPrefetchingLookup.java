@@ -0,0 +1,170 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.read.file.common.state.StreamData;
+import org.junit.jupiter.api.Test;
+
+import static com.exactpro.th2.readlog.impl.TestProbingLookup.data;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestPrefetchingLookup {
+    private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+    private static final StreamId STREAM = new StreamId("test");
+
+    private final MutableClock clock = new MutableClock(NOW);
+    private final InMemoryStreamStore store = new InMemoryStreamStore();
+    private final Map<StreamId, AtomicInteger> lookups = new ConcurrentHashMap<>();
+    private final StreamDataLookup countingStore = streamId -> {
+        lookups.computeIfAbsent(streamId, id -> new AtomicInteger()).incrementAndGet();
+        return store.findLast(streamId, null, NOW);
+    };
+
+    @Test
+    void looksUpStreamsConcurrently() throws InterruptedException {
+        int streams = 8;
+        int parallelism = 4;
+        CountDownLatch started = new CountDownLatch(parallelism);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        PrefetchingLookup lookup = new PrefetchingLookup(streamId -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            started.countDown();
+            try {
+                started.await(5, TimeUnit.SECONDS);
+                return null;
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        }, Duration.ofMinutes(1), clock);
+
+        lookup.prefetch(streams(streams), parallelism);
+
+        assertTrue(started.await(5, TimeUnit.SECONDS), "the lookups are not executed concurrently");
+        for (StreamId streamId : streams(streams)) {
+            assertNull(lookup.find(streamId));
+        }
+        assertEquals(parallelism, maxRunning.get(), "unexpected parallelism");
+    }
+
+    @Test
+    void usesPrefetchedDataUntilRefreshInterval() {
+        StreamData first = data(NOW.minusSeconds(10), 1);
+        store.store(STREAM, first);
+        PrefetchingLookup lookup = new PrefetchingLookup(countingStore, Duration.ofMinutes(1), clock);
+
+        lookup.prefetch(List.of(STREAM), 1);
+        assertSame(first, lookup.find(STREAM));
+        clock.advance(Duration.ofSeconds(59));
+        assertSame(first, lookup.find(STREAM));
+        assertEquals(1, lookups.get(STREAM).get());
+
+        StreamData second = data(NOW.minusSeconds(5), 2);
+        store.store(STREAM, second);
+        clock.advance(Duration.ofSeconds(2));
+        assertSame(second, lookup.find(STREAM), "the stream must be looked up again");
+        assertSame(second, lookup.find(STREAM));
+        assertEquals(2, lookups.get(STREAM).get());
+    }
+
+    @Test
+    void looksUpNotPrefetchedStream() {
+        StreamData data = data(NOW.minusSeconds(10), 1);
+        store.store(STREAM, data);
+        PrefetchingLookup lookup = new PrefetchingLookup(countingStore, Duration.ofMinutes(1), clock);
+
+        assertSame(data, lookup.find(STREAM));
+        assertSame(data, lookup.find(STREAM));
+        assertEquals(1, lookups.get(STREAM).get());
+    }
+
+    @Test
+    void retriesFailedPrefetch() {
+        AtomicInteger attempts = new AtomicInteger();
+        StreamData data = data(NOW.minusSeconds(10), 1);
+        PrefetchingLookup lookup = new PrefetchingLookup(streamId -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("storage is not available");
+            }
+            return data;
+        }, Duration.ofMinutes(1), clock);
+
+        lookup.prefetch(List.of(STREAM), 1);
+
+        assertSame(data, lookup.find(STREAM));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new PrefetchingLookup(countingStore, Duration.ofSeconds(-1), clock));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PrefetchingLookup(countingStore, Duration.ZERO, clock).prefetch(List.of(STREAM), 0));
+    }
+
+    private static List<StreamId> streams(int count) {
+        return IntStream.range(0, count).mapToObj(i -> new StreamId("stream-" + i)).collect(Collectors.toList());
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
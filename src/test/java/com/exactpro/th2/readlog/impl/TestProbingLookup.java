@@ -0,0 +1,119 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.read.file.common.state.StreamData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TestProbingLookup {
+    private static final Instant NOW = Instant.parse("2024-05-01T12:00:00Z");
+    private static final Clock CLOCK = Clock.fixed(NOW, ZoneOffset.UTC);
+    private static final StreamId STREAM = new StreamId("test");
+
+    private final InMemoryStreamStore store = new InMemoryStreamStore();
+    private final List<Instant> windows = new ArrayList<>();
+    private final ProbingLookup.WindowQuery recordingStore = (streamId, from, to) -> {
+        assertEquals(NOW, to, "the window must end now");
+        windows.add(from);
+        return store.findLast(streamId, from, to);
+    };
+
+    @Test
+    void findsRecentMessageInFirstWindow() {
+        StreamData last = data(NOW.minusSeconds(30), 2);
+        store.store(STREAM, data(NOW.minusSeconds(60), 1));
+        store.store(STREAM, last);
+        store.store(STREAM, data(NOW.plusSeconds(60), 3));
+
+        assertSame(last, lookup(null).find(STREAM));
+        assertEquals(List.of(NOW.minus(Duration.ofHours(1))), windows);
+    }
+
+    @Test
+    void findsMessageWithHighestSequenceAmongSameTimestamp() {
+        Instant timestamp = NOW.minusSeconds(30);
+        StreamData last = data(timestamp, 3);
+        store.store(STREAM, data(timestamp, 1));
+        store.store(STREAM, last);
+        store.store(STREAM, data(timestamp, 2));
+
+        assertSame(last, lookup(null).find(STREAM));
+    }
+
+    @Test
+    void growsWindowUntilMessageIsFound() {
+        StreamData last = data(NOW.minus(Duration.ofHours(10)), 1);
+        store.store(STREAM, last);
+
+        assertSame(last, lookup(null).find(STREAM));
+        assertEquals(List.of(
+                NOW.minus(Duration.ofHours(1)),
+                NOW.minus(Duration.ofHours(4)),
+                NOW.minus(Duration.ofHours(16))
+        ), windows);
+    }
+
+    @Test
+    void queriesWholeHistoryAtLast() {
+        StreamData last = data(NOW.minus(Duration.ofDays(365)), 1);
+        store.store(STREAM, last);
+
+        assertSame(last, lookup(null).find(STREAM));
+        assertEquals(6, windows.size(), () -> "unexpected windows " + windows);
+        assertNull(windows.get(windows.size() - 1), "the last window must not be limited");
+    }
+
+    @Test
+    void doesNotLookBeyondMaxLookback() {
+        store.store(STREAM, data(NOW.minus(Duration.ofDays(2)), 1));
+
+        assertNull(lookup(Duration.ofDays(1)).find(STREAM));
+        assertEquals(List.of(
+                NOW.minus(Duration.ofHours(1)),
+                NOW.minus(Duration.ofHours(4)),
+                NOW.minus(Duration.ofHours(16)),
+                NOW.minus(Duration.ofDays(1))
+        ), windows);
+    }
+
+    @Test
+    void rejectsInvalidWindows() {
+        assertThrows(IllegalArgumentException.class, () -> new ProbingLookup(store, Duration.ZERO, null, CLOCK));
+        assertThrows(IllegalArgumentException.class, () -> new ProbingLookup(store, Duration.ofHours(2), Duration.ofHours(1), CLOCK));
+    }
+
+    private ProbingLookup lookup(Duration maxLookback) {
+        return new ProbingLookup(recordingStore, Duration.ofHours(1), maxLookback, CLOCK);
+    }
+
+    static StreamData data(Instant timestamp, long sequence) {
+        return new StreamData(timestamp, sequence, CradleReaderState.WRAP_PROTO.invoke(new byte[0]));
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
+
+import com.exactpro.th2.read.file.common.StreamId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestStateJournal {
+    private static final StreamId STREAM = new StreamId("test");
+    private static final Instant NOW = Instant.parse("2024-05-01T10:00:00.123456789Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void restoresCheckpointAfterReopening() throws IOException {
+        Path log = write("test.log", "a\nbb\nccc\ndddd\n");
+        Path file = directory.resolve("state").resolve("journal");
+        try (StateJournal journal = StateJournal.open(file);
+             FileLineReader reader = FileLineReader.open(log, 0)) {
+            journal.sourceOpened(STREAM, log, 0, reader);
+            reader.readLineSequence();
+            reader.readLineSequence();
+            save(journal, STREAM, NOW, 2);
+            assertEquals(0, journal.get(STREAM).getOffset(), "the lines after the previous publication may be not published yet");
+            reader.readLineSequence();
+            save(journal, STREAM, NOW.plusSeconds(1), 3);
+        }
+
+        try (StateJournal journal = StateJournal.open(file)) {
+            StateJournal.Checkpoint checkpoint = journal.get(STREAM);
+            assertNotNull(checkpoint, "checkpoint");
+            assertEquals(log.toString(), checkpoint.getPath());
+            assertEquals(2, checkpoint.getOffset(), "the start of 'bb' line");
+            assertEquals(3, checkpoint.getSequence());
+            assertEquals(NOW.plusSeconds(1), checkpoint.getTimestamp());
+            assertEquals(2, journal.startOffset(STREAM, log));
+            assertNull(journal.get(new StreamId("another")));
+        }
+    }
+
+    @Test
+    void continuesFromOffsetOfReader() throws IOException {
+        Path log = write("test.log", "a\nbb\nccc\ndddd\n");
+        Path file = directory.resolve("journal");
+        try (StateJournal journal = StateJournal.open(file);
+             FileLineReader reader = FileLineReader.open(log, 5)) {
+            journal.sourceOpened(STREAM, log, 5, reader);
+            assertEquals("ccc", reader.readLineSequence().toString());
+            save(journal, STREAM, NOW, 1);
+            reader.readLineSequence();
+            save(journal, STREAM, NOW, 2);
+            assertEquals(5, journal.get(STREAM).getOffset(), "the position in the file");
+        }
+    }
+
+    @Test
+    void savesCheckpointWhenBatchIsSent() throws IOException {
+        Path file = directory.resolve("journal");
+        try (StateJournal journal = StateJournal.open(file)) {
+            journal.record(STREAM, NOW, 10);
+            journal.record(STREAM, NOW.plusSeconds(1), 20);
+            journal.record(STREAM, NOW.plusSeconds(2), 30);
+            assertNull(journal.get(STREAM), "the batches wait for sending");
+
+            journal.sent(STREAM, 25);
+            assertEquals(20, journal.get(STREAM).getSequence());
+            journal.sent(STREAM, 30);
+            assertEquals(30, journal.get(STREAM).getSequence());
+
+            // the batch is sent by the reader's thread before the checkpoint is prepared
+            journal.sent(STREAM, 40);
+            journal.record(STREAM, NOW.plusSeconds(3), 40);
+            assertEquals(40, journal.get(STREAM).getSequence());
+        }
+
+        try (StateJournal journal = StateJournal.open(file)) {
+            assertEquals(40, journal.get(STREAM).getSequence());
+        }
+    }
+
+    @Test
+    void recognizesRenamedFile() throws IOException {
+        Path log = write("test.log", "a\nbb\nccc\n");
+        Path file = directory.resolve("journal");
+        try (StateJournal journal = StateJournal.open(file)) {
+            recordAt(journal, log, 2);
+            Path rotated = Files.move(log, directory.resolve("test.log.1"));
+            Path created = write("test.log", "new\n");
+
+            assertEquals(2, journal.startOffset(STREAM, rotated), "the rotated file is the same");
+            if (!StateJournal.fileKey(created).isEmpty()) {
+                assertEquals(0, journal.startOffset(STREAM, created), "the new file has another key");
+            }
+        }
+    }
+
+    @Test
+    void readsFromStartIfFileIsShorterThanCheckpoint() throws IOException {
+        Path log = write("test.log", "a\nbb\nccc\n");
+        try (StateJournal journal = StateJournal.open(directory.resolve("journal"))) {
+            recordAt(journal, log, 5);
+            Files.write(log, "a\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+
+            assertEquals(0, journal.startOffset(STREAM, log));
+        }
+    }
+
+    @Test
+    void resumesCompressedFile() throws IOException {
+        Path log = directory.resolve("test.log.gz");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+            content.append("line ").append(i).append('\n');
+        }
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(log))) {
+            out.write(content.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        Path file = directory.resolve("journal");
+        try (StateJournal journal = StateJournal.open(file);
+             StreamLineReader reader = StreamLineReader.open(log, Compression.GZIP, null)) {
+            journal.sourceOpened(STREAM, log, 0, reader);
+            for (int i = 0; i < 900; i++) {
+                reader.readLineSequence();
+            }
+            save(journal, STREAM, NOW, 900);
+            save(journal, STREAM, NOW, 900);
+        }
+
+        try (StateJournal journal = StateJournal.open(file)) {
+            long offset = journal.startOffset(STREAM, log);
+            assertTrue(offset > Files.size(log), "the position in the decompressed content: " + offset);
+            try (StreamLineReader reader = StreamLineReader.open(log, Compression.GZIP, null, offset)) {
+                assertEquals("line 899", reader.readLineSequence().toString(), "the last line read before the checkpoint");
+            }
+        }
+    }
+
+    @Test
+    void dropsTornRecord() throws IOException {
+        Path log = write("test.log", "a\nbb\nccc\n");
+        Path file = directory.resolve("journal");
+        try (StateJournal journal = StateJournal.open(file)) {
+            save(journal, STREAM, NOW, 1);
+            save(journal, STREAM, NOW, 2);
+        }
+        long size = Files.size(file);
+        try (StateJournal journal = StateJournal.open(file)) {
+            save(journal, STREAM, NOW, 3);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // the crash in the middle of the last record
+            channel.truncate(Files.size(file) - 3);
+        }
+
+        try (StateJournal journal = StateJournal.open(file)) {
+            assertEquals(2, journal.get(STREAM).getSequence());
+            assertEquals(size, Files.size(file), "the torn record is removed");
+            recordAt(journal, log, 2);
+        }
+        try (StateJournal journal = StateJournal.open(file)) {
+            assertEquals(2, journal.get(STREAM).getOffset(), "the records are appended after the valid ones");
+        }
+    }
+
+    @Test
+    void dropsRecordWithWrongChecksum() throws IOException {
+        Path file = directory.resolve("journal");
+        try (StateJournal journal = StateJournal.open(file)) {
+            save(journal, STREAM, NOW, 1);
+            save(journal, STREAM, NOW, 2);
+        }
+        byte[] content = Files.readAllBytes(file);
+        content[content.length - 1] ^= 1;
+        Files.write(file, content);
+
+        try (StateJournal journal = StateJournal.open(file)) {
+            assertEquals(1, journal.get(STREAM).getSequence());
+            assertEquals(1, journal.records());
+        }
+    }
+
+    @Test
+    void ignoresUnknownFile() throws IOException {
+        Path file = write("journal", "not a journal");
+
+        try (StateJournal journal = StateJournal.open(file)) {
+            assertNull(journal.get(STREAM));
+            save(journal, STREAM, NOW, 1);
+        }
+        try (StateJournal journal = StateJournal.open(file)) {
+            assertEquals(1, journal.get(STREAM).getSequence());
+        }
+    }
+
+    @Test
+    void compactsRecords() throws IOException {
+        Path file = directory.resolve("journal");
+        StreamId another = new StreamId("another");
+        try (StateJournal journal = StateJournal.open(file)) {
+            save(journal, another, NOW, 42);
+            for (int i = 1; i <= 10_000; i++) {
+                save(journal, STREAM, NOW.plusMillis(i), i);
+            }
+            assertTrue(journal.records() <= 1025, "records after compaction: " + journal.records());
+            save(journal, STREAM, NOW, 10_001);
+        }
+
+        try (StateJournal journal = StateJournal.open(file)) {
+            assertEquals(10_001, journal.get(STREAM).getSequence());
+            assertEquals(42, journal.get(another).getSequence());
+            assertTrue(journal.records() <= 1026, "records: " + journal.records());
+        }
+    }
+
+    private static void save(StateJournal journal, StreamId streamId, Instant timestamp, long sequence) {
+        journal.record(streamId, timestamp, sequence);
+        journal.sent(streamId, sequence);
+    }
+
+    private void recordAt(StateJournal journal, Path log, long offset) throws IOException {
+        try (FileLineReader reader = FileLineReader.open(log, offset)) {
+            journal.sourceOpened(STREAM, log, offset, reader);
+            save(journal, STREAM, NOW, 1);
+            reader.readLineSequence();
+            save(journal, STREAM, NOW, 2);
+        }
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestStreamLineReader {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @ParameterizedTest(name = "Read ahead: {0}")
+    @ValueSource(booleans = {false, true})
+    void readsGzipFile(boolean readAhead) throws IOException {
+        List<String> lines = lines(10_000);
+        Path file = directory.resolve("test.log.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(content(lines));
+        }
+
+        try (StreamLineReader reader = StreamLineReader.open(file, Compression.GZIP, readAhead ? executor : null)) {
+            assertEquals(lines, readAll(reader));
+            assertEquals(lines.size(), reader.getLineNumber());
+            assertFalse(reader.ready(), "the end of the file must be reached");
+        }
+    }
+
+    @Test
+    void readsConcatenatedGzipMembers() throws IOException {
+        Path file = directory.resolve("test.log.gz");
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(gzip("first\nsec"));
+            out.write(gzip("ond\nthird\n"));
+        }
+
+        try (StreamLineReader reader = StreamLineReader.open(file, Compression.GZIP, executor)) {
+            assertEquals(List.of("first", "second", "third"), readAll(reader));
+        }
+    }
+
+    @Test
+    void readsZstdFile() throws IOException {
+        List<String> lines = lines(1_000);
+        Path file = directory.resolve("test.log.zst");
+        try (OutputStream out = new ZstdOutputStream(Files.newOutputStream(file))) {
+            out.write(content(lines));
+        }
+
+        try (StreamLineReader reader = StreamLineReader.open(file, Compression.ZSTD, executor)) {
+            assertEquals(lines, readAll(reader));
+        }
+    }
+
+    @Test
+    void reportsTruncatedFile() throws IOException {
+        byte[] compressed = gzip(new String(content(lines(10_000)), StandardCharsets.UTF_8));
+        Path file = directory.resolve("test.log.gz");
+        Files.write(file, Arrays.copyOf(compressed, compressed.length / 2));
+
+        try (StreamLineReader reader = StreamLineReader.open(file, Compression.GZIP, executor)) {
+            assertThrows(IOException.class, () -> readAll(reader));
+        }
+    }
+
+    @Test
+    void skipsDecompressedBytesBeforeOffset() throws IOException {
+        Path file = directory.resolve("test.log.gz");
+        Files.write(file, gzip("first\nsecond\nthird\n"));
+
+        try (StreamLineReader reader = StreamLineReader.open(file, Compression.GZIP, executor, 6)) {
+            assertEquals(List.of("second", "third"), readAll(reader));
+        }
+        try (StreamLineReader reader = StreamLineReader.open(file, Compression.GZIP, null, 100)) {
+            assertEquals(List.of(), readAll(reader), "the offset after the end of the file");
+        }
+    }
+
+    @Test
+    void readAheadRefillsBlocksAfterTheyAreRead() throws IOException {
+        byte[] content = content(lines(1_000));
+        Path file = directory.resolve("test.log");
+        Files.write(file, content);
+
+        try (ReadAheadInputStream stream = new ReadAheadInputStream(Files.newInputStream(file), executor, 7, 2)) {
+            assertTrue(Arrays.equals(content, stream.readAllBytes()), "the content must be the same");
+            assertEquals(-1, stream.read());
+            assertEquals(0, stream.available());
+        }
+    }
+
+    @Test
+    void readAheadReadsOnCallerThreadWhenExecutorIsShutDown() throws IOException {
+        byte[] content = content(lines(100));
+        Path file = directory.resolve("test.log");
+        Files.write(file, content);
+        executor.shutdown();
+
+        try (ReadAheadInputStream stream = new ReadAheadInputStream(Files.newInputStream(file), executor, 16, 2)) {
+            assertTrue(Arrays.equals(content, stream.readAllBytes()), "the content must be the same");
+        }
+    }
+
+    private static List<String> lines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            lines.add("line " + i + (i % 7 == 0 ? " ä€" : ""));
+        }
+        return lines;
+    }
+
+    private static byte[] content(List<String> lines) {
+        return (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<String> readAll(StreamLineReader reader) throws IOException {
+        List<String> result = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            result.add(line);
+        }
+        assertNull(reader.readLine());
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.regex;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class TestBacktrackingAnalyzer {
+
+    @ParameterizedTest(name = "{0} is reported as {1}")
+    @MethodSource("risky")
+    void reportsRiskyShapes(String regexp, String risk) {
+        List<String> risks = BacktrackingAnalyzer.analyze(Pattern.compile(regexp));
+        assertEquals(1, risks.size(), () -> "Unexpected risks: " + risks);
+        assertTrue(risks.get(0).startsWith(risk), () -> "Unexpected risk: " + risks.get(0));
+    }
+
+    static List<Arguments> risky() {
+        return List.of(
+                arguments("^(\\w+\\s?)+$", "nested quantifier (\\w+\\s?)+"),
+                arguments("(a*)*b", "nested quantifier (a*)*"),
+                arguments("(?:x+y?){2,}z", "nested quantifier (?:x+y?){2,}"),
+                arguments("((ab)+c)+", "nested quantifier ((ab)+c)+"),
+                arguments("(a|ab)*c", "alternation (a|ab)*"),
+                arguments("(.|\\s)*end", "alternation (.|\\s)*"),
+                arguments("start.*.*end", "adjacent quantifiers .* and .*"),
+                arguments("\\d+\\d*x", "adjacent quantifiers \\d+ and \\d*"),
+                arguments("(.*)(\\S+)$", "adjacent quantifiers .* and \\S+"),
+                arguments("a.+?b?\\w+", "adjacent quantifiers .+? and \\w+")
+        );
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "8=FIX.+10=.+?",
+            "(FixService.+)(8=FIX.+10=.+?)",
+            "^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}",
+            "(\\S+),\\s+(\\d+)",
+            "(?>a+)+b",
+            "(a++)+b",
+            "(?:ab|cd)+",
+            "[(+*]+\\(.*\\)",
+            "\\Q(a+)+\\E",
+            "(?i)abc.*def",
+            "x{2,3}y{1,5}"
+    })
+    void acceptsSafeRegexps(String regexp) {
+        assertEquals(List.of(), BacktrackingAnalyzer.analyze(Pattern.compile(regexp)));
+    }
+}
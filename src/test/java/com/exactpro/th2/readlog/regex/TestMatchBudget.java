@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.regex;
+
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestMatchBudget {
+    /**
+     * {@code (.*x){10}y} takes super-linear time on the backtracking engine for the line without 'y'
+     */
+    private static final Pattern CATASTROPHIC = Pattern.compile("(.*x){10}y");
+    private static final String RUNAWAY_LINE = "x".repeat(40);
+
+    @Test
+    void unlimitedBudgetReturnsTheLine() {
+        String line = "test";
+        assertSame(MatchBudget.UNLIMITED, MatchBudget.create(0, null));
+        assertSame(line, MatchBudget.UNLIMITED.start(line));
+    }
+
+    @ParameterizedTest
+    @EnumSource(RegexEngine.class)
+    void matchesWithinBudget(RegexEngine engine) {
+        LineMatcher matcher = engine.compile(Pattern.compile("(\\d+)-(\\w+)"))
+                .matcher(MatchBudget.create(1_000, Duration.ofSeconds(10)).start("id 42-abc"));
+
+        assertTrue(matcher.find(), "the line must be matched");
+        assertEquals("42", matcher.group(1));
+        assertEquals("abc", matcher.group(2));
+    }
+
+    @Test
+    void abortsMatchingWhenStepLimitExceeded() {
+        LineMatcher matcher = RegexEngine.JDK.compile(CATASTROPHIC)
+                .matcher(MatchBudget.create(100_000, null).start(RUNAWAY_LINE));
+
+        var ex = assertThrows(MatchBudgetExceededException.class, matcher::find);
+        assertEquals("the matching takes more than 100000 steps", ex.getMessage());
+    }
+
+    @Test
+    void abortsMatchingWhenTimeoutExceeded() {
+        LineMatcher matcher = RegexEngine.JDK.compile(CATASTROPHIC)
+                .matcher(MatchBudget.create(0, Duration.ofMillis(50)).start(RUNAWAY_LINE));
+
+        long start = System.nanoTime();
+        var ex = assertThrows(MatchBudgetExceededException.class, matcher::find);
+        assertEquals("the matching takes longer than PT0.05S", ex.getMessage());
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos(), "the matching is not aborted in time");
+    }
+
+    @Test
+    void budgetIsSharedByAllMatchesOfLine() {
+        CharSequence input = MatchBudget.create(10, null).start("abcdef");
+        LineRegex regex = RegexEngine.JDK.compile(Pattern.compile("[a-f]+"));
+
+        assertTrue(regex.matcher(input).find(), "the first match must fit into the budget");
+        assertThrows(MatchBudgetExceededException.class, () -> regex.matcher(input).find());
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> MatchBudget.create(-1, null));
+        assertThrows(IllegalArgumentException.class, () -> MatchBudget.create(0, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> MatchBudget.create(0, Duration.ofMillis(-1)));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class TestRegexEngine {
+
+    @ParameterizedTest(name = "{0} in {1}")
+    @MethodSource("supported")
+    void re2jFindsSameGroupsAsJdk(String regexp, String line) {
+        LineRegex re2j = RegexEngine.RE2J.compile(Pattern.compile(regexp));
+        LineRegex jdk = RegexEngine.JDK.compile(Pattern.compile(regexp));
+
+        assertEquals(RegexEngine.RE2J, re2j.engine(), "unexpected engine");
+        assertEquals(jdk.groupCount(), re2j.groupCount(), "unexpected group count");
+        assertEquals(groups(jdk, line), groups(re2j, line));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "(a)\\1",
+            "FIX(?=\\|)",
+            "(?<!\\d)\\d+",
+            "a++b",
+            "[a-z&&[^b]]+",
+            "\\v+",
+    })
+    void fallsBackToJdkOnUnsupportedConstructs(String regexp) {
+        LineRegex regex = RegexEngine.RE2J.compile(Pattern.compile(regexp));
+
+        assertEquals(RegexEngine.JDK, regex.engine(), "unexpected engine");
+        assertEquals(regexp, regex.pattern());
+    }
+
+    static List<Arguments> supported() {
+        return List.of(
+                arguments("8=FIX.+10=.+?", "prefix 8=FIX.4.4|9=12|35=A|10=123|"),
+                arguments("(.*)(\\d+)(.*)", "abc 123 def"),
+                arguments("(?<name>\\w+)=(\\d+)?", "a=1 b= c=3"),
+                arguments("^\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}.\\d{3,9}", "2021-03-23 13:21:37.991337479 data"),
+                arguments("\\Q[x]\\E(\\S+)", "[x]value [x]other")
+        );
+    }
+
+    private static List<String> groups(LineRegex regex, String line) {
+        List<String> result = new ArrayList<>();
+        LineMatcher matcher = regex.matcher(line);
+        while (matcher.find()) {
+            for (int i = 0; i <= regex.groupCount(); i++) {
+                result.add(matcher.start(i) + ":" + matcher.end(i) + ":" + matcher.group(i));
+            }
+        }
+        return result;
+    }
+}
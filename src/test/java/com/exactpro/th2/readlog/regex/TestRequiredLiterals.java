@@ -0,0 +1,55 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.regex;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.params.provider.Arguments.arguments;
+
+class TestRequiredLiterals {
+
+    @ParameterizedTest(name = "{0} requires {1}")
+    @MethodSource("patterns")
+    void extractsRequiredLiterals(String regexp, List<String> expected) {
+        assertEquals(expected, RequiredLiterals.all(Pattern.compile(regexp)));
+    }
+
+    static List<Arguments> patterns() {
+        return List.of(
+                arguments("8=FIX.+10=.+?", List.of("8=FIX", "10=")),
+                arguments("(FixService.+)(8=FIX.+10=.+?)", List.of("FixService", "8=FIX", "10=")),
+                arguments("^202.+?(?= QUICK)", List.of("202", " QUICK")),
+                arguments("ab?cd", List.of("a", "cd")),
+                arguments("x{2,3}yz", List.of("x", "yz")),
+                arguments("a\\.b\\Qx.y\\E*z", List.of("a.bx.", "z")),
+                arguments("(abc)?def", List.of("def")),
+                arguments("(?:FIX|ABC)DEF", List.of("DEF")),
+                arguments("(?!abc)def", List.of("def")),
+                arguments("(\\d)\\12ab", List.of("ab")),
+                arguments("[a-z\\]]+FIX", List.of("FIX")),
+                arguments("abc|def", List.of()),
+                arguments("(?i)abc", List.of()),
+                arguments(".*", List.of())
+        );
+    }
+}
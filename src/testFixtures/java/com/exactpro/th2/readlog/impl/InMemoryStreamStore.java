@@ -0,0 +1,102 @@
+/*
+ * Copyright 2024 Exactpro (Exactpro Systems Limited)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.exactpro.th2.readlog.impl;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import com.exactpro.th2.read.file.common.StreamId;
+import com.exactpro.th2.read.file.common.state.StreamData;
+
+/**
+ * Keeps the stored messages in memory instead of Cradle.
+ * It is used to check and to measure the synchronization with the storage without Cradle.
+ * Each query can be delayed to simulate the latency of the storage.
+ */
+public final class InMemoryStreamStore implements ProbingLookup.WindowQuery {
+    private final Map<StreamId, NavigableMap<Key, StreamData>> streams = new ConcurrentHashMap<>();
+    private final Duration latency;
+    private final AtomicLong queries = new AtomicLong();
+
+    public InMemoryStreamStore() {
+        this(Duration.ZERO);
+    }
+
+    /**
+     * @param latency the time each query takes
+     */
+    public InMemoryStreamStore(Duration latency) {
+        this.latency = Objects.requireNonNull(latency, "'Latency' parameter");
+    }
+
+    public void store(StreamId streamId, StreamData data) {
+        // the messages with the same timestamp are ordered by the sequence
+        streams.computeIfAbsent(streamId, id -> new ConcurrentSkipListMap<>()).put(new Key(data.getTimestamp(), data.getLastSequence()), data);
+    }
+
+    @Nullable
+    @Override
+    public StreamData findLast(StreamId streamId, @Nullable Instant from, Instant to) {
+        queries.incrementAndGet();
+        if (!latency.isZero()) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(latency.toNanos());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while querying " + streamId, e);
+            }
+        }
+        NavigableMap<Key, StreamData> messages = streams.get(streamId);
+        if (messages == null) {
+            return null;
+        }
+        Map.Entry<Key, StreamData> last = messages.floorEntry(new Key(to, Long.MAX_VALUE));
+        return last == null || (from != null && last.getKey().timestamp.isBefore(from)) ? null : last.getValue();
+    }
+
+    /**
+     * @return the number of queries executed
+     */
+    public long getQueries() {
+        return queries.get();
+    }
+
+    private static final class Key implements Comparable<Key> {
+        private final Instant timestamp;
+        private final long sequence;
+
+        private Key(Instant timestamp, long sequence) {
+            this.timestamp = timestamp;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int result = timestamp.compareTo(other.timestamp);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+}